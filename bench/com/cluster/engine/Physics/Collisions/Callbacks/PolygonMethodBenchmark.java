@@ -0,0 +1,145 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions.Callbacks;
+
+import com.cluster.engine.Physics.BodyConfig;
+import com.cluster.engine.Physics.RigidBody;
+import com.cluster.engine.Physics.World;
+import com.cluster.engine.Physics.WorldConfig;
+import com.cluster.engine.Physics.Collisions.Manifold;
+import com.cluster.engine.Physics.Shapes.Polygon;
+import org.jsfml.system.Vector2f;
+
+import java.util.Random;
+
+/**
+ * Times the GJK and SAT polygon handlers against each other on regular polygons with 4 to 8 vertices, pairs are
+ * placed so roughly half of them overlap and the hit counts can differ slightly on grazing contacts. Run the main
+ * method with the engine and JSFML on the class path, the number of pairs and passes can be changed with -Dpairs
+ * and -Dpasses
+ */
+public final class PolygonMethodBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+
+    // Private constructor
+    private PolygonMethodBenchmark() {}
+
+    public static void main(String[] args) {
+        int pairs = Integer.getInteger("pairs", 2000);
+        int passes = Integer.getInteger("passes", 500);
+
+        CollisionHandler gjk = new PolygonPolygonCollision();
+        CollisionHandler sat = new PolygonPolygonSatCollision();
+
+        System.out.println("vertices    GJK ns/test    SAT ns/test    GJK hits    SAT hits");
+        for(int vertices = 4; vertices <= 8; vertices++) {
+            Manifold[] manifolds = createPairs(vertices, pairs);
+
+            for(int i = 0; i < WARMUP_ROUNDS; i++) {
+                run(gjk, manifolds, passes);
+                run(sat, manifolds, passes);
+            }
+
+            long gjkTime = run(gjk, manifolds, passes);
+            int gjkHits = countHits(manifolds);
+            long satTime = run(sat, manifolds, passes);
+            int satHits = countHits(manifolds);
+
+            double tests = (double) pairs * passes;
+            System.out.printf("%8d    %11.1f    %11.1f    %8d    %8d%n", vertices, gjkTime / tests, satTime / tests,
+                    gjkHits, satHits);
+        }
+    }
+
+    /**
+     * Runs the handler over every pair the number of times given
+     * @param handler The handler to time
+     * @param manifolds The pairs to test
+     * @param passes How many times to test every pair
+     * @return The time taken in nanoseconds
+     */
+    private static long run(CollisionHandler handler, Manifold[] manifolds, int passes) {
+        long start = System.nanoTime();
+        for(int i = 0; i < passes; i++) {
+            for(Manifold manifold : manifolds) {
+                CollisionUtil.setSeparated(manifold);
+                handler.handleCollision(manifold, manifold.a.getShape(), manifold.b.getShape());
+            }
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static int countHits(Manifold[] manifolds) {
+        int hits = 0;
+        for(Manifold manifold : manifolds) {
+            if(manifold.collided) hits++;
+        }
+
+        return hits;
+    }
+
+    /**
+     * Creates pairs of randomly rotated regular polygons, each pair is far enough from the others that they never
+     * interact
+     * @param vertices The number of vertices of every polygon
+     * @param count The number of pairs to create
+     * @return The manifolds of the pairs
+     */
+    private static Manifold[] createPairs(int vertices, int count) {
+        Random random = new Random(1);
+
+        WorldConfig config = new WorldConfig();
+        config.gravity = new Vector2f(0, 0);
+        World world = new World(config);
+
+        Manifold[] manifolds = new Manifold[count];
+        RigidBody[] bodies = new RigidBody[2];
+        for(int i = 0; i < count; i++) {
+            for(int j = 0; j < 2; j++) {
+                BodyConfig body = new BodyConfig();
+                body.shape = createRegular(vertices, 20);
+                body.position = new Vector2f(i * 100 + j * (25 + random.nextFloat() * 30), 0);
+
+                bodies[j] = world.createBody(body);
+                bodies[j].setTransform(body.position, random.nextFloat() * 6);
+            }
+
+            manifolds[i] = new Manifold(bodies[0], bodies[1]);
+        }
+
+        return manifolds;
+    }
+
+    private static Polygon createRegular(int vertices, float radius) {
+        Vector2f[] points = new Vector2f[vertices];
+        for(int i = 0; i < vertices; i++) {
+            double angle = (2 * Math.PI * i) / vertices;
+            points[i] = new Vector2f((float) (Math.cos(angle) * radius), (float) (Math.sin(angle) * radius));
+        }
+
+        return new Polygon(points);
+    }
+}
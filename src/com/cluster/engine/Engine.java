@@ -47,6 +47,8 @@ import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.concurrent.Semaphore;
 
 /**
  * A Class which handles the Engine backend, this will update, draw and handle input
@@ -71,11 +73,16 @@ public class Engine implements Updateable, Renderable, Disposable {
     private Game game;
     // The constant Game time, in seconds
     private float deltaTime;
+    // How far the time left over after updating is towards the next update, between 0 and 1
+    private float alpha;
+    // The time passed which has not been updated yet, and how far it is towards the next update
+    private float accumulator;
+    private float updateAlpha;
 
     // Whether or not the Engine has been disposed
     private boolean isDisposed;
-    // Whether or not the engine should close
-    private boolean shouldClose;
+    // Whether or not the engine should close, the game can ask to close from the update thread
+    private volatile boolean shouldClose;
 
     // The main Window of the Engine
     private RenderWindow window;
@@ -86,6 +93,29 @@ public class Engine implements Updateable, Renderable, Disposable {
     // The fps of the game
     private int fps;
 
+    // Whether or not the mouse cursor is hidden because a controller is being used
+    private boolean controllerMoved;
+
+    // Whether the game is updated on its own thread while the last frame is rendered
+    private boolean pipelined;
+    // The thread which updates the game when pipelined
+    private Thread updateThread;
+    // Released by the main thread to let a frame be updated, and by the update thread once it has been
+    private Semaphore updateStart;
+    private Semaphore updateDone;
+    // Whether the update thread should keep running
+    private boolean updating;
+    // Whether the update thread has been given a frame which has not been waited for
+    private boolean updatePending;
+    // Anything thrown while updating on the update thread
+    private Throwable updateError;
+
+    // The events polled since the last frame was started, and the input events being passed on by the update thread
+    private ArrayList<Event> pendingEvents;
+    private ArrayList<Event> updateEvents;
+    // The time passed which the update thread is advancing the game by
+    private float updateElapsed;
+
     /**
      * Creates an Runnable Engine which will run the main Game loop
      * @param game The Game instance used for updating and rendering
@@ -120,6 +150,18 @@ public class Engine implements Updateable, Renderable, Disposable {
             deltaTime = 1.0f / (float)config.fpsLimit;
         }
 
+        // A fixed update rate decouples updating from drawing, the frames in between are interpolated
+        if(config.updateRate > 0) {
+            deltaTime = 1.0f / (float)config.updateRate;
+        }
+
+        alpha = 0;
+        updateAlpha = 0;
+
+        pipelined = config.pipelined;
+        pendingEvents = new ArrayList<>();
+        updateEvents = new ArrayList<>();
+
         // Sets the Input Handling to a Default Handler
         input = new InputHandler();
 
@@ -144,115 +186,288 @@ public class Engine implements Updateable, Renderable, Disposable {
 
     /**
      * Runs a continuous while loop until the window closes<br>
-     *     Will call {@link Engine#update(float dt)} and {@link Engine#render()} once per frame and handle input
+     *     Will call {@link Engine#update(float dt)} at a fixed rate and {@link Engine#render()} once per frame and
+     *     handle input. When pipelined the updates run on their own thread while the last frame is rendered, see
+     *     {@link Game} for what each thread owns
      */
     public void mainLoop() {
 
         // Starts a clock to see how much time has passed
-        float accumulator = 0;
+        accumulator = 0;
         Clock clock = new Clock();
 
-        boolean controllerMoved = false;
-
-        // Begins the Main loop
-        while (!shouldClose) {
-
-            // Poll for events
-            for (Event event : window.pollEvents()) {
-                switch (event.type) {
-                    // Window Events
-                    case RESIZED:
-                        SizeEvent sizeEvent = event.asSizeEvent();
-                        game.resize(sizeEvent.size.x, sizeEvent.size.y);
-                        break;
-                    case GAINED_FOCUS:
-                        game.resume();
-                        break;
-                    case LOST_FOCUS:
-                        game.pause();
-                        break;
-                    case CLOSED:
-                        close();
-                        break;
-
-                    // Keyboard Events
-                    case KEY_PRESSED:
-                        input.keyPressed(event.asKeyEvent().key);
-                        break;
-                    case KEY_RELEASED:
-                        input.keyReleased(event.asKeyEvent().key);
-                        break;
-
-                    // Mouse Events
-                    case MOUSE_BUTTON_PRESSED:
-                        MouseButtonEvent mouseButtonEvent = event.asMouseButtonEvent();
-                        input.mouseButtonPressed(mouseButtonEvent.button, mouseButtonEvent.position);
-                        break;
-                    case MOUSE_BUTTON_RELEASED:
-                        mouseButtonEvent = event.asMouseButtonEvent();
-                        input.mouseButtonReleased(mouseButtonEvent.button, mouseButtonEvent.position);
-                        break;
-                    case MOUSE_WHEEL_MOVED:
-                        input.mouseWheelMoved(event.asMouseWheelEvent().delta);
-                        break;
-                    case MOUSE_MOVED:
-                        if(!Mouse.getPosition().equals(window.getPosition())) {
-                            controllerMoved = false;
-                        }
-                        input.mouseMoved(event.asMouseEvent().position);
-                        break;
-
-                    // Controller events
-                    case JOYSTICK_BUTTON_PRESSED:
-                        controllerMoved = true;
-                        Mouse.setPosition(window.getPosition());
-                        JoystickButtonEvent jsButtonEvent = event.asJoystickButtonEvent();
-                        input.controllerButtonPressed(jsButtonEvent.joystickId, jsButtonEvent.button);
-                        break;
-                    case JOYSTICK_BUTTON_RELEASED:
-                        jsButtonEvent = event.asJoystickButtonEvent();
-                        input.controllerButtonReleased(jsButtonEvent.joystickId, jsButtonEvent.button);
-                        break;
-                    case JOYSTICK_MOVED:
-                        controllerMoved = true;
-                        Mouse.setPosition(window.getPosition());
-                        JoystickMoveEvent jsMoveEvent = event.asJoystickMoveEvent();
-                        input.controllerAxisMoved(jsMoveEvent.joystickId,
-                                jsMoveEvent.joyAxis, jsMoveEvent.position);
-                        break;
-                    case JOYSTICK_CONNECTED:
-                        input.controllerConnected(event.asJoystickEvent().joystickId);
-                        break;
-                    case JOYSTICK_DISCONNECTED:
-                        input.controllerDisconnected(event.asJoystickEvent().joystickId);
-                        break;
+        controllerMoved = false;
+
+        if(pipelined) startUpdateThread();
+
+        try {
+            // Begins the Main loop
+            while (!shouldClose) {
+
+                // Poll for events, input is only passed on by the thread the game is updated on
+                for (Event event : window.pollEvents()) {
+                    handleWindowEvent(event);
+
+                    if(pipelined) {
+                        pendingEvents.add(event);
+                    }
+                    else {
+                        dispatchWindowEvent(event);
+                        dispatchInputEvent(event);
+                    }
+                }
+
+                // Works out how much time has passed
+                float elapsed = clock.getElapsedTime().asSeconds();
+                clock.restart();
+
+                fps = Math.round(1 / elapsed);
+
+                if(pipelined) {
+                    // Wait for the frame being updated, publish it, then start updating the next while it is rendered
+                    awaitUpdate();
+
+                    // Nothing is being updated so the game can be told about the window here
+                    for (int i = 0; i < pendingEvents.size(); i++) {
+                        dispatchWindowEvent(pendingEvents.get(i));
+                    }
+
+                    alpha = updateAlpha;
+                    game.publish();
+
+                    startUpdate(elapsed);
+                }
+                else {
+                    advance(elapsed);
+
+                    alpha = updateAlpha;
+                    game.publish();
                 }
+
+                // Render the game
+                render();
+
+                window.setMouseCursorVisible(!controllerMoved);
             }
+        }
+        finally {
+            // The window and game are always disposed, even if the game failed
+            try {
+                if(pipelined) stopUpdateThread();
+            }
+            finally {
+                dispose();
+            }
+        }
+    }
+
+    /**
+     * Runs as many fixed updates as the time passed allows, the time left over is kept for the next frame
+     * @param elapsed The time passed since the last frame, in seconds
+     */
+    private void advance(float elapsed) {
+        // Advances and clamps the accumulator
+        accumulator += elapsed;
+        accumulator = MUtil.clamp(accumulator, 0, 0.2f);
+
+        // If the accumulator has passed the specified delta time
+        // Then update the game
+        while (accumulator >= deltaTime) {
+            accumulator -= deltaTime;
+            update(deltaTime);
+        }
+
+        // Keep the leftover time so the game can draw between the last update and the next
+        updateAlpha = accumulator / deltaTime;
+    }
+
+    /**
+     * Handles the parts of an event which belong to the window, these always run on the main thread
+     * @param event The event to handle
+     */
+    private void handleWindowEvent(Event event) {
+        switch (event.type) {
+            case CLOSED:
+                close();
+                break;
+            case MOUSE_MOVED:
+                if(!Mouse.getPosition().equals(window.getPosition())) {
+                    controllerMoved = false;
+                }
+                break;
+            case JOYSTICK_BUTTON_PRESSED:
+            case JOYSTICK_MOVED:
+                controllerMoved = true;
+                Mouse.setPosition(window.getPosition());
+                break;
+        }
+    }
+
+    /**
+     * Passes a window event on to the game, this runs on the main thread while nothing is being updated
+     * @param event The event to pass on
+     */
+    private void dispatchWindowEvent(Event event) {
+        switch (event.type) {
+            case RESIZED:
+                SizeEvent sizeEvent = event.asSizeEvent();
+                game.resize(sizeEvent.size.x, sizeEvent.size.y);
+                break;
+            case GAINED_FOCUS:
+                game.resume();
+                break;
+            case LOST_FOCUS:
+                game.pause();
+                break;
+        }
+    }
+
+    /**
+     * Passes an input event on to the input handler, this runs on the thread the game is updated on
+     * @param event The event to pass on
+     */
+    private void dispatchInputEvent(Event event) {
+        switch (event.type) {
+            // Keyboard Events
+            case KEY_PRESSED:
+                input.keyPressed(event.asKeyEvent().key);
+                break;
+            case KEY_RELEASED:
+                input.keyReleased(event.asKeyEvent().key);
+                break;
+
+            // Mouse Events
+            case MOUSE_BUTTON_PRESSED:
+                MouseButtonEvent mouseButtonEvent = event.asMouseButtonEvent();
+                input.mouseButtonPressed(mouseButtonEvent.button, mouseButtonEvent.position);
+                break;
+            case MOUSE_BUTTON_RELEASED:
+                mouseButtonEvent = event.asMouseButtonEvent();
+                input.mouseButtonReleased(mouseButtonEvent.button, mouseButtonEvent.position);
+                break;
+            case MOUSE_WHEEL_MOVED:
+                input.mouseWheelMoved(event.asMouseWheelEvent().delta);
+                break;
+            case MOUSE_MOVED:
+                input.mouseMoved(event.asMouseEvent().position);
+                break;
+
+            // Controller events
+            case JOYSTICK_BUTTON_PRESSED:
+                JoystickButtonEvent jsButtonEvent = event.asJoystickButtonEvent();
+                input.controllerButtonPressed(jsButtonEvent.joystickId, jsButtonEvent.button);
+                break;
+            case JOYSTICK_BUTTON_RELEASED:
+                jsButtonEvent = event.asJoystickButtonEvent();
+                input.controllerButtonReleased(jsButtonEvent.joystickId, jsButtonEvent.button);
+                break;
+            case JOYSTICK_MOVED:
+                JoystickMoveEvent jsMoveEvent = event.asJoystickMoveEvent();
+                input.controllerAxisMoved(jsMoveEvent.joystickId,
+                        jsMoveEvent.joyAxis, jsMoveEvent.position);
+                break;
+            case JOYSTICK_CONNECTED:
+                input.controllerConnected(event.asJoystickEvent().joystickId);
+                break;
+            case JOYSTICK_DISCONNECTED:
+                input.controllerDisconnected(event.asJoystickEvent().joystickId);
+                break;
+        }
+    }
+
+    /**
+     * Starts the thread which updates the game when pipelined, it waits until it is given a frame to update
+     */
+    private void startUpdateThread() {
+        updateStart = new Semaphore(0);
+        updateDone = new Semaphore(0);
 
-            // Advances the accumulator
-            float elapsed = clock.getElapsedTime().asSeconds();
-            accumulator += elapsed;
-            clock.restart();
+        updating = true;
+        updatePending = false;
+        updateError = null;
 
-            fps = Math.round(1 / elapsed);
+        updateThread = new Thread(this::runUpdateThread, "Engine Update");
+        updateThread.setDaemon(true);
+        updateThread.start();
+    }
+
+    /**
+     * The loop run by the update thread, each frame it passes on the events it was given and then advances the game
+     * by the time passed. Anything thrown is kept and thrown again on the main thread
+     */
+    private void runUpdateThread() {
+        try {
+            while (true) {
+                updateStart.acquireUninterruptibly();
+                if(!updating) return;
+
+                for(int i = 0; i < updateEvents.size(); i++) {
+                    dispatchInputEvent(updateEvents.get(i));
+                }
 
-            // Clamps the accumulator
-            accumulator = MUtil.clamp(accumulator, 0, 0.2f);
+                updateEvents.clear();
 
-            // If the accumulator has passed the specified delta time
-            // Then update the game
-            while (accumulator >= deltaTime) {
-                accumulator -= deltaTime;
-                update(deltaTime);
+                advance(updateElapsed);
+                updateDone.release();
             }
+        }
+        catch (Throwable t) {
+            updateError = t;
+            updateDone.release();
+        }
+    }
+
+    /**
+     * Gives the update thread the events polled since the last frame and the time passed, then lets it update
+     * @param elapsed The time passed since the last frame, in seconds
+     */
+    private void startUpdate(float elapsed) {
+        // The update thread clears its events once it has passed them on, so the lists can be swapped
+        ArrayList<Event> events = updateEvents;
+        updateEvents = pendingEvents;
+        pendingEvents = events;
+
+        updateElapsed = elapsed;
+        updatePending = true;
+        updateStart.release();
+    }
+
+    /**
+     * Waits for the update thread to finish the frame it was given, everything the game owns can be touched until
+     * the next frame is started
+     */
+    private void awaitUpdate() {
+        // Nothing is being updated before the first frame, or after a failed update has been waited for
+        if(!updatePending) return;
 
-            // Render the game
-            render();
+        updatePending = false;
+        updateDone.acquireUninterruptibly();
 
-            window.setMouseCursorVisible(!controllerMoved);
+        if(updateError != null) {
+            throw new IllegalStateException("Error: The game failed while updating on the update thread", updateError);
+        }
+    }
+
+    /**
+     * Waits for the frame being updated and then stops the update thread
+     */
+    private void stopUpdateThread() {
+        try {
+            awaitUpdate();
         }
+        finally {
+            updating = false;
+            updateStart.release();
 
-        dispose();
+            try {
+                updateThread.join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            updateThread = null;
+        }
     }
 
     /**
@@ -341,4 +556,18 @@ public class Engine implements Updateable, Renderable, Disposable {
      * @return The framerate of the engine
      */
     public int getFramerate() { return fps; }
+
+    /**
+     * Gets how far the current frame is between the last update and the next, drawing objects this far between
+     * their previous and current positions keeps motion smooth when updating less often than rendering<br>
+     * See {@link com.cluster.engine.Physics.RigidBody#getInterpolatedTransform(float, com.cluster.engine.Physics.Transform)}
+     * @return The interpolation alpha, between 0 and 1
+     */
+    public float getAlpha() { return alpha; }
+
+    /**
+     * Gets the fixed amount of time each update moves the game forward by
+     * @return The update time step, in seconds
+     */
+    public float getDeltaTime() { return deltaTime; }
 }
@@ -25,15 +25,27 @@
 package com.cluster.engine;
 
 import com.cluster.engine.Utilities.Interfaces.Disposable;
+import com.cluster.engine.Utilities.Interfaces.Publishable;
 import com.cluster.engine.Utilities.Interfaces.Renderable;
 import com.cluster.engine.Utilities.Interfaces.Updateable;
 import org.jsfml.graphics.RenderWindow;
 
 /**
- * The base class for a Game instance, the {@link Engine} will use this to update and render your game
+ * The base class for a Game instance, the {@link Engine} will use this to update and render your game<br>
+ * When the engine is pipelined, see {@link com.cluster.engine.Utilities.EngineConfig#pipelined}, the game is
+ * updated on its own thread while the last frame is rendered on the main thread:
+ * <ul>
+ *     <li>{@link #update(float)} and the input handler run on the update thread, which owns all of the game's
+ *     state and must not draw or use the window</li>
+ *     <li>{@link #render()} runs on the main thread at the same time and must only read what was published</li>
+ *     <li>{@link #resize(int, int)}, {@link #pause()}, {@link #resume()} and {@link #publish()} run on the main
+ *     thread while the update thread waits, this is the only time both sides can be touched. Window changes such as
+ *     setting the view belong in these, and publish should copy whatever the next render needs</li>
+ * </ul>
+ * Publish is called once per frame in either mode, so a game written for the pipelined mode also runs without it
  * @author James Bulman
  */
-public abstract class Game implements Updateable, Renderable, Disposable {
+public abstract class Game implements Updateable, Renderable, Publishable, Disposable {
 
     /** The Engine instance this Game belongs to */
     protected Engine engine;
@@ -59,6 +71,13 @@ public abstract class Game implements Updateable, Renderable, Disposable {
      */
     public abstract void render();
 
+    /**
+     * Runs once per frame after updating and before rendering, should be used to copy the state of your game objects
+     * into what is drawn, for example by publishing the {@link com.cluster.engine.Physics.World} and any other
+     * {@link Publishable} objects which are rendered
+     */
+    public void publish() {}
+
     /**
      * Called when the Window is resized
      * @param width The new width of the Window
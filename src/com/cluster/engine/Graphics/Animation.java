@@ -25,6 +25,7 @@
 package com.cluster.engine.Graphics;
 
 import com.cluster.engine.Utilities.Interfaces.EntityRenderable;
+import com.cluster.engine.Utilities.Interfaces.Publishable;
 import com.cluster.engine.Utilities.Interfaces.Updateable;
 import org.jsfml.graphics.IntRect;
 import org.jsfml.graphics.RenderWindow;
@@ -35,7 +36,7 @@ import org.jsfml.system.Vector2f;
 /**
  * A Class which will animate a sprite sheet
  */
-public class Animation implements Updateable, EntityRenderable {
+public class Animation implements Updateable, EntityRenderable, Publishable {
 
     /** Whether or not the animation is playing */
     private boolean playing;
@@ -75,6 +76,14 @@ public class Animation implements Updateable, EntityRenderable {
     /** The scale of the sprite*/
     private Vector2f scale;
 
+    // The state copied by the last publish, which is what is drawn once the animation has been published
+    private boolean published;
+    private int publishedFrame;
+    private Vector2f publishedPosition;
+    private Vector2f publishedScale;
+    private float publishedAngle;
+    private boolean publishedFlipX, publishedFlipY;
+
     /**
      * Creates an animation from the given texture key, with a time per frame of 0.1 seconds
      * @param texture The texture to represent the animation
@@ -120,6 +129,8 @@ public class Animation implements Updateable, EntityRenderable {
         accumulator = 0;
 
         scale = new Vector2f(1,1);
+
+        published = false;
     }
 
     /**
@@ -150,26 +161,48 @@ public class Animation implements Updateable, EntityRenderable {
      * @param renderer The {@link RenderWindow} to draw the entity to
      */
     public void render(RenderWindow renderer) {
+        // Animations which are never published are drawn as they are now
+        if(!published) copyState();
 
         // Create a sprite and set its position
         Sprite sprite = new Sprite(texture);
-        sprite.setScale(scale);
+        sprite.setScale(publishedScale);
         sprite.setOrigin(width / 2, height / 2);
-        sprite.setPosition(position);
-        sprite.setRotation(angle);
+        sprite.setPosition(publishedPosition);
+        sprite.setRotation(publishedAngle);
 
-        if(flipX) sprite.setScale(-1, 1);
-        if(flipY) sprite.setScale(sprite.getScale().x, -1);
+        if(publishedFlipX) sprite.setScale(-1, 1);
+        if(publishedFlipY) sprite.setScale(sprite.getScale().x, -1);
 
         // Work out UV coordinates within the sprite sheet
-        int row = (int)(((float) currentFrame) / ((float) columns));
-        int col = currentFrame % columns;
+        int row = (int)(((float) publishedFrame) / ((float) columns));
+        int col = publishedFrame % columns;
 
         // Draw to screen
         sprite.setTextureRect(new IntRect(col * width, row * height, width, height));
         renderer.draw(sprite);
     }
 
+    /**
+     * Copies the current frame, position, rotation, scale and flipping of the animation into what is drawn
+     */
+    public void publish() {
+        copyState();
+        published = true;
+    }
+
+    /**
+     * Copies the state which is drawn from the current state of the animation
+     */
+    private void copyState() {
+        publishedFrame = currentFrame;
+        publishedPosition = position;
+        publishedScale = scale;
+        publishedAngle = angle;
+        publishedFlipX = flipX;
+        publishedFlipY = flipY;
+    }
+
     /**
      * Gets the current position of the animation
      * @return The position
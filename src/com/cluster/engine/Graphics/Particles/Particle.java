@@ -31,6 +31,7 @@ import com.cluster.engine.Utilities.MUtil;
 import org.jsfml.graphics.CircleShape;
 import org.jsfml.graphics.Color;
 import org.jsfml.graphics.RenderWindow;
+import org.jsfml.graphics.Texture;
 import org.jsfml.system.Vector2f;
 
 /**
@@ -68,6 +69,25 @@ class Particle implements Initialisable<ParticleConfig>, Updateable, EntityRende
     /** Whether or not the particle is alive */
     private boolean alive;
 
+    /** The number of points the display was made with */
+    private int pointCount;
+    /** The texture of the display, null if it has none */
+    private Texture texture;
+
+    // The state of the display copied by the last publish
+    private Vector2f publishedPosition;
+    private float publishedRadius;
+    private float publishedRotation;
+    private Color publishedColour;
+    private int publishedPointCount;
+    private Texture publishedTexture;
+
+    /** The shape the published state is drawn with, only used by the thread which renders */
+    private CircleShape publishedDisplay;
+    // The point count and texture the published shape was made with
+    private int publishedDisplayPoints;
+    private Texture publishedDisplayTexture;
+
     /**
      * Constructs a Particle, Use {@link Particle#initialise(ParticleConfig)} to configure the particle
      */
@@ -92,6 +112,12 @@ class Particle implements Initialisable<ParticleConfig>, Updateable, EntityRende
         accumulator = 0;
         lifetime = 0;
         alive = false;
+
+        pointCount = 0;
+        texture = null;
+
+        // The shape for the published state is made the first time it is drawn
+        publishedDisplay = null;
     }
 
     /**
@@ -131,6 +157,9 @@ class Particle implements Initialisable<ParticleConfig>, Updateable, EntityRende
         // Set the texture if one is present
         if(config.texture != null) display.setTexture(config.texture);
 
+        pointCount = config.pointCount;
+        texture = config.texture;
+
         int colourCount = 0;
         for(int i = 0; i < config.colours.length; i++) {
             if(config.colours[i] == null) break;
@@ -229,6 +258,46 @@ class Particle implements Initialisable<ParticleConfig>, Updateable, EntityRende
         renderer.draw(display);
     }
 
+    /**
+     * Copies the current position, size, rotation and colour of the particle into what is drawn by
+     * {@link #renderPublished(RenderWindow)}
+     */
+    void publish() {
+        publishedPosition = position;
+        publishedRadius = display.getRadius();
+        publishedRotation = display.getRotation();
+        publishedColour = display.getFillColor();
+        publishedPointCount = pointCount;
+        publishedTexture = texture;
+    }
+
+    /**
+     * Draws the particle as it was at the last publish, the display used by {@link #update(float)} is not touched
+     * @param renderer The {@link RenderWindow} to draw the particle to
+     */
+    void renderPublished(RenderWindow renderer) {
+        // The shape is only remade when the particle was reused with a different look
+        if(publishedDisplay == null || publishedDisplayPoints != publishedPointCount
+                || publishedDisplayTexture != publishedTexture) {
+            boolean points = publishedPointCount >= 3 && publishedPointCount <= 16;
+            publishedDisplay = points ? new CircleShape(publishedRadius, publishedPointCount)
+                    : new CircleShape(publishedRadius);
+
+            if(publishedTexture != null) publishedDisplay.setTexture(publishedTexture);
+
+            publishedDisplayPoints = publishedPointCount;
+            publishedDisplayTexture = publishedTexture;
+        }
+
+        publishedDisplay.setRadius(publishedRadius);
+        publishedDisplay.setOrigin(publishedRadius, publishedRadius);
+        publishedDisplay.setPosition(publishedPosition);
+        publishedDisplay.setRotation(publishedRotation);
+        publishedDisplay.setFillColor(publishedColour);
+
+        renderer.draw(publishedDisplay);
+    }
+
     /**
      * Whether or not the particle is alive
      * @return True if the particle is alive, otherwise False
@@ -25,6 +25,7 @@
 package com.cluster.engine.Graphics.Particles;
 
 import com.cluster.engine.Utilities.Interfaces.EntityRenderable;
+import com.cluster.engine.Utilities.Interfaces.Publishable;
 import com.cluster.engine.Utilities.Interfaces.Updateable;
 import org.jsfml.graphics.RenderWindow;
 
@@ -32,7 +33,7 @@ import org.jsfml.graphics.RenderWindow;
  * A class which will emit a given particles from a given configuration at the rate specified
  * @author James Bulman
  */
-public class ParticleEmitter implements Updateable, EntityRenderable {
+public class ParticleEmitter implements Updateable, EntityRenderable, Publishable {
 
     /** Whether the emitter is active or not */
     private boolean active;
@@ -52,6 +53,13 @@ public class ParticleEmitter implements Updateable, EntityRenderable {
     /** The configuration to initialise particles with */
     private ParticleConfig config;
 
+    /** The particles which were active at the last publish, in the order they are drawn */
+    private Particle[] publishedParticles;
+    /** The number of particles which were active at the last publish */
+    private int publishedCount;
+    /** Whether the emitter has been published, once it has only the published particles are drawn */
+    private boolean published;
+
     /**
      * Creates a new Particle Emitter
      * @param defaultConfig The configuration to make particles with
@@ -77,6 +85,10 @@ public class ParticleEmitter implements Updateable, EntityRenderable {
         accumulator = 0;
         active = true;
         pause = false;
+
+        publishedParticles = new Particle[maxParticles];
+        publishedCount = 0;
+        published = false;
     }
 
     /**
@@ -112,10 +124,19 @@ public class ParticleEmitter implements Updateable, EntityRenderable {
     }
 
     /**
-     * Renders all of the particles to the screen
+     * Renders all of the particles to the screen, once published the particles are drawn as they were at the last
+     * publish
      * @param renderer The {@link RenderWindow} to draw the entity to
      */
     public void render(RenderWindow renderer) {
+        if(published) {
+            for(int i = 0; i < publishedCount; i++) {
+                publishedParticles[i].renderPublished(renderer);
+            }
+
+            return;
+        }
+
         if(!active && particleCount == 0) return;
 
         // Draw all of the active particles
@@ -124,6 +145,23 @@ public class ParticleEmitter implements Updateable, EntityRenderable {
         }
     }
 
+    /**
+     * Copies the active particles into what is drawn, the pool can then be updated on another thread while the
+     * copy is rendered
+     */
+    public void publish() {
+        publishedCount = particleCount;
+
+        for(int i = 0; i < particleCount; i++) {
+            Particle particle = particlePool[i];
+
+            particle.publish();
+            publishedParticles[i] = particle;
+        }
+
+        published = true;
+    }
+
     /**
      * Initialises a new particle and sets it as active within the pool
      */
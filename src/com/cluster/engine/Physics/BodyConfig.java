@@ -24,7 +24,7 @@
 
 package com.cluster.engine.Physics;
 
-import com.cluster.engine.Physics.Shapes.Polygon;
+import com.cluster.engine.Physics.Shapes.Shape;
 import org.jsfml.system.Vector2f;
 
 /**
@@ -33,7 +33,7 @@ import org.jsfml.system.Vector2f;
 public class BodyConfig {
 
     /** The shape used to represent the body */
-    public Polygon shape;
+    public Shape shape;
     /** The position the body should start at, default = (0, 0) */
     public Vector2f position;
 
@@ -52,12 +52,22 @@ public class BodyConfig {
     /** The friction coefficient between this and a non-moving object, default = 0.1f */
     public float staticFriction;
 
-    /** The mask of bits which can collide with this body */
+    /** The categories which this body can collide with, default = 0xFFFF */
     public int mask;
-    /** The mask of bits which this body can collide with */
+    /** The category bits which this body belongs to, default = 0x0001 */
     public int category;
+    /**
+     * The collision group of the body, bodies which share a positive group always collide and bodies which share
+     * a negative group never collide, regardless of their masks. Zero means no group, default = 0
+     */
+    public int group;
     /** Whether the body is static or not, default = false */
     public boolean isStatic;
+    /**
+     * Whether the body is swept against other bodies so that it cannot pass through them when moving fast, this
+     * costs more so should only be used for small fast bodies such as projectiles, default = false
+     */
+    public boolean bullet;
 
     /**
      * Creates a default body configuration
@@ -81,7 +91,9 @@ public class BodyConfig {
         // Other
         mask = 0xFFFF;
         category = 0x0001;
+        group = 0;
         isStatic = false;
+        bullet = false;
     }
 
 }
@@ -0,0 +1,274 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics;
+
+import java.util.Arrays;
+
+/**
+ * Stores the state of every body in a world as parallel arrays, {@link RigidBody} is a handle to an index<br>
+ * Keeping the state in primitive arrays means integrating the bodies does not create any garbage
+ */
+class BodyStore {
+
+    /** The handle at each index */
+    RigidBody[] bodies;
+    /** The number of bodies in the store */
+    int count;
+
+    // Position and rotation
+    float[] x, y;
+    float[] angle;
+
+    // Position and rotation at the start of the current step, before the velocities were integrated
+    float[] x0, y0;
+    float[] angle0;
+
+    // Position and rotation at the start of the last update of the world, used to draw bodies between updates
+    float[] previousX, previousY;
+    float[] previousAngle;
+
+    // Movement
+    float[] vx, vy;
+    float[] omega;
+
+    // Mass
+    float[] invMass;
+    float[] invInertia;
+
+    // Forces
+    float[] fx, fy;
+    float[] torque;
+
+    // Whether or not the body is integrated, false for sleeping, static and dead bodies
+    boolean[] moving;
+
+    /**
+     * Creates a store with space for the number of bodies given, the store will grow as needed
+     * @param capacity The initial capacity
+     */
+    BodyStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+
+        bodies = new RigidBody[capacity];
+        count = 0;
+
+        x = new float[capacity];
+        y = new float[capacity];
+        angle = new float[capacity];
+
+        x0 = new float[capacity];
+        y0 = new float[capacity];
+        angle0 = new float[capacity];
+
+        previousX = new float[capacity];
+        previousY = new float[capacity];
+        previousAngle = new float[capacity];
+
+        vx = new float[capacity];
+        vy = new float[capacity];
+        omega = new float[capacity];
+
+        invMass = new float[capacity];
+        invInertia = new float[capacity];
+
+        fx = new float[capacity];
+        fy = new float[capacity];
+        torque = new float[capacity];
+
+        moving = new boolean[capacity];
+    }
+
+    /**
+     * Adds a body to the store, all of its state is set to zero
+     * @param body The handle of the body
+     * @return The index of the body
+     */
+    int add(RigidBody body) {
+        if(count == bodies.length) grow(count * 2);
+
+        int index = count++;
+        bodies[index] = body;
+
+        x[index] = 0;
+        y[index] = 0;
+        angle[index] = 0;
+
+        x0[index] = 0;
+        y0[index] = 0;
+        angle0[index] = 0;
+
+        previousX[index] = 0;
+        previousY[index] = 0;
+        previousAngle[index] = 0;
+
+        vx[index] = 0;
+        vy[index] = 0;
+        omega[index] = 0;
+
+        invMass[index] = 0;
+        invInertia[index] = 0;
+
+        fx[index] = 0;
+        fy[index] = 0;
+        torque[index] = 0;
+
+        moving[index] = false;
+
+        return index;
+    }
+
+    /**
+     * Removes the body at the index given, the last body is moved into its place and told its new index
+     * @param index The index of the body to remove
+     */
+    void remove(int index) {
+        int last = --count;
+
+        if(index != last) {
+            copy(last, this, index);
+            bodies[index].setStoreIndex(index);
+        }
+
+        bodies[last] = null;
+    }
+
+    /**
+     * Copies the state of a body into another store
+     * @param from The index of the body in this store
+     * @param to The store to copy into
+     * @param index The index to copy to
+     */
+    void copy(int from, BodyStore to, int index) {
+        to.bodies[index] = bodies[from];
+
+        to.x[index] = x[from];
+        to.y[index] = y[from];
+        to.angle[index] = angle[from];
+
+        to.x0[index] = x0[from];
+        to.y0[index] = y0[from];
+        to.angle0[index] = angle0[from];
+
+        to.previousX[index] = previousX[from];
+        to.previousY[index] = previousY[from];
+        to.previousAngle[index] = previousAngle[from];
+
+        to.vx[index] = vx[from];
+        to.vy[index] = vy[from];
+        to.omega[index] = omega[from];
+
+        to.invMass[index] = invMass[from];
+        to.invInertia[index] = invInertia[from];
+
+        to.fx[index] = fx[from];
+        to.fy[index] = fy[from];
+        to.torque[index] = torque[from];
+
+        to.moving[index] = moving[from];
+    }
+
+    /**
+     * Applies gravity and the forces acting on every moving body to their velocities, then clears the forces
+     * @param dt The amount of time passed since last frame
+     * @param gravityX The x component of gravity
+     * @param gravityY The y component of gravity
+     */
+    void integrateForces(float dt, float gravityX, float gravityY) {
+        for(int i = 0; i < count; i++) {
+            if(!moving[i]) continue;
+
+            vx[i] += ((fx[i] * invMass[i]) + gravityX) * dt;
+            vy[i] += ((fy[i] * invMass[i]) + gravityY) * dt;
+            omega[i] += torque[i] * invInertia[i] * dt;
+
+            fx[i] = 0;
+            fy[i] = 0;
+            torque[i] = 0;
+        }
+    }
+
+    /**
+     * Keeps the position and rotation of every body as they are before the world is updated, so that bodies can
+     * be drawn part of the way between this update and the next
+     */
+    void savePrevious() {
+        System.arraycopy(x, 0, previousX, 0, count);
+        System.arraycopy(y, 0, previousY, 0, count);
+        System.arraycopy(angle, 0, previousAngle, 0, count);
+    }
+
+    /**
+     * Moves every moving body by its velocity and updates the transform of its handle<br>
+     * The position of every body before moving is kept so that the motion over the step can be swept
+     * @param dt The amount of time passed since last frame
+     */
+    void integrateVelocities(float dt) {
+        System.arraycopy(x, 0, x0, 0, count);
+        System.arraycopy(y, 0, y0, 0, count);
+        System.arraycopy(angle, 0, angle0, 0, count);
+
+        for(int i = 0; i < count; i++) {
+            if(!moving[i]) continue;
+
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            angle[i] += omega[i] * dt;
+
+            bodies[i].onMoved();
+        }
+    }
+
+    /**
+     * Grows every array to the capacity given
+     * @param capacity The new capacity
+     */
+    private void grow(int capacity) {
+        bodies = Arrays.copyOf(bodies, capacity);
+
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        angle = Arrays.copyOf(angle, capacity);
+
+        x0 = Arrays.copyOf(x0, capacity);
+        y0 = Arrays.copyOf(y0, capacity);
+        angle0 = Arrays.copyOf(angle0, capacity);
+
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        previousAngle = Arrays.copyOf(previousAngle, capacity);
+
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        omega = Arrays.copyOf(omega, capacity);
+
+        invMass = Arrays.copyOf(invMass, capacity);
+        invInertia = Arrays.copyOf(invInertia, capacity);
+
+        fx = Arrays.copyOf(fx, capacity);
+        fy = Arrays.copyOf(fy, capacity);
+        torque = Arrays.copyOf(torque, capacity);
+
+        moving = Arrays.copyOf(moving, capacity);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions.Broadphase;
+
+import com.cluster.engine.Physics.RigidBody;
+import com.cluster.engine.Physics.Shapes.AABB;
+
+/**
+ * The broad phase of collision detection, finds pairs of bodies which could be colliding so that the
+ * narrow phase only has to be run on a small subset of all possible pairs
+ * @author James Bulman
+ */
+public interface Broadphase {
+
+    /**
+     * The broadphase implementations which can be selected through a {@link com.cluster.engine.Physics.WorldConfig}
+     */
+    enum Type {
+        /** Tests every pair of bodies, see {@link BruteForceBroadphase} */
+        BruteForce,
+        /** Uses a bounding volume tree, see {@link DynamicTreeBroadphase} */
+        DynamicTree,
+        /** Uses a uniform spatial hash grid, see {@link GridBroadphase} */
+        Grid,
+        /** Uses an incremental sort along the x axis, see {@link SweepAndPruneBroadphase} */
+        SweepAndPrune
+    }
+
+    /**
+     * Adds a body to the broadphase
+     * @param aabb The current bounds of the body
+     * @param body The body which the proxy represents
+     * @return The id of the proxy created for the body
+     */
+    int createProxy(AABB aabb, RigidBody body);
+
+    /**
+     * Removes a body from the broadphase
+     * @param proxyId The id of the proxy to remove
+     */
+    void destroyProxy(int proxyId);
+
+    /**
+     * Moves the proxy of a body to its new bounds
+     * @param proxyId The id of the proxy to move
+     * @param aabb The new bounds of the body
+     * @param dx The displacement of the body along the x axis this step
+     * @param dy The displacement of the body along the y axis this step
+     */
+    void moveProxy(int proxyId, AABB aabb, float dx, float dy);
+
+    /**
+     * Reports every pair of bodies which could be colliding to the callback given, each pair is reported once
+     * @param callback The callback to report the pairs to
+     */
+    void updatePairs(PairCallback callback);
+
+    /**
+     * Reports every body whose bounds overlap the area given<br>
+     * The callback must not add, remove or move proxies while the query is running
+     * @param lowerX The minimum x of the area
+     * @param lowerY The minimum y of the area
+     * @param upperX The maximum x of the area
+     * @param upperY The maximum y of the area
+     * @param callback The callback to report the bodies to
+     */
+    void query(float lowerX, float lowerY, float upperX, float upperY, QueryCallback callback);
+
+    /**
+     * Casts a ray through the broadphase, reporting every body whose bounds the ray passes through<br>
+     * The callback can shorten the ray as it goes, and must not add, remove or move proxies
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param endX The x coordinate the ray ends at
+     * @param endY The y coordinate the ray ends at
+     * @param maxFraction The fraction of the ray's length past which bodies are ignored
+     * @param callback The callback to report the bodies to
+     * @return The maximum fraction after the cast, 0 if the callback stopped the ray
+     */
+    float rayCast(float startX, float startY, float endX, float endY, float maxFraction, RayCallback callback);
+
+    /**
+     * Gets the number of proxies currently in the broadphase
+     * @return The proxy count
+     */
+    int getProxyCount();
+}
@@ -0,0 +1,171 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions.Broadphase;
+
+import com.cluster.engine.Physics.RigidBody;
+import com.cluster.engine.Physics.Shapes.AABB;
+
+/**
+ * A broadphase which reports every pair of bodies, this is O(n^2) and is only kept for comparison
+ * @author James Bulman
+ */
+public class BruteForceBroadphase implements Broadphase {
+
+    /** The bodies in the broadphase, indexed by proxy id */
+    private RigidBody[] proxies;
+    /** One past the highest proxy id in use */
+    private int proxyEnd;
+    /** The number of proxies in use */
+    private int proxyCount;
+
+    /** Proxy ids which have been freed and can be reused */
+    private int[] freeProxies;
+    private int freeCount;
+
+    /**
+     * Creates an empty brute force broadphase
+     */
+    public BruteForceBroadphase() {
+        proxies = new RigidBody[16];
+        proxyEnd = 0;
+        proxyCount = 0;
+
+        freeProxies = new int[16];
+        freeCount = 0;
+    }
+
+    public int createProxy(AABB aabb, RigidBody body) {
+        int proxy;
+        if(freeCount > 0) {
+            proxy = freeProxies[--freeCount];
+        }
+        else {
+            if(proxyEnd == proxies.length) {
+                RigidBody[] tmp = new RigidBody[proxies.length * 2];
+                System.arraycopy(proxies, 0, tmp, 0, proxyEnd);
+                proxies = tmp;
+            }
+
+            proxy = proxyEnd++;
+        }
+
+        proxies[proxy] = body;
+        proxyCount++;
+
+        return proxy;
+    }
+
+    public void destroyProxy(int proxyId) {
+        if(proxyId < 0 || proxyId >= proxyEnd || proxies[proxyId] == null)
+            throw new IllegalArgumentException("Error: " + proxyId + " is not a valid proxy");
+
+        proxies[proxyId] = null;
+        proxyCount--;
+
+        if(freeCount == freeProxies.length) {
+            int[] tmp = new int[freeProxies.length * 2];
+            System.arraycopy(freeProxies, 0, tmp, 0, freeCount);
+            freeProxies = tmp;
+        }
+
+        freeProxies[freeCount++] = proxyId;
+    }
+
+    public void moveProxy(int proxyId, AABB aabb, float dx, float dy) {
+        // Bounds are not stored, the narrow phase will do the AABB test
+    }
+
+    /**
+     * Reports every pair of bodies in the broadphase
+     * @param callback The callback to report the pairs to
+     */
+    public void updatePairs(PairCallback callback) {
+        for(int i = 0; i < proxyEnd; i++) {
+            RigidBody a = proxies[i];
+            if(a == null) continue;
+
+            for(int j = i + 1; j < proxyEnd; j++) {
+                RigidBody b = proxies[j];
+                if(b == null) continue;
+
+                callback.addPair(a, b);
+            }
+        }
+    }
+
+    /**
+     * Tests the bounds of every body against the area given
+     * @param lowerX The minimum x of the area
+     * @param lowerY The minimum y of the area
+     * @param upperX The maximum x of the area
+     * @param upperY The maximum y of the area
+     * @param callback The callback to report the bodies to
+     */
+    public void query(float lowerX, float lowerY, float upperX, float upperY, QueryCallback callback) {
+        for(int i = 0; i < proxyEnd; i++) {
+            RigidBody body = proxies[i];
+            if(body == null) continue;
+
+            AABB aabb = body.getAABB();
+            if(aabb.getMinX() > upperX || lowerX > aabb.getMaxX()) continue;
+            if(aabb.getMinY() > upperY || lowerY > aabb.getMaxY()) continue;
+
+            if(!callback.reportBody(body)) return;
+        }
+    }
+
+    /**
+     * Tests the bounds of every body against the ray
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param endX The x coordinate the ray ends at
+     * @param endY The y coordinate the ray ends at
+     * @param maxFraction The fraction of the ray's length past which bodies are ignored
+     * @param callback The callback to report the bodies to
+     * @return The maximum fraction after the cast, 0 if the callback stopped the ray
+     */
+    public float rayCast(float startX, float startY, float endX, float endY, float maxFraction,
+                         RayCallback callback) {
+        float inverseDX = 1f / (endX - startX);
+        float inverseDY = 1f / (endY - startY);
+
+        for(int i = 0; i < proxyEnd; i++) {
+            RigidBody body = proxies[i];
+            if(body == null) continue;
+
+            AABB aabb = body.getAABB();
+            if(!AABB.testRay(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY(),
+                    startX, startY, inverseDX, inverseDY, maxFraction)) continue;
+
+            float value = callback.reportBody(body, maxFraction);
+            if(value == 0) return 0;
+
+            if(value < maxFraction) maxFraction = value;
+        }
+
+        return maxFraction;
+    }
+
+    public int getProxyCount() { return proxyCount; }
+}
@@ -0,0 +1,663 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions.Broadphase;
+
+import com.cluster.engine.Physics.RigidBody;
+import com.cluster.engine.Physics.Shapes.AABB;
+
+/**
+ * A dynamic bounding volume tree, each leaf holds the fattened AABB of a single body and each internal node
+ * bounds both of its children. Leaves are only re-inserted when their body leaves its fattened AABB<br>
+ * The nodes are stored in parallel arrays and recycled through a free list so the tree does not allocate once warm
+ * @author James Bulman
+ */
+public class DynamicTree {
+
+    /** Represents an invalid node */
+    public static final int NULL_NODE = -1;
+
+    /** The amount each side of a proxy AABB is fattened by */
+    public static final float AABB_MARGIN = 3f;
+    /** How far along the displacement of a body the fattened AABB is extended */
+    public static final float DISPLACEMENT_MULTIPLIER = 2f;
+
+    // The bounds of each node
+    private float[] minX, minY;
+    private float[] maxX, maxY;
+
+    // The hierarchy of the nodes, parent also links the free list
+    private int[] parent;
+    private int[] child1, child2;
+
+    // The height of each node, leaves are 0 and free nodes are -1
+    private int[] height;
+
+    // The bodies represented by the leaf nodes
+    private RigidBody[] bodies;
+
+    private int root;
+
+    private int nodeCount;
+    private int nodeCapacity;
+    private int freeList;
+
+    // Stack used during queries
+    private int[] stack;
+
+    /**
+     * Creates an empty tree
+     */
+    public DynamicTree() {
+        root = NULL_NODE;
+
+        nodeCapacity = 16;
+        nodeCount = 0;
+
+        minX = new float[nodeCapacity];
+        minY = new float[nodeCapacity];
+        maxX = new float[nodeCapacity];
+        maxY = new float[nodeCapacity];
+
+        parent = new int[nodeCapacity];
+        child1 = new int[nodeCapacity];
+        child2 = new int[nodeCapacity];
+        height = new int[nodeCapacity];
+
+        bodies = new RigidBody[nodeCapacity];
+
+        linkFreeNodes(0);
+        freeList = 0;
+
+        stack = new int[64];
+    }
+
+    /**
+     * Creates a leaf for the body given and inserts it into the tree
+     * @param aabb The current bounds of the body
+     * @param body The body the leaf represents
+     * @return The id of the proxy
+     */
+    public int createProxy(AABB aabb, RigidBody body) {
+        int proxy = allocateNode();
+
+        minX[proxy] = aabb.getMinX() - AABB_MARGIN;
+        minY[proxy] = aabb.getMinY() - AABB_MARGIN;
+        maxX[proxy] = aabb.getMaxX() + AABB_MARGIN;
+        maxY[proxy] = aabb.getMaxY() + AABB_MARGIN;
+
+        bodies[proxy] = body;
+        height[proxy] = 0;
+
+        insertLeaf(proxy);
+        return proxy;
+    }
+
+    /**
+     * Removes a leaf from the tree
+     * @param proxyId The id of the proxy to remove
+     */
+    public void destroyProxy(int proxyId) {
+        if(!isLeaf(proxyId))
+            throw new IllegalArgumentException("Error: " + proxyId + " is not a valid proxy");
+
+        removeLeaf(proxyId);
+        freeNode(proxyId);
+    }
+
+    /**
+     * Moves a proxy to the bounds given, the leaf is only re-inserted if the bounds have left its fattened AABB
+     * @param proxyId The id of the proxy to move
+     * @param aabb The new bounds of the body
+     * @param dx The displacement of the body along the x axis, used to predict movement
+     * @param dy The displacement of the body along the y axis, used to predict movement
+     * @return True if the proxy was re-inserted, otherwise False
+     */
+    public boolean moveProxy(int proxyId, AABB aabb, float dx, float dy) {
+        float lowerX = aabb.getMinX();
+        float lowerY = aabb.getMinY();
+        float upperX = aabb.getMaxX();
+        float upperY = aabb.getMaxY();
+
+        // Still contained within the fattened AABB so nothing needs to change
+        if(minX[proxyId] <= lowerX && minY[proxyId] <= lowerY
+                && maxX[proxyId] >= upperX && maxY[proxyId] >= upperY) {
+            return false;
+        }
+
+        removeLeaf(proxyId);
+
+        lowerX -= AABB_MARGIN;
+        lowerY -= AABB_MARGIN;
+        upperX += AABB_MARGIN;
+        upperY += AABB_MARGIN;
+
+        // Extend the AABB in the direction of movement
+        dx *= DISPLACEMENT_MULTIPLIER;
+        dy *= DISPLACEMENT_MULTIPLIER;
+
+        if(dx < 0) lowerX += dx; else upperX += dx;
+        if(dy < 0) lowerY += dy; else upperY += dy;
+
+        minX[proxyId] = lowerX;
+        minY[proxyId] = lowerY;
+        maxX[proxyId] = upperX;
+        maxY[proxyId] = upperY;
+
+        insertLeaf(proxyId);
+        return true;
+    }
+
+    /**
+     * Reports every proxy whose fattened AABB overlaps the area given<br>
+     * The callback must not query or modify the tree itself
+     * @param lowerX The minimum x of the area
+     * @param lowerY The minimum y of the area
+     * @param upperX The maximum x of the area
+     * @param upperY The maximum y of the area
+     * @param callback The callback to report overlapping proxies to
+     */
+    public void query(float lowerX, float lowerY, float upperX, float upperY, TreeCallback callback) {
+        int top = 0;
+        stack[top++] = root;
+
+        while (top > 0) {
+            int node = stack[--top];
+            if(node == NULL_NODE) continue;
+
+            if(minX[node] > upperX || lowerX > maxX[node]) continue;
+            if(minY[node] > upperY || lowerY > maxY[node]) continue;
+
+            if(height[node] == 0) {
+                if(!callback.reportProxy(node)) return;
+            }
+            else {
+                if(top + 2 > stack.length) {
+                    int[] tmp = new int[stack.length * 2];
+                    System.arraycopy(stack, 0, tmp, 0, top);
+                    stack = tmp;
+                }
+
+                stack[top++] = child1[node];
+                stack[top++] = child2[node];
+            }
+        }
+    }
+
+    /**
+     * Casts a ray through the tree, reporting every proxy whose fattened AABB the ray passes through<br>
+     * The callback can shorten the ray as it goes so that anything past the closest hit so far is skipped, and must
+     * not query or modify the tree itself
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param endX The x coordinate the ray ends at
+     * @param endY The y coordinate the ray ends at
+     * @param maxFraction The fraction of the ray's length past which proxies are ignored
+     * @param callback The callback to report the proxies to
+     * @return The maximum fraction after the cast, 0 if the callback stopped the ray
+     */
+    public float rayCast(float startX, float startY, float endX, float endY, float maxFraction,
+                         TreeRayCallback callback) {
+        float inverseDX = 1f / (endX - startX);
+        float inverseDY = 1f / (endY - startY);
+
+        int top = 0;
+        stack[top++] = root;
+
+        while (top > 0) {
+            int node = stack[--top];
+            if(node == NULL_NODE) continue;
+
+            if(!AABB.testRay(minX[node], minY[node], maxX[node], maxY[node], startX, startY, inverseDX, inverseDY, maxFraction)) {
+                continue;
+            }
+
+            if(height[node] == 0) {
+                float value = callback.reportProxy(node, maxFraction);
+                if(value == 0) return 0;
+
+                if(value < maxFraction) maxFraction = value;
+            }
+            else {
+                if(top + 2 > stack.length) {
+                    int[] tmp = new int[stack.length * 2];
+                    System.arraycopy(stack, 0, tmp, 0, top);
+                    stack = tmp;
+                }
+
+                stack[top++] = child1[node];
+                stack[top++] = child2[node];
+            }
+        }
+
+        return maxFraction;
+    }
+
+    /**
+     * Whether or not the node given is a leaf which is currently in use
+     * @param node The node to check
+     * @return True if the node is a proxy, otherwise False
+     */
+    public boolean isLeaf(int node) {
+        return node >= 0 && node < nodeCapacity && height[node] == 0;
+    }
+
+    /**
+     * Gets the body the proxy represents
+     * @param proxyId The id of the proxy
+     * @return The body
+     */
+    public RigidBody getBody(int proxyId) { return bodies[proxyId]; }
+
+    /**
+     * Gets the minimum x of the fattened AABB of the node
+     * @param node The node
+     * @return The minimum x
+     */
+    public float getMinX(int node) { return minX[node]; }
+
+    /**
+     * Gets the minimum y of the fattened AABB of the node
+     * @param node The node
+     * @return The minimum y
+     */
+    public float getMinY(int node) { return minY[node]; }
+
+    /**
+     * Gets the maximum x of the fattened AABB of the node
+     * @param node The node
+     * @return The maximum x
+     */
+    public float getMaxX(int node) { return maxX[node]; }
+
+    /**
+     * Gets the maximum y of the fattened AABB of the node
+     * @param node The node
+     * @return The maximum y
+     */
+    public float getMaxY(int node) { return maxY[node]; }
+
+    /**
+     * Gets the number of nodes which can be held before the tree has to grow, node ids are always less than this
+     * @return The node capacity
+     */
+    public int getNodeCapacity() { return nodeCapacity; }
+
+    /**
+     * Gets the number of nodes currently in use, both leaves and internal nodes
+     * @return The node count
+     */
+    public int getNodeCount() { return nodeCount; }
+
+    /**
+     * Gets the height of the tree
+     * @return The height of the root node, or 0 if the tree is empty
+     */
+    public int getHeight() { return root == NULL_NODE ? 0 : height[root]; }
+
+    /**
+     * Inserts a leaf into the tree, the sibling is chosen using the surface area heuristic
+     * @param leaf The leaf to insert
+     */
+    private void insertLeaf(int leaf) {
+        if(root == NULL_NODE) {
+            root = leaf;
+            parent[root] = NULL_NODE;
+            return;
+        }
+
+        float leafMinX = minX[leaf], leafMinY = minY[leaf];
+        float leafMaxX = maxX[leaf], leafMaxY = maxY[leaf];
+
+        // Find the best sibling for the leaf
+        int index = root;
+        while (height[index] != 0) {
+            int c1 = child1[index];
+            int c2 = child2[index];
+
+            float area = perimeter(minX[index], minY[index], maxX[index], maxY[index]);
+            float combinedArea = perimeter(Math.min(minX[index], leafMinX), Math.min(minY[index], leafMinY),
+                    Math.max(maxX[index], leafMaxX), Math.max(maxY[index], leafMaxY));
+
+            // Cost of creating a new parent for this node and the leaf
+            float cost = 2f * combinedArea;
+
+            // Minimum cost of pushing the leaf further down the tree
+            float inheritanceCost = 2f * (combinedArea - area);
+
+            float cost1 = descendCost(c1, leafMinX, leafMinY, leafMaxX, leafMaxY) + inheritanceCost;
+            float cost2 = descendCost(c2, leafMinX, leafMinY, leafMaxX, leafMaxY) + inheritanceCost;
+
+            if(cost < cost1 && cost < cost2) break;
+
+            index = cost1 < cost2 ? c1 : c2;
+        }
+
+        int sibling = index;
+
+        // Create a new parent for the sibling and the leaf
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+
+        parent[newParent] = oldParent;
+        setUnion(newParent, leaf, sibling);
+        height[newParent] = height[sibling] + 1;
+
+        if(oldParent != NULL_NODE) {
+            if(child1[oldParent] == sibling) {
+                child1[oldParent] = newParent;
+            }
+            else {
+                child2[oldParent] = newParent;
+            }
+        }
+        else {
+            root = newParent;
+        }
+
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+
+        // Walk back up the tree fixing heights and bounds
+        refit(parent[leaf]);
+    }
+
+    /**
+     * Removes a leaf from the tree, the node itself is not freed
+     * @param leaf The leaf to remove
+     */
+    private void removeLeaf(int leaf) {
+        if(leaf == root) {
+            root = NULL_NODE;
+            return;
+        }
+
+        int p = parent[leaf];
+        int grandParent = parent[p];
+        int sibling = child1[p] == leaf ? child2[p] : child1[p];
+
+        if(grandParent != NULL_NODE) {
+            // Connect the sibling to the grand parent and destroy the parent
+            if(child1[grandParent] == p) {
+                child1[grandParent] = sibling;
+            }
+            else {
+                child2[grandParent] = sibling;
+            }
+
+            parent[sibling] = grandParent;
+            freeNode(p);
+
+            refit(grandParent);
+        }
+        else {
+            root = sibling;
+            parent[sibling] = NULL_NODE;
+            freeNode(p);
+        }
+    }
+
+    /**
+     * Balances and recalculates the bounds of every node from the one given up to the root
+     * @param node The node to begin at
+     */
+    private void refit(int node) {
+        while (node != NULL_NODE) {
+            node = balance(node);
+
+            int c1 = child1[node];
+            int c2 = child2[node];
+
+            height[node] = 1 + Math.max(height[c1], height[c2]);
+            setUnion(node, c1, c2);
+
+            node = parent[node];
+        }
+    }
+
+    /**
+     * Performs a left or right rotation if the node given is imbalanced
+     * @param a The node to balance
+     * @return The node which is now at the position of a
+     */
+    private int balance(int a) {
+        if(height[a] < 2) return a;
+
+        int b = child1[a];
+        int c = child2[a];
+
+        int balance = height[c] - height[b];
+
+        // Rotate c up
+        if(balance > 1) {
+            int f = child1[c];
+            int g = child2[c];
+
+            child1[c] = a;
+            parent[c] = parent[a];
+            parent[a] = c;
+
+            replaceChild(parent[c], a, c);
+
+            if(height[f] > height[g]) {
+                child2[c] = f;
+                child2[a] = g;
+                parent[g] = a;
+
+                setUnion(a, b, g);
+                setUnion(c, a, f);
+
+                height[a] = 1 + Math.max(height[b], height[g]);
+                height[c] = 1 + Math.max(height[a], height[f]);
+            }
+            else {
+                child2[c] = g;
+                child2[a] = f;
+                parent[f] = a;
+
+                setUnion(a, b, f);
+                setUnion(c, a, g);
+
+                height[a] = 1 + Math.max(height[b], height[f]);
+                height[c] = 1 + Math.max(height[a], height[g]);
+            }
+
+            return c;
+        }
+
+        // Rotate b up
+        if(balance < -1) {
+            int d = child1[b];
+            int e = child2[b];
+
+            child1[b] = a;
+            parent[b] = parent[a];
+            parent[a] = b;
+
+            replaceChild(parent[b], a, b);
+
+            if(height[d] > height[e]) {
+                child2[b] = d;
+                child1[a] = e;
+                parent[e] = a;
+
+                setUnion(a, c, e);
+                setUnion(b, a, d);
+
+                height[a] = 1 + Math.max(height[c], height[e]);
+                height[b] = 1 + Math.max(height[a], height[d]);
+            }
+            else {
+                child2[b] = e;
+                child1[a] = d;
+                parent[d] = a;
+
+                setUnion(a, c, d);
+                setUnion(b, a, e);
+
+                height[a] = 1 + Math.max(height[c], height[d]);
+                height[b] = 1 + Math.max(height[a], height[e]);
+            }
+
+            return b;
+        }
+
+        return a;
+    }
+
+    /**
+     * Replaces the child of a node, or the root if the node is null
+     * @param node The parent node
+     * @param oldChild The child to replace
+     * @param newChild The child to replace it with
+     */
+    private void replaceChild(int node, int oldChild, int newChild) {
+        if(node == NULL_NODE) {
+            root = newChild;
+        }
+        else if(child1[node] == oldChild) {
+            child1[node] = newChild;
+        }
+        else {
+            child2[node] = newChild;
+        }
+    }
+
+    /**
+     * Works out the cost of descending into the given child when inserting a leaf
+     * @param child The child to descend into
+     * @param lowerX The minimum x of the leaf being inserted
+     * @param lowerY The minimum y of the leaf being inserted
+     * @param upperX The maximum x of the leaf being inserted
+     * @param upperY The maximum y of the leaf being inserted
+     * @return The cost of descending
+     */
+    private float descendCost(int child, float lowerX, float lowerY, float upperX, float upperY) {
+        float combined = perimeter(Math.min(minX[child], lowerX), Math.min(minY[child], lowerY),
+                Math.max(maxX[child], upperX), Math.max(maxY[child], upperY));
+
+        if(height[child] == 0) {
+            return combined;
+        }
+
+        return combined - perimeter(minX[child], minY[child], maxX[child], maxY[child]);
+    }
+
+    /**
+     * Sets the bounds of a node to the union of two others
+     * @param node The node to set
+     * @param a The first node
+     * @param b The second node
+     */
+    private void setUnion(int node, int a, int b) {
+        minX[node] = Math.min(minX[a], minX[b]);
+        minY[node] = Math.min(minY[a], minY[b]);
+        maxX[node] = Math.max(maxX[a], maxX[b]);
+        maxY[node] = Math.max(maxY[a], maxY[b]);
+    }
+
+    /**
+     * Takes a node from the free list, growing the node arrays if required
+     * @return The allocated node
+     */
+    private int allocateNode() {
+        if(freeList == NULL_NODE) {
+            int oldCapacity = nodeCapacity;
+            nodeCapacity *= 2;
+
+            minX = grow(minX);
+            minY = grow(minY);
+            maxX = grow(maxX);
+            maxY = grow(maxY);
+
+            parent = grow(parent);
+            child1 = grow(child1);
+            child2 = grow(child2);
+            height = grow(height);
+
+            RigidBody[] tmp = new RigidBody[nodeCapacity];
+            System.arraycopy(bodies, 0, tmp, 0, oldCapacity);
+            bodies = tmp;
+
+            linkFreeNodes(oldCapacity);
+            freeList = oldCapacity;
+        }
+
+        int node = freeList;
+        freeList = parent[node];
+
+        parent[node] = NULL_NODE;
+        child1[node] = NULL_NODE;
+        child2[node] = NULL_NODE;
+        height[node] = 0;
+        bodies[node] = null;
+
+        nodeCount++;
+        return node;
+    }
+
+    /**
+     * Returns a node to the free list
+     * @param node The node to free
+     */
+    private void freeNode(int node) {
+        parent[node] = freeList;
+        height[node] = -1;
+        bodies[node] = null;
+
+        freeList = node;
+        nodeCount--;
+    }
+
+    /**
+     * Links all nodes from the index given to the end of the arrays into the free list
+     * @param from The first node to link
+     */
+    private void linkFreeNodes(int from) {
+        for(int i = from; i < nodeCapacity - 1; i++) {
+            parent[i] = i + 1;
+            height[i] = -1;
+        }
+
+        parent[nodeCapacity - 1] = NULL_NODE;
+        height[nodeCapacity - 1] = -1;
+    }
+
+    private float[] grow(float[] array) {
+        float[] result = new float[nodeCapacity];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+
+    private int[] grow(int[] array) {
+        int[] result = new int[nodeCapacity];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+
+    private static float perimeter(float lowerX, float lowerY, float upperX, float upperY) {
+        return 2f * ((upperX - lowerX) + (upperY - lowerY));
+    }
+}
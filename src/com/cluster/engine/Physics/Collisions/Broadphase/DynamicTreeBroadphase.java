@@ -0,0 +1,205 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions.Broadphase;
+
+import com.cluster.engine.Physics.RigidBody;
+import com.cluster.engine.Physics.Shapes.AABB;
+
+/**
+ * A broadphase which uses a {@link DynamicTree} to find candidate pairs, scales at roughly O(n log n)
+ * @author James Bulman
+ */
+public class DynamicTreeBroadphase implements Broadphase, TreeCallback {
+
+    /** The tree holding the fattened AABBs of every body */
+    private DynamicTree tree;
+
+    /** The number of proxies in the tree */
+    private int proxyCount;
+
+    // The proxy currently being queried and where to report its pairs
+    private int queryProxy;
+    private PairCallback callback;
+
+    // The area of the current query and where to report the bodies found
+    private float queryMinX, queryMinY;
+    private float queryMaxX, queryMaxY;
+    private QueryCallback queryCallback;
+    private final TreeCallback areaCallback;
+
+    // The start and length of the current ray and where to report the bodies it passes through
+    private float rayStartX, rayStartY;
+    private float rayInverseDX, rayInverseDY;
+    private RayCallback rayCallback;
+    private final TreeRayCallback treeRayCallback;
+
+    /**
+     * Creates an empty dynamic tree broadphase
+     */
+    public DynamicTreeBroadphase() {
+        tree = new DynamicTree();
+        proxyCount = 0;
+
+        queryProxy = DynamicTree.NULL_NODE;
+        callback = null;
+
+        queryCallback = null;
+        areaCallback = this::reportArea;
+
+        rayCallback = null;
+        treeRayCallback = this::reportRay;
+    }
+
+    public int createProxy(AABB aabb, RigidBody body) {
+        proxyCount++;
+        return tree.createProxy(aabb, body);
+    }
+
+    public void destroyProxy(int proxyId) {
+        tree.destroyProxy(proxyId);
+        proxyCount--;
+    }
+
+    public void moveProxy(int proxyId, AABB aabb, float dx, float dy) {
+        tree.moveProxy(proxyId, aabb, dx, dy);
+    }
+
+    /**
+     * Queries the tree with the fattened AABB of every proxy and reports any overlapping pairs
+     * @param callback The callback to report the pairs to
+     */
+    public void updatePairs(PairCallback callback) {
+        this.callback = callback;
+
+        int capacity = tree.getNodeCapacity();
+        for(int proxy = 0; proxy < capacity; proxy++) {
+            if(!tree.isLeaf(proxy)) continue;
+
+            queryProxy = proxy;
+            tree.query(tree.getMinX(proxy), tree.getMinY(proxy),
+                    tree.getMaxX(proxy), tree.getMaxY(proxy), this);
+        }
+
+        queryProxy = DynamicTree.NULL_NODE;
+        this.callback = null;
+    }
+
+    /**
+     * Reports a pair between the proxy being queried and the one found, each pair is only reported
+     * by the proxy with the lower id so that it is not reported twice
+     * @param proxyId The id of the overlapping proxy
+     * @return Always True, all overlaps are wanted
+     */
+    public boolean reportProxy(int proxyId) {
+        if(proxyId <= queryProxy) return true;
+
+        callback.addPair(tree.getBody(queryProxy), tree.getBody(proxyId));
+        return true;
+    }
+
+    /**
+     * Queries the tree with the area given, the bounds in the tree are fattened so the actual bounds of each body
+     * found are tested before it is reported
+     * @param lowerX The minimum x of the area
+     * @param lowerY The minimum y of the area
+     * @param upperX The maximum x of the area
+     * @param upperY The maximum y of the area
+     * @param callback The callback to report the bodies to
+     */
+    public void query(float lowerX, float lowerY, float upperX, float upperY, QueryCallback callback) {
+        queryMinX = lowerX;
+        queryMinY = lowerY;
+        queryMaxX = upperX;
+        queryMaxY = upperY;
+        queryCallback = callback;
+
+        tree.query(lowerX, lowerY, upperX, upperY, areaCallback);
+
+        queryCallback = null;
+    }
+
+    /**
+     * Reports the body of a proxy found by an area query if its actual bounds overlap the area
+     * @param proxyId The id of the overlapping proxy
+     * @return False if the callback stopped the query, otherwise True
+     */
+    private boolean reportArea(int proxyId) {
+        RigidBody body = tree.getBody(proxyId);
+
+        AABB aabb = body.getAABB();
+        if(aabb.getMinX() > queryMaxX || queryMinX > aabb.getMaxX()) return true;
+        if(aabb.getMinY() > queryMaxY || queryMinY > aabb.getMaxY()) return true;
+
+        return queryCallback.reportBody(body);
+    }
+
+    /**
+     * Casts a ray through the tree, the bounds in the tree are fattened so the actual bounds of each body found are
+     * tested before it is reported
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param endX The x coordinate the ray ends at
+     * @param endY The y coordinate the ray ends at
+     * @param maxFraction The fraction of the ray's length past which bodies are ignored
+     * @param callback The callback to report the bodies to
+     * @return The maximum fraction after the cast, 0 if the callback stopped the ray
+     */
+    public float rayCast(float startX, float startY, float endX, float endY, float maxFraction,
+                         RayCallback callback) {
+        rayStartX = startX;
+        rayStartY = startY;
+        rayInverseDX = 1f / (endX - startX);
+        rayInverseDY = 1f / (endY - startY);
+        rayCallback = callback;
+
+        float result = tree.rayCast(startX, startY, endX, endY, maxFraction, treeRayCallback);
+
+        rayCallback = null;
+        return result;
+    }
+
+    /**
+     * Reports the body of a proxy the ray passes through if the ray also passes through its actual bounds
+     * @param proxyId The id of the proxy
+     * @param maxFraction The current maximum fraction of the ray
+     * @return The new maximum fraction
+     */
+    private float reportRay(int proxyId, float maxFraction) {
+        RigidBody body = tree.getBody(proxyId);
+
+        AABB aabb = body.getAABB();
+        if(!AABB.testRay(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY(),
+                rayStartX, rayStartY, rayInverseDX, rayInverseDY, maxFraction)) return maxFraction;
+
+        return rayCallback.reportBody(body, maxFraction);
+    }
+
+    public int getProxyCount() { return proxyCount; }
+
+    /**
+     * Gets the tree used by the broadphase
+     * @return The dynamic tree
+     */
+    public DynamicTree getTree() { return tree; }
+}
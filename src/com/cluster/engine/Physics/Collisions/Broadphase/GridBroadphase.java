@@ -0,0 +1,715 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions.Broadphase;
+
+import com.cluster.engine.Physics.RigidBody;
+import com.cluster.engine.Physics.Shapes.AABB;
+
+import java.util.Arrays;
+
+/**
+ * A broadphase which hashes the bounds of every body into a uniform grid and only tests bodies which share a cell<br>
+ * This works best when the bodies are all of a similar size to the cells. Each proxy is given fattened bounds, like
+ * the {@link DynamicTree}, and the grid is only rebuilt when a body leaves its fattened bounds. The cell table and
+ * per-cell arrays are reused so that rebuilding does not allocate once warm<br>
+ * Proxies which would cover more than {@link #MAX_PROXY_CELLS} cells are kept out of the grid and tested against
+ * every other proxy instead. Area queries only visit the cells they overlap and rays walk the cells along their path
+ * @author James Bulman
+ */
+public class GridBroadphase implements Broadphase {
+
+    // Marks an empty slot within the cell table
+    private static final int EMPTY = -1;
+
+    /** The most cells a single proxy is added to, larger proxies are tested against every other proxy instead */
+    public static final int MAX_PROXY_CELLS = 64;
+    /** Cell indices are clamped to this range so that huge or infinite bounds cannot overflow the cell loops */
+    private static final int CELL_LIMIT = 1 << 24;
+
+    /** The width and height of each cell */
+    private final float cellSize;
+    private final float invCellSize;
+
+    // The fattened bounds of each proxy
+    private float[] minX, minY;
+    private float[] maxX, maxY;
+    // The body each proxy represents
+    private RigidBody[] bodies;
+    // Whether each proxy covers too many cells to be added to the grid
+    private boolean[] large;
+    // The query each proxy was last tested by, so proxies in more than one cell are only tested once
+    private int[] stamps;
+    private int stamp;
+
+    /** One past the highest proxy id in use */
+    private int proxyEnd;
+    /** The number of proxies in use */
+    private int proxyCount;
+
+    /** Proxy ids which have been freed and can be reused */
+    private int[] freeProxies;
+    private int freeCount;
+
+    // Open addressing table mapping packed cell coordinates to a cell slot
+    private long[] tableKeys;
+    private int[] tableCells;
+    private int tableMask;
+
+    // The cells in use this step, the proxy arrays are kept between steps and reused
+    private int[] cellX, cellY;
+    private int[] cellTableSlots;
+    private int[][] cellProxies;
+    private int[] cellCounts;
+    private int cellCount;
+
+    // The proxies which are too large to be added to the grid
+    private int[] largeProxies;
+    private int largeCount;
+
+    /** Whether a proxy has been added, removed or has left its fattened bounds since the grid was built */
+    private boolean cellsDirty;
+
+    /**
+     * Creates an empty grid broadphase
+     * @param cellSize The width and height of each cell
+     */
+    public GridBroadphase(float cellSize) {
+        if(cellSize <= 0)
+            throw new IllegalArgumentException("Error: Cell size must be greater than zero");
+
+        this.cellSize = cellSize;
+        invCellSize = 1f / cellSize;
+
+        minX = new float[16];
+        minY = new float[16];
+        maxX = new float[16];
+        maxY = new float[16];
+        bodies = new RigidBody[16];
+        large = new boolean[16];
+        stamps = new int[16];
+        stamp = 0;
+
+        proxyEnd = 0;
+        proxyCount = 0;
+
+        freeProxies = new int[16];
+        freeCount = 0;
+
+        tableKeys = new long[64];
+        tableCells = new int[64];
+        tableMask = 63;
+        Arrays.fill(tableCells, EMPTY);
+
+        cellX = new int[32];
+        cellY = new int[32];
+        cellTableSlots = new int[32];
+        cellProxies = new int[32][];
+        cellCounts = new int[32];
+        cellCount = 0;
+
+        largeProxies = new int[8];
+        largeCount = 0;
+
+        cellsDirty = false;
+    }
+
+    public int createProxy(AABB aabb, RigidBody body) {
+        int proxy;
+        if(freeCount > 0) {
+            proxy = freeProxies[--freeCount];
+        }
+        else {
+            if(proxyEnd == bodies.length) {
+                int capacity = bodies.length * 2;
+
+                minX = grow(minX, capacity);
+                minY = grow(minY, capacity);
+                maxX = grow(maxX, capacity);
+                maxY = grow(maxY, capacity);
+
+                RigidBody[] tmp = new RigidBody[capacity];
+                System.arraycopy(bodies, 0, tmp, 0, proxyEnd);
+                bodies = tmp;
+
+                boolean[] tmpLarge = new boolean[capacity];
+                System.arraycopy(large, 0, tmpLarge, 0, proxyEnd);
+                large = tmpLarge;
+
+                int[] tmpStamps = new int[capacity];
+                System.arraycopy(stamps, 0, tmpStamps, 0, proxyEnd);
+                stamps = tmpStamps;
+            }
+
+            proxy = proxyEnd++;
+        }
+
+        bodies[proxy] = body;
+
+        minX[proxy] = aabb.getMinX() - DynamicTree.AABB_MARGIN;
+        minY[proxy] = aabb.getMinY() - DynamicTree.AABB_MARGIN;
+        maxX[proxy] = aabb.getMaxX() + DynamicTree.AABB_MARGIN;
+        maxY[proxy] = aabb.getMaxY() + DynamicTree.AABB_MARGIN;
+
+        cellsDirty = true;
+
+        proxyCount++;
+        return proxy;
+    }
+
+    public void destroyProxy(int proxyId) {
+        if(proxyId < 0 || proxyId >= proxyEnd || bodies[proxyId] == null)
+            throw new IllegalArgumentException("Error: " + proxyId + " is not a valid proxy");
+
+        bodies[proxyId] = null;
+        proxyCount--;
+
+        cellsDirty = true;
+
+        if(freeCount == freeProxies.length) {
+            int[] tmp = new int[freeProxies.length * 2];
+            System.arraycopy(freeProxies, 0, tmp, 0, freeCount);
+            freeProxies = tmp;
+        }
+
+        freeProxies[freeCount++] = proxyId;
+    }
+
+    /**
+     * Moves a proxy to the bounds given, the grid is only rebuilt if the bounds have left the fattened bounds of the
+     * proxy. The fattened bounds are extended along the displacement in the same way as the {@link DynamicTree}
+     * @param proxyId The id of the proxy to move
+     * @param aabb The new bounds of the body
+     * @param dx The displacement of the body along the x axis, used to predict movement
+     * @param dy The displacement of the body along the y axis, used to predict movement
+     */
+    public void moveProxy(int proxyId, AABB aabb, float dx, float dy) {
+        float lowerX = aabb.getMinX();
+        float lowerY = aabb.getMinY();
+        float upperX = aabb.getMaxX();
+        float upperY = aabb.getMaxY();
+
+        // Still contained within the fattened bounds so the cells are still correct
+        if(minX[proxyId] <= lowerX && minY[proxyId] <= lowerY
+                && maxX[proxyId] >= upperX && maxY[proxyId] >= upperY) {
+            return;
+        }
+
+        lowerX -= DynamicTree.AABB_MARGIN;
+        lowerY -= DynamicTree.AABB_MARGIN;
+        upperX += DynamicTree.AABB_MARGIN;
+        upperY += DynamicTree.AABB_MARGIN;
+
+        dx *= DynamicTree.DISPLACEMENT_MULTIPLIER;
+        dy *= DynamicTree.DISPLACEMENT_MULTIPLIER;
+
+        if(dx < 0) lowerX += dx; else upperX += dx;
+        if(dy < 0) lowerY += dy; else upperY += dy;
+
+        minX[proxyId] = lowerX;
+        minY[proxyId] = lowerY;
+        maxX[proxyId] = upperX;
+        maxY[proxyId] = upperY;
+
+        cellsDirty = true;
+    }
+
+    /**
+     * Rebuilds the grid if any proxy has changed and reports every pair of proxies which share a cell and whose
+     * fattened bounds overlap, along with the pairs of large proxies
+     * @param callback The callback to report the pairs to
+     */
+    public void updatePairs(PairCallback callback) {
+        if(cellsDirty) buildCells();
+
+        // Test the proxies within each cell against each other
+        for(int c = 0; c < cellCount; c++) {
+            int[] proxies = cellProxies[c];
+            int count = cellCounts[c];
+
+            for(int i = 0; i < count; i++) {
+                int a = proxies[i];
+
+                for(int j = i + 1; j < count; j++) {
+                    int b = proxies[j];
+
+                    if(minX[a] > maxX[b] || minX[b] > maxX[a]) continue;
+                    if(minY[a] > maxY[b] || minY[b] > maxY[a]) continue;
+
+                    // Bodies can share more than one cell, only report the pair from the first cell they share
+                    if(cellX[c] != Math.max(cell(minX[a]), cell(minX[b]))) continue;
+                    if(cellY[c] != Math.max(cell(minY[a]), cell(minY[b]))) continue;
+
+                    callback.addPair(bodies[a], bodies[b]);
+                }
+            }
+        }
+
+        // Large proxies are not in the grid so are tested against everything
+        for(int i = 0; i < largeCount; i++) {
+            int a = largeProxies[i];
+
+            for(int b = 0; b < proxyEnd; b++) {
+                if(b == a || bodies[b] == null) continue;
+
+                // Two large proxies are only reported once, from the lower id
+                if(large[b] && b < a) continue;
+
+                if(minX[a] > maxX[b] || minX[b] > maxX[a]) continue;
+                if(minY[a] > maxY[b] || minY[b] > maxY[a]) continue;
+
+                callback.addPair(bodies[a], bodies[b]);
+            }
+        }
+    }
+
+    /**
+     * Reports every proxy whose fattened bounds overlap the area given, only the cells the area overlaps are visited.
+     * The grid is rebuilt first if any proxy has changed since it was last built
+     * @param lowerX The minimum x of the area
+     * @param lowerY The minimum y of the area
+     * @param upperX The maximum x of the area
+     * @param upperY The maximum y of the area
+     * @param callback The callback to report the bodies to
+     */
+    public void query(float lowerX, float lowerY, float upperX, float upperY, QueryCallback callback) {
+        if(cellsDirty) buildCells();
+
+        int x0 = cell(lowerX), x1 = cell(upperX);
+        int y0 = cell(lowerY), y1 = cell(upperY);
+
+        // Visiting more cells than there are proxies is slower than testing every proxy
+        if((long) (x1 - x0 + 1) * (y1 - y0 + 1) > proxyEnd) {
+            queryProxies(lowerX, lowerY, upperX, upperY, callback);
+            return;
+        }
+
+        nextStamp();
+
+        for(int i = 0; i < largeCount; i++) {
+            int proxy = largeProxies[i];
+
+            if(minX[proxy] > upperX || lowerX > maxX[proxy]) continue;
+            if(minY[proxy] > upperY || lowerY > maxY[proxy]) continue;
+
+            if(!callback.reportBody(bodies[proxy])) return;
+        }
+
+        for(int y = y0; y <= y1; y++) {
+            for(int x = x0; x <= x1; x++) {
+                int c = lookupCell(x, y);
+                if(c == EMPTY) continue;
+
+                int[] proxies = cellProxies[c];
+                int count = cellCounts[c];
+
+                for(int i = 0; i < count; i++) {
+                    int proxy = proxies[i];
+
+                    if(stamps[proxy] == stamp) continue;
+                    stamps[proxy] = stamp;
+
+                    if(minX[proxy] > upperX || lowerX > maxX[proxy]) continue;
+                    if(minY[proxy] > upperY || lowerY > maxY[proxy]) continue;
+
+                    if(!callback.reportBody(bodies[proxy])) return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Casts a ray through the grid, walking the cells along the ray in order and stopping once the ray has been
+     * shortened to before the next cell. The grid is rebuilt first if any proxy has changed since it was last built
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param endX The x coordinate the ray ends at
+     * @param endY The y coordinate the ray ends at
+     * @param maxFraction The fraction of the ray's length past which bodies are ignored
+     * @param callback The callback to report the bodies to
+     * @return The maximum fraction after the cast, 0 if the callback stopped the ray
+     */
+    public float rayCast(float startX, float startY, float endX, float endY, float maxFraction,
+                         RayCallback callback) {
+        if(cellsDirty) buildCells();
+
+        float dx = endX - startX;
+        float dy = endY - startY;
+
+        float inverseDX = 1f / dx;
+        float inverseDY = 1f / dy;
+
+        float clipX = startX + (dx * maxFraction);
+        float clipY = startY + (dy * maxFraction);
+
+        // The walk can only follow rays which stay within the range of the grid
+        if(!inGrid(startX) || !inGrid(startY) || !inGrid(clipX) || !inGrid(clipY)) {
+            return rayCastProxies(startX, startY, inverseDX, inverseDY, maxFraction, callback);
+        }
+
+        int x = cell(startX);
+        int y = cell(startY);
+
+        // Walking more cells than there are proxies is slower than testing every proxy
+        if(Math.abs(cell(clipX) - x) + Math.abs(cell(clipY) - y) >= proxyEnd) {
+            return rayCastProxies(startX, startY, inverseDX, inverseDY, maxFraction, callback);
+        }
+
+        nextStamp();
+
+        for(int i = 0; i < largeCount; i++) {
+            int proxy = largeProxies[i];
+
+            if(!AABB.testRay(minX[proxy], minY[proxy], maxX[proxy], maxY[proxy],
+                    startX, startY, inverseDX, inverseDY, maxFraction)) continue;
+
+            float value = callback.reportBody(bodies[proxy], maxFraction);
+            if(value == 0) return 0;
+
+            if(value < maxFraction) maxFraction = value;
+        }
+
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+
+        // The fraction of the ray at which it crosses into the next column and row, and the fraction per cell
+        double nextX = Double.POSITIVE_INFINITY, deltaX = Double.POSITIVE_INFINITY;
+        double nextY = Double.POSITIVE_INFINITY, deltaY = Double.POSITIVE_INFINITY;
+        if(dx != 0) {
+            nextX = (((x + (dx > 0 ? 1 : 0)) * (double) cellSize) - startX) / dx;
+            deltaX = cellSize / Math.abs((double) dx);
+        }
+        if(dy != 0) {
+            nextY = (((y + (dy > 0 ? 1 : 0)) * (double) cellSize) - startY) / dy;
+            deltaY = cellSize / Math.abs((double) dy);
+        }
+
+        while (true) {
+            int c = lookupCell(x, y);
+            if(c != EMPTY) {
+                int[] proxies = cellProxies[c];
+                int count = cellCounts[c];
+
+                for(int i = 0; i < count; i++) {
+                    int proxy = proxies[i];
+
+                    // The ray only gets shorter, so a proxy it missed once will always be missed
+                    if(stamps[proxy] == stamp) continue;
+                    stamps[proxy] = stamp;
+
+                    if(!AABB.testRay(minX[proxy], minY[proxy], maxX[proxy], maxY[proxy],
+                            startX, startY, inverseDX, inverseDY, maxFraction)) continue;
+
+                    float value = callback.reportBody(bodies[proxy], maxFraction);
+                    if(value == 0) return 0;
+
+                    if(value < maxFraction) maxFraction = value;
+                }
+            }
+
+            // Move into whichever neighbouring cell the ray reaches first, unless the ray ends before it
+            if(nextX < nextY) {
+                if(nextX > maxFraction) break;
+
+                x += stepX;
+                nextX += deltaX;
+            }
+            else {
+                if(nextY > maxFraction) break;
+
+                y += stepY;
+                nextY += deltaY;
+            }
+        }
+
+        return maxFraction;
+    }
+
+    public int getProxyCount() { return proxyCount; }
+
+    /**
+     * Gets the width and height of each cell
+     * @return The cell size
+     */
+    public float getCellSize() { return cellSize; }
+
+    /**
+     * Converts a coordinate into the index of the cell which contains it
+     * @param value The coordinate
+     * @return The cell index along that axis, clamped to the range of the grid
+     */
+    private int cell(float value) {
+        float index = value * invCellSize;
+
+        if(index >= CELL_LIMIT) return CELL_LIMIT;
+        if(index <= -CELL_LIMIT) return -CELL_LIMIT;
+
+        return (int) Math.floor(index);
+    }
+
+    /**
+     * Checks whether a coordinate is finite and within the range of cells which are not clamped
+     * @param value The coordinate
+     * @return True if the coordinate is inside the grid, otherwise false
+     */
+    private boolean inGrid(float value) {
+        return Math.abs(value * invCellSize) < CELL_LIMIT;
+    }
+
+    /**
+     * Starts a new query, proxies tested before this are no longer marked as tested
+     */
+    private void nextStamp() {
+        stamp++;
+
+        // The stamp wrapped around, so old stamps could match it
+        if(stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Tests the fattened bounds of every proxy against the area given, used when the area covers too many cells
+     * @param lowerX The minimum x of the area
+     * @param lowerY The minimum y of the area
+     * @param upperX The maximum x of the area
+     * @param upperY The maximum y of the area
+     * @param callback The callback to report the bodies to
+     */
+    private void queryProxies(float lowerX, float lowerY, float upperX, float upperY, QueryCallback callback) {
+        for(int proxy = 0; proxy < proxyEnd; proxy++) {
+            if(bodies[proxy] == null) continue;
+
+            if(minX[proxy] > upperX || lowerX > maxX[proxy]) continue;
+            if(minY[proxy] > upperY || lowerY > maxY[proxy]) continue;
+
+            if(!callback.reportBody(bodies[proxy])) return;
+        }
+    }
+
+    /**
+     * Tests the fattened bounds of every proxy against the ray, used when the ray is too long to walk or leaves the
+     * range of the grid
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param inverseDX The inverse of the ray's length along the x axis
+     * @param inverseDY The inverse of the ray's length along the y axis
+     * @param maxFraction The fraction of the ray's length past which bodies are ignored
+     * @param callback The callback to report the bodies to
+     * @return The maximum fraction after the cast, 0 if the callback stopped the ray
+     */
+    private float rayCastProxies(float startX, float startY, float inverseDX, float inverseDY, float maxFraction,
+                                 RayCallback callback) {
+        for(int proxy = 0; proxy < proxyEnd; proxy++) {
+            if(bodies[proxy] == null) continue;
+
+            if(!AABB.testRay(minX[proxy], minY[proxy], maxX[proxy], maxY[proxy],
+                    startX, startY, inverseDX, inverseDY, maxFraction)) continue;
+
+            float value = callback.reportBody(bodies[proxy], maxFraction);
+            if(value == 0) return 0;
+
+            if(value < maxFraction) maxFraction = value;
+        }
+
+        return maxFraction;
+    }
+
+    /**
+     * Empties the grid and inserts every proxy into all of the cells its fattened bounds cover
+     */
+    private void buildCells() {
+        clearCells();
+        largeCount = 0;
+
+        for(int proxy = 0; proxy < proxyEnd; proxy++) {
+            if(bodies[proxy] == null) continue;
+
+            int x0 = cell(minX[proxy]), x1 = cell(maxX[proxy]);
+            int y0 = cell(minY[proxy]), y1 = cell(maxY[proxy]);
+
+            // Keep large proxies out of the grid so they do not fill thousands of cells
+            large[proxy] = ((long) (x1 - x0 + 1) * (y1 - y0 + 1)) > MAX_PROXY_CELLS;
+            if(large[proxy]) {
+                if(largeCount == largeProxies.length) {
+                    int[] tmp = new int[largeCount * 2];
+                    System.arraycopy(largeProxies, 0, tmp, 0, largeCount);
+                    largeProxies = tmp;
+                }
+
+                largeProxies[largeCount++] = proxy;
+                continue;
+            }
+
+            for(int y = y0; y <= y1; y++) {
+                for(int x = x0; x <= x1; x++) {
+                    addToCell(findCell(x, y), proxy);
+                }
+            }
+        }
+
+        cellsDirty = false;
+    }
+
+    /**
+     * Empties all of the cells used last step, the per-cell arrays are kept for reuse
+     */
+    private void clearCells() {
+        for(int c = 0; c < cellCount; c++) {
+            tableCells[cellTableSlots[c]] = EMPTY;
+            cellCounts[c] = 0;
+        }
+
+        cellCount = 0;
+    }
+
+    /**
+     * Finds the cell slot for the given cell coordinates, a new one is taken if the cell has not been used this step
+     * @param x The x index of the cell
+     * @param y The y index of the cell
+     * @return The cell slot
+     */
+    private int findCell(int x, int y) {
+        long key = ((long) x << 32) | (y & 0xFFFFFFFFL);
+
+        int slot = hash(key) & tableMask;
+        while (tableCells[slot] != EMPTY) {
+            if(tableKeys[slot] == key) return tableCells[slot];
+            slot = (slot + 1) & tableMask;
+        }
+
+        if(cellCount == cellCounts.length) growCells();
+
+        int c = cellCount++;
+        cellX[c] = x;
+        cellY[c] = y;
+        cellTableSlots[c] = slot;
+
+        tableKeys[slot] = key;
+        tableCells[slot] = c;
+
+        // Keep the load factor of the table below a half
+        if(cellCount * 2 > tableMask) growTable();
+
+        return c;
+    }
+
+    /**
+     * Finds the cell slot for the given cell coordinates without taking a new one
+     * @param x The x index of the cell
+     * @param y The y index of the cell
+     * @return The cell slot, or EMPTY if no proxy is in the cell
+     */
+    private int lookupCell(int x, int y) {
+        long key = ((long) x << 32) | (y & 0xFFFFFFFFL);
+
+        int slot = hash(key) & tableMask;
+        while (tableCells[slot] != EMPTY) {
+            if(tableKeys[slot] == key) return tableCells[slot];
+            slot = (slot + 1) & tableMask;
+        }
+
+        return EMPTY;
+    }
+
+    /**
+     * Adds a proxy to the cell slot given
+     * @param c The cell slot
+     * @param proxy The proxy to add
+     */
+    private void addToCell(int c, int proxy) {
+        int[] proxies = cellProxies[c];
+        int count = cellCounts[c];
+
+        if(proxies == null) {
+            proxies = new int[8];
+            cellProxies[c] = proxies;
+        }
+        else if(count == proxies.length) {
+            int[] tmp = new int[count * 2];
+            System.arraycopy(proxies, 0, tmp, 0, count);
+            proxies = tmp;
+            cellProxies[c] = proxies;
+        }
+
+        proxies[count] = proxy;
+        cellCounts[c] = count + 1;
+    }
+
+    private void growCells() {
+        int capacity = cellCounts.length * 2;
+
+        int[] tmpX = new int[capacity];
+        int[] tmpY = new int[capacity];
+        int[] tmpSlots = new int[capacity];
+        int[][] tmpProxies = new int[capacity][];
+        int[] tmpCounts = new int[capacity];
+
+        System.arraycopy(cellX, 0, tmpX, 0, cellCount);
+        System.arraycopy(cellY, 0, tmpY, 0, cellCount);
+        System.arraycopy(cellTableSlots, 0, tmpSlots, 0, cellCount);
+        System.arraycopy(cellProxies, 0, tmpProxies, 0, cellProxies.length);
+        System.arraycopy(cellCounts, 0, tmpCounts, 0, cellCount);
+
+        cellX = tmpX;
+        cellY = tmpY;
+        cellTableSlots = tmpSlots;
+        cellProxies = tmpProxies;
+        cellCounts = tmpCounts;
+    }
+
+    private void growTable() {
+        int capacity = tableKeys.length * 2;
+
+        tableKeys = new long[capacity];
+        tableCells = new int[capacity];
+        tableMask = capacity - 1;
+        Arrays.fill(tableCells, EMPTY);
+
+        // Re-insert all of the cells in use
+        for(int c = 0; c < cellCount; c++) {
+            long key = ((long) cellX[c] << 32) | (cellY[c] & 0xFFFFFFFFL);
+
+            int slot = hash(key) & tableMask;
+            while (tableCells[slot] != EMPTY) {
+                slot = (slot + 1) & tableMask;
+            }
+
+            tableKeys[slot] = key;
+            tableCells[slot] = c;
+            cellTableSlots[c] = slot;
+        }
+    }
+
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        float[] result = new float[capacity];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+}
@@ -0,0 +1,411 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions.Broadphase;
+
+import com.cluster.engine.Physics.RigidBody;
+import com.cluster.engine.Physics.Shapes.AABB;
+
+import java.util.List;
+
+/**
+ * A bounding volume tree for bodies which never move, unlike {@link DynamicTree} the whole tree is built in one
+ * go by splitting the bodies at the median of the longest axis, which gives a well balanced tree without any
+ * fattening. The tree has to be rebuilt whenever the bodies change<br>
+ * The nodes are stored in parallel arrays, the children of a node are always next to each other
+ * @author James Bulman
+ */
+public class StaticTree {
+
+    /** The most bodies a leaf can hold before it is split */
+    private static final int MAX_LEAF_SIZE = 4;
+
+    // The bounds of each node
+    private float[] minX, minY;
+    private float[] maxX, maxY;
+
+    // The first child of each internal node, the second child follows it. Leaves have no children
+    private int[] child;
+
+    // The range of bodies held by each leaf, internal nodes have a count of 0
+    private int[] start;
+    private int[] count;
+
+    // The bodies in the order the leaves refer to them, and the centres of their bounds used while building
+    private RigidBody[] bodies;
+    private float[] centreX, centreY;
+    private int bodyCount;
+
+    private int nodeCount;
+
+    // The depth of the deepest leaf, the root is at a depth of 0
+    private int height;
+
+    // Stack used during queries
+    private int[] stack;
+
+    /**
+     * Creates an empty tree
+     */
+    public StaticTree() {
+        allocateNodes(16);
+
+        bodies = new RigidBody[8];
+        centreX = new float[8];
+        centreY = new float[8];
+        bodyCount = 0;
+
+        nodeCount = 0;
+        height = 0;
+
+        stack = new int[64];
+    }
+
+    /**
+     * Rebuilds the tree from the bodies given using their current bounds
+     * @param list The bodies to build the tree from
+     */
+    public void build(List<RigidBody> list) {
+        bodyCount = list.size();
+        nodeCount = 0;
+        height = 0;
+
+        if(bodyCount > bodies.length) {
+            bodies = new RigidBody[bodyCount];
+            centreX = new float[bodyCount];
+            centreY = new float[bodyCount];
+        }
+
+        // A binary tree with at least one body per leaf never has more than 2n - 1 nodes
+        if(2 * bodyCount > child.length) {
+            allocateNodes(2 * bodyCount);
+        }
+
+        for(int i = 0; i < bodyCount; i++) {
+            RigidBody body = list.get(i);
+            AABB aabb = body.getAABB();
+
+            bodies[i] = body;
+            centreX[i] = 0.5f * (aabb.getMinX() + aabb.getMaxX());
+            centreY[i] = 0.5f * (aabb.getMinY() + aabb.getMaxY());
+        }
+
+        if(bodyCount > 0) {
+            nodeCount = 1;
+            buildNode(0, 0, bodyCount, 0);
+        }
+
+        if(getStackSize() > stack.length) {
+            stack = new int[getStackSize()];
+        }
+
+        // Release any bodies left over from a larger build
+        for(int i = bodyCount; i < bodies.length && bodies[i] != null; i++) {
+            bodies[i] = null;
+        }
+    }
+
+    /**
+     * Reports every body whose bounds overlap the area given<br>
+     * The callback must not query or rebuild the tree itself
+     * @param lowerX The minimum x of the area
+     * @param lowerY The minimum y of the area
+     * @param upperX The maximum x of the area
+     * @param upperY The maximum y of the area
+     * @param callback The callback to report the index of each overlapping body to, see {@link #getBody(int)}
+     */
+    public void query(float lowerX, float lowerY, float upperX, float upperY, TreeCallback callback) {
+        query(lowerX, lowerY, upperX, upperY, callback, stack);
+    }
+
+    /**
+     * Reports every body whose bounds overlap the area given, using the stack given instead of the tree's own so
+     * that many threads can query the tree at once as long as it is not rebuilt
+     * @param lowerX The minimum x of the area
+     * @param lowerY The minimum y of the area
+     * @param upperX The maximum x of the area
+     * @param upperY The maximum y of the area
+     * @param callback The callback to report the index of each overlapping body to, see {@link #getBody(int)}
+     * @param stack The stack to use, at least {@link #getStackSize()} long
+     */
+    public void query(float lowerX, float lowerY, float upperX, float upperY, TreeCallback callback, int[] stack) {
+        if(nodeCount == 0) return;
+
+        int top = 0;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int node = stack[--top];
+
+            if(minX[node] > upperX || lowerX > maxX[node]) continue;
+            if(minY[node] > upperY || lowerY > maxY[node]) continue;
+
+            if(count[node] > 0) {
+                int end = start[node] + count[node];
+                for(int i = start[node]; i < end; i++) {
+                    AABB aabb = bodies[i].getAABB();
+
+                    if(aabb.getMinX() > upperX || lowerX > aabb.getMaxX()) continue;
+                    if(aabb.getMinY() > upperY || lowerY > aabb.getMaxY()) continue;
+
+                    if(!callback.reportProxy(i)) return;
+                }
+            }
+            else {
+                stack[top++] = child[node];
+                stack[top++] = child[node] + 1;
+            }
+        }
+    }
+
+    /**
+     * Casts a ray through the tree, reporting every body whose bounds the ray passes through<br>
+     * The callback can shorten the ray as it goes so that anything past the closest hit so far is skipped, and must
+     * not query or rebuild the tree itself
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param endX The x coordinate the ray ends at
+     * @param endY The y coordinate the ray ends at
+     * @param maxFraction The fraction of the ray's length past which bodies are ignored
+     * @param callback The callback to report the index of each body to, see {@link #getBody(int)}
+     * @return The maximum fraction after the cast, 0 if the callback stopped the ray
+     */
+    public float rayCast(float startX, float startY, float endX, float endY, float maxFraction,
+                         TreeRayCallback callback) {
+        return rayCast(startX, startY, endX, endY, maxFraction, callback, stack);
+    }
+
+    /**
+     * Casts a ray through the tree using the stack given instead of the tree's own, so that many threads can cast
+     * rays through the tree at once as long as it is not rebuilt
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param endX The x coordinate the ray ends at
+     * @param endY The y coordinate the ray ends at
+     * @param maxFraction The fraction of the ray's length past which bodies are ignored
+     * @param callback The callback to report the index of each body to, see {@link #getBody(int)}
+     * @param stack The stack to use, at least {@link #getStackSize()} long
+     * @return The maximum fraction after the cast, 0 if the callback stopped the ray
+     */
+    public float rayCast(float startX, float startY, float endX, float endY, float maxFraction,
+                         TreeRayCallback callback, int[] stack) {
+        if(nodeCount == 0) return maxFraction;
+
+        float inverseDX = 1f / (endX - startX);
+        float inverseDY = 1f / (endY - startY);
+
+        int top = 0;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int node = stack[--top];
+
+            if(!AABB.testRay(minX[node], minY[node], maxX[node], maxY[node], startX, startY, inverseDX, inverseDY, maxFraction)) {
+                continue;
+            }
+
+            if(count[node] > 0) {
+                int end = start[node] + count[node];
+                for(int i = start[node]; i < end; i++) {
+                    AABB aabb = bodies[i].getAABB();
+                    if(!AABB.testRay(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY(),
+                            startX, startY, inverseDX, inverseDY, maxFraction)) continue;
+
+                    float value = callback.reportProxy(i, maxFraction);
+                    if(value == 0) return 0;
+
+                    if(value < maxFraction) maxFraction = value;
+                }
+            }
+            else {
+                stack[top++] = child[node];
+                stack[top++] = child[node] + 1;
+            }
+        }
+
+        return maxFraction;
+    }
+
+    /**
+     * Gets a body reported by a query
+     * @param index The index of the body given to the callback
+     * @return The body
+     */
+    public RigidBody getBody(int index) { return bodies[index]; }
+
+    /**
+     * Gets the number of bodies in the tree
+     * @return The body count
+     */
+    public int getBodyCount() { return bodyCount; }
+
+    /**
+     * Gets the number of nodes in the tree, both leaves and internal nodes
+     * @return The node count
+     */
+    public int getNodeCount() { return nodeCount; }
+
+    /**
+     * Gets the size a stack needs to be to query the tree, each level below the root leaves at most one node
+     * waiting on the stack
+     * @return The stack size
+     */
+    public int getStackSize() { return height + 1; }
+
+    /**
+     * Fills in a node for the range of bodies given, splitting it into two children if there are too many bodies
+     * @param node The node to fill in
+     * @param from The index of the first body in the range
+     * @param to The index after the last body in the range
+     * @param depth The depth of the node in the tree
+     */
+    private void buildNode(int node, int from, int to, int depth) {
+        if(to - from <= MAX_LEAF_SIZE) {
+            height = Math.max(height, depth);
+
+            float lowerX = Float.MAX_VALUE, lowerY = Float.MAX_VALUE;
+            float upperX = -Float.MAX_VALUE, upperY = -Float.MAX_VALUE;
+
+            for(int i = from; i < to; i++) {
+                AABB aabb = bodies[i].getAABB();
+
+                lowerX = Math.min(lowerX, aabb.getMinX());
+                lowerY = Math.min(lowerY, aabb.getMinY());
+                upperX = Math.max(upperX, aabb.getMaxX());
+                upperY = Math.max(upperY, aabb.getMaxY());
+            }
+
+            minX[node] = lowerX;
+            minY[node] = lowerY;
+            maxX[node] = upperX;
+            maxY[node] = upperY;
+
+            start[node] = from;
+            count[node] = to - from;
+            return;
+        }
+
+        float centreMinX = Float.MAX_VALUE, centreMinY = Float.MAX_VALUE;
+        float centreMaxX = -Float.MAX_VALUE, centreMaxY = -Float.MAX_VALUE;
+
+        for(int i = from; i < to; i++) {
+            centreMinX = Math.min(centreMinX, centreX[i]);
+            centreMinY = Math.min(centreMinY, centreY[i]);
+            centreMaxX = Math.max(centreMaxX, centreX[i]);
+            centreMaxY = Math.max(centreMaxY, centreY[i]);
+        }
+
+        // Split at the median centre along the axis the centres are most spread out on
+        boolean splitX = (centreMaxX - centreMinX) >= (centreMaxY - centreMinY);
+        int middle = (from + to) >>> 1;
+        select(from, to - 1, middle, splitX);
+
+        int first = nodeCount;
+        nodeCount += 2;
+
+        child[node] = first;
+        count[node] = 0;
+
+        buildNode(first, from, middle, depth + 1);
+        buildNode(first + 1, middle, to, depth + 1);
+
+        // The bounds of an internal node are only ever the bounds of its children combined
+        minX[node] = Math.min(minX[first], minX[first + 1]);
+        minY[node] = Math.min(minY[first], minY[first + 1]);
+        maxX[node] = Math.max(maxX[first], maxX[first + 1]);
+        maxY[node] = Math.max(maxY[first], maxY[first + 1]);
+    }
+
+    /**
+     * Partially sorts the bodies between left and right so that the body at index k is the one which would be
+     * there if the range was sorted by centre, with smaller centres before it and larger ones after it
+     * @param left The first index of the range
+     * @param right The last index of the range
+     * @param k The index to select
+     * @param axisX Whether to sort by the x or the y coordinate of the centres
+     */
+    private void select(int left, int right, int k, boolean axisX) {
+        float[] keys = axisX ? centreX : centreY;
+
+        while (right > left) {
+            float pivot = keys[(left + right) >>> 1];
+
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+
+                if(i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            if(k <= j) {
+                right = j;
+            }
+            else if(k >= i) {
+                left = i;
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Swaps two bodies, along with their centres
+     * @param i The index of the first body
+     * @param j The index of the second body
+     */
+    private void swap(int i, int j) {
+        RigidBody body = bodies[i];
+        bodies[i] = bodies[j];
+        bodies[j] = body;
+
+        float x = centreX[i];
+        centreX[i] = centreX[j];
+        centreX[j] = x;
+
+        float y = centreY[i];
+        centreY[i] = centreY[j];
+        centreY[j] = y;
+    }
+
+    /**
+     * Creates the node arrays with the capacity given, the contents are not kept
+     * @param capacity The number of nodes to allocate
+     */
+    private void allocateNodes(int capacity) {
+        minX = new float[capacity];
+        minY = new float[capacity];
+        maxX = new float[capacity];
+        maxY = new float[capacity];
+
+        child = new int[capacity];
+        start = new int[capacity];
+        count = new int[capacity];
+    }
+}
@@ -0,0 +1,385 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions.Broadphase;
+
+import com.cluster.engine.Physics.RigidBody;
+import com.cluster.engine.Physics.Shapes.AABB;
+import com.cluster.engine.Utilities.LongHashMap;
+
+/**
+ * An incremental sweep and prune broadphase along the x axis<br>
+ * The minimum and maximum x of every proxy are kept in a single sorted endpoint array. As bodies move very little
+ * each step the array is kept sorted with an insertion sort, and every swap between a minimum and a maximum adds or
+ * removes a pair from the set of pairs overlapping on the x axis. Pairs are never recomputed from scratch<br>
+ * Queries and rays binary search the sorted endpoints, so only proxies near the area or ray along the x axis are
+ * tested. How far to the left the search starts depends on the widest proxy, so a single very wide body makes every
+ * query test more proxies
+ * @author James Bulman
+ */
+public class SweepAndPruneBroadphase implements Broadphase {
+
+    // The bounds of each proxy
+    private float[] minX, minY;
+    private float[] maxX, maxY;
+    // The body each proxy represents
+    private RigidBody[] bodies;
+
+    /** One past the highest proxy id in use */
+    private int proxyEnd;
+    /** The number of proxies in use */
+    private int proxyCount;
+
+    /** Proxy ids which have been freed and can be reused */
+    private int[] freeProxies;
+    private int freeCount;
+
+    // The sorted endpoints, data holds the proxy id shifted left by one with the lowest bit set for maximums
+    private float[] endValues;
+    private int[] endData;
+    private int endCount;
+    /** Whether a proxy has been added or moved since the endpoints were last sorted */
+    private boolean endpointsDirty;
+    /** The widest proxy along the x axis when the endpoints were last sorted */
+    private double maxWidth;
+
+    /** The pairs of proxies which currently overlap on the x axis */
+    private LongHashMap<Boolean> pairs;
+    /** The pairs found while destroying a proxy, they are removed once the search has finished */
+    private long[] removedPairs;
+
+    /**
+     * Creates an empty sweep and prune broadphase
+     */
+    public SweepAndPruneBroadphase() {
+        minX = new float[16];
+        minY = new float[16];
+        maxX = new float[16];
+        maxY = new float[16];
+        bodies = new RigidBody[16];
+
+        proxyEnd = 0;
+        proxyCount = 0;
+
+        freeProxies = new int[16];
+        freeCount = 0;
+
+        endValues = new float[32];
+        endData = new int[32];
+        endCount = 0;
+        endpointsDirty = false;
+        maxWidth = 0;
+
+        pairs = new LongHashMap<>();
+        removedPairs = new long[16];
+    }
+
+    /**
+     * Adds a proxy, its endpoints are appended and sorted into place before the next pairs are found or query is run
+     * @param aabb The current bounds of the body
+     * @param body The body which the proxy represents
+     * @return The id of the proxy
+     */
+    public int createProxy(AABB aabb, RigidBody body) {
+        int proxy;
+        if(freeCount > 0) {
+            proxy = freeProxies[--freeCount];
+        }
+        else {
+            if(proxyEnd == bodies.length) {
+                int capacity = bodies.length * 2;
+
+                minX = grow(minX, capacity);
+                minY = grow(minY, capacity);
+                maxX = grow(maxX, capacity);
+                maxY = grow(maxY, capacity);
+
+                RigidBody[] tmp = new RigidBody[capacity];
+                System.arraycopy(bodies, 0, tmp, 0, proxyEnd);
+                bodies = tmp;
+            }
+
+            proxy = proxyEnd++;
+        }
+
+        bodies[proxy] = body;
+        moveProxy(proxy, aabb, 0, 0);
+
+        if(endCount + 2 > endValues.length) {
+            int capacity = endValues.length * 2;
+            endValues = grow(endValues, capacity);
+
+            int[] tmp = new int[capacity];
+            System.arraycopy(endData, 0, tmp, 0, endCount);
+            endData = tmp;
+        }
+
+        // The minimum must come before the maximum so the two are never swapped
+        endValues[endCount] = minX[proxy];
+        endData[endCount++] = proxy << 1;
+        endValues[endCount] = maxX[proxy];
+        endData[endCount++] = (proxy << 1) | 1;
+
+        proxyCount++;
+        return proxy;
+    }
+
+    public void destroyProxy(int proxyId) {
+        if(proxyId < 0 || proxyId >= proxyEnd || bodies[proxyId] == null)
+            throw new IllegalArgumentException("Error: " + proxyId + " is not a valid proxy");
+
+        // Remove the endpoints of the proxy while keeping the rest in order
+        int count = 0;
+        for(int i = 0; i < endCount; i++) {
+            if((endData[i] >> 1) == proxyId) continue;
+
+            endValues[count] = endValues[i];
+            endData[count] = endData[i];
+            count++;
+        }
+
+        endCount = count;
+
+        // Find any pairs the proxy was part of, removing shifts entries between slots so they are removed afterwards
+        int removedCount = 0;
+        for(int slot = 0; slot < pairs.capacity(); slot++) {
+            if(pairs.getValue(slot) == null) continue;
+
+            long key = pairs.getKey(slot);
+            if((int) (key >>> 32) != proxyId && (int) key != proxyId) continue;
+
+            if(removedCount == removedPairs.length) {
+                long[] tmp = new long[removedPairs.length * 2];
+                System.arraycopy(removedPairs, 0, tmp, 0, removedCount);
+                removedPairs = tmp;
+            }
+
+            removedPairs[removedCount++] = key;
+        }
+
+        for(int i = 0; i < removedCount; i++) {
+            pairs.remove(removedPairs[i]);
+        }
+
+        bodies[proxyId] = null;
+        proxyCount--;
+
+        if(freeCount == freeProxies.length) {
+            int[] tmp = new int[freeProxies.length * 2];
+            System.arraycopy(freeProxies, 0, tmp, 0, freeCount);
+            freeProxies = tmp;
+        }
+
+        freeProxies[freeCount++] = proxyId;
+    }
+
+    public void moveProxy(int proxyId, AABB aabb, float dx, float dy) {
+        minX[proxyId] = aabb.getMinX();
+        minY[proxyId] = aabb.getMinY();
+        maxX[proxyId] = aabb.getMaxX();
+        maxY[proxyId] = aabb.getMaxY();
+
+        endpointsDirty = true;
+    }
+
+    /**
+     * Re-sorts the endpoints if any proxy has changed, and then reports every pair which overlaps on both axes
+     * @param callback The callback to report the pairs to
+     */
+    public void updatePairs(PairCallback callback) {
+        if(endpointsDirty) sortEndpoints();
+
+        // Report all of the pairs overlapping on x which also overlap on y
+        for(int slot = 0; slot < pairs.capacity(); slot++) {
+            if(pairs.getValue(slot) == null) continue;
+
+            long key = pairs.getKey(slot);
+            int a = (int) (key >>> 32);
+            int b = (int) key;
+
+            if(minY[a] > maxY[b] || minY[b] > maxY[a]) continue;
+
+            callback.addPair(bodies[a], bodies[b]);
+        }
+    }
+
+    /**
+     * Reports every proxy whose bounds overlap the area given, only the endpoints which lie between the area and the
+     * widest proxy to its left are visited. The endpoints are sorted first if any proxy has changed
+     * @param lowerX The minimum x of the area
+     * @param lowerY The minimum y of the area
+     * @param upperX The maximum x of the area
+     * @param upperY The maximum y of the area
+     * @param callback The callback to report the bodies to
+     */
+    public void query(float lowerX, float lowerY, float upperX, float upperY, QueryCallback callback) {
+        if(endpointsDirty) sortEndpoints();
+
+        for(int i = findEndpoint(lowerX - maxWidth); i < endCount && endValues[i] <= upperX; i++) {
+            // Each proxy is tested once, from its minimum
+            if((endData[i] & 1) == 1) continue;
+
+            int proxy = endData[i] >> 1;
+            if(lowerX > maxX[proxy]) continue;
+            if(minY[proxy] > upperY || lowerY > maxY[proxy]) continue;
+
+            if(!callback.reportBody(bodies[proxy])) return;
+        }
+    }
+
+    /**
+     * Casts a ray through the broadphase in the same way as {@link #query}, using the range of the ray along the x
+     * axis as the area. Rays heading along the positive x axis stop early as the callback shortens them
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param endX The x coordinate the ray ends at
+     * @param endY The y coordinate the ray ends at
+     * @param maxFraction The fraction of the ray's length past which bodies are ignored
+     * @param callback The callback to report the bodies to
+     * @return The maximum fraction after the cast, 0 if the callback stopped the ray
+     */
+    public float rayCast(float startX, float startY, float endX, float endY, float maxFraction,
+                         RayCallback callback) {
+        if(endpointsDirty) sortEndpoints();
+
+        float dx = endX - startX;
+
+        float inverseDX = 1f / dx;
+        float inverseDY = 1f / (endY - startY);
+
+        float clipX = startX + (dx * maxFraction);
+        float lowerX = Math.min(startX, clipX);
+        float upperX = Math.max(startX, clipX);
+
+        for(int i = findEndpoint(lowerX - maxWidth); i < endCount && endValues[i] <= upperX; i++) {
+            if((endData[i] & 1) == 1) continue;
+
+            int proxy = endData[i] >> 1;
+            if(!AABB.testRay(minX[proxy], minY[proxy], maxX[proxy], maxY[proxy],
+                    startX, startY, inverseDX, inverseDY, maxFraction)) continue;
+
+            float value = callback.reportBody(bodies[proxy], maxFraction);
+            if(value == 0) return 0;
+
+            if(value < maxFraction) {
+                maxFraction = value;
+
+                // Proxies starting past the new end of the ray can no longer be hit
+                if(dx > 0) upperX = startX + (dx * maxFraction);
+            }
+        }
+
+        return maxFraction;
+    }
+
+    public int getProxyCount() { return proxyCount; }
+
+    /**
+     * Gets the number of pairs which currently overlap along the x axis
+     * @return The pair count
+     */
+    public int getPairCount() { return pairs.size(); }
+
+    /**
+     * Refreshes the endpoint values from the latest bounds and sorts them, updating the overlapping pairs as
+     * endpoints swap
+     */
+    private void sortEndpoints() {
+        maxWidth = 0;
+
+        // Refresh the endpoint values from the latest bounds
+        for(int i = 0; i < endCount; i++) {
+            int proxy = endData[i] >> 1;
+            endValues[i] = (endData[i] & 1) == 0 ? minX[proxy] : maxX[proxy];
+
+            // Measured in double precision so that the widest proxy is never underestimated
+            if((endData[i] & 1) == 1) maxWidth = Math.max(maxWidth, (double) maxX[proxy] - minX[proxy]);
+        }
+
+        // Insertion sort, almost linear as the endpoints were sorted last step
+        for(int i = 1; i < endCount; i++) {
+            float value = endValues[i];
+            int data = endData[i];
+
+            boolean isMax = (data & 1) == 1;
+
+            int j = i - 1;
+            while (j >= 0 && endValues[j] > value) {
+                int other = endData[j];
+                boolean otherMax = (other & 1) == 1;
+
+                if(!isMax && otherMax) {
+                    // A minimum moved below a maximum, the two now overlap
+                    pairs.put(pairKey(data >> 1, other >> 1), Boolean.TRUE);
+                }
+                else if(isMax && !otherMax) {
+                    // A maximum moved below a minimum, the two no longer overlap
+                    pairs.remove(pairKey(data >> 1, other >> 1));
+                }
+
+                endValues[j + 1] = endValues[j];
+                endData[j + 1] = other;
+                j--;
+            }
+
+            endValues[j + 1] = value;
+            endData[j + 1] = data;
+        }
+
+        endpointsDirty = false;
+    }
+
+    /**
+     * Finds the first endpoint whose value is not less than the value given
+     * @param value The value to search for
+     * @return The index of the endpoint, endCount if every endpoint is less than the value
+     */
+    private int findEndpoint(double value) {
+        int low = 0;
+        int high = endCount;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if(endValues[middle] < value) low = middle + 1;
+            else high = middle;
+        }
+
+        return low;
+    }
+
+    private static long pairKey(int a, int b) {
+        if(a > b) {
+            int tmp = a;
+            a = b;
+            b = tmp;
+        }
+
+        return ((long) a << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        float[] result = new float[capacity];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+}
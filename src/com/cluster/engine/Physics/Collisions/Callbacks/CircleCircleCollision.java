@@ -28,8 +28,6 @@ import com.cluster.engine.Physics.Shapes.Circle;
 import com.cluster.engine.Physics.Shapes.Shape;
 import com.cluster.engine.Physics.Transform;
 import com.cluster.engine.Utilities.MUtil;
-import com.cluster.engine.Utilities.VUtil;
-import org.jsfml.system.Vector2f;
 
 class CircleCircleCollision implements CollisionHandler {
 
@@ -41,20 +39,31 @@ class CircleCircleCollision implements CollisionHandler {
         Transform txA = manifold.a.getTransform();
         Transform txB = manifold.b.getTransform();
 
-        Vector2f pos = Vector2f.sub(txB.getPosition(), txA.getPosition());
-        float dist = VUtil.lengthSq(pos);
+        float dx = txB.getX() - txA.getX();
+        float dy = txB.getY() - txA.getY();
+        float dist = (dx * dx) + (dy * dy);
 
         float radiusSum = circleA.getRadius() + circleB.getRadius();
 
         if(dist <= radiusSum * radiusSum) {
+            float length = MUtil.sqrt(dist);
+
             manifold.collided = true;
-            manifold.normal = VUtil.normalise(pos);
-            manifold.overlap = radiusSum - MUtil.sqrt(dist);
+            if(length != 0) {
+                manifold.setNormal(dx / length, dy / length);
+            }
+            else {
+                manifold.setNormal(0, 1);
+            }
+
+            manifold.overlap = radiusSum - length;
+
+            // The contact point is on the surface of a, along the normal
+            manifold.addContactPoint(txA.getX() + (manifold.normal.x * circleA.getRadius()),
+                    txA.getY() + (manifold.normal.y * circleA.getRadius()), 0);
         }
         else {
-            manifold.collided = false;
-            manifold.normal = null;
-            manifold.overlap = 0;
+            CollisionUtil.setSeparated(manifold);
         }
     }
 }
@@ -24,19 +24,120 @@
 package com.cluster.engine.Physics.Collisions.Callbacks;
 
 import com.cluster.engine.Physics.Collisions.Manifold;
-import com.cluster.engine.Physics.Shapes.Circle;
-import com.cluster.engine.Physics.Shapes.Polygon;
+import com.cluster.engine.Physics.RigidBody;
 import com.cluster.engine.Physics.Shapes.Shape;
+import com.cluster.engine.Physics.Transform;
 
 class CirclePolygonCollision implements CollisionHandler {
 
+    /** Below this separation the centre of the circle is treated as being inside the polygon */
+    private static final float INSIDE_TOLERANCE = 0.0001f;
+
     public void handleCollision(Manifold manifold, Shape a, Shape b) {
-        // TODO(James): Implementation
-        System.out.println("Handling Circle-Polygon Collision");
+        collide(manifold, manifold.a, manifold.b, false);
+    }
+
+    /**
+     * Tests a circle against a polygon by finding the feature of the polygon closest to the centre of the circle,
+     * an edge or one of its vertices, rather than iterating with GJK
+     * @param manifold The manifold to hold information about the collision
+     * @param circle The body with the circle shape
+     * @param polygon The body with the polygon shape
+     * @param flip Whether the polygon is a in the manifold, the normal always points from a to b
+     */
+    static void collide(Manifold manifold, RigidBody circle, RigidBody polygon, boolean flip) {
+        Transform tx = circle.getTransform();
+        float cx = tx.getX();
+        float cy = tx.getY();
+        float radius = circle.getShape().getRadius();
+
+        float[] vx = polygon.getVertexX();
+        float[] vy = polygon.getVertexY();
+        float[] nx = polygon.getNormalX();
+        float[] ny = polygon.getNormalY();
+        int count = vx.length;
+
+        // Find the edge the centre is farthest in front of
+        int edge = 0;
+        float separation = -Float.MAX_VALUE;
+        for(int i = 0; i < count; i++) {
+            float s = (nx[i] * (cx - vx[i])) + (ny[i] * (cy - vy[i]));
+            if(s > radius) {
+                CollisionUtil.setSeparated(manifold);
+                return;
+            }
+
+            if(s > separation) {
+                separation = s;
+                edge = i;
+            }
+        }
+
+        int next = edge + 1 == count ? 0 : edge + 1;
+
+        float v1x = vx[edge], v1y = vy[edge];
+        float v2x = vx[next], v2y = vy[next];
+
+        // The normal from the polygon to the circle, and the feature of the polygon it came from
+        float normalX, normalY;
+        float overlap;
+        int feature;
+
+        if(separation < INSIDE_TOLERANCE) {
+            // The centre is inside the polygon so push out through the closest edge
+            normalX = nx[edge];
+            normalY = ny[edge];
+            overlap = radius - separation;
+            feature = edge << 1;
+        }
+        else {
+            float u1 = ((cx - v1x) * (v2x - v1x)) + ((cy - v1y) * (v2y - v1y));
+            float u2 = ((cx - v2x) * (v1x - v2x)) + ((cy - v2y) * (v1y - v2y));
+
+            if(u1 <= 0 || u2 <= 0) {
+                // The centre is beyond one end of the edge so the closest feature is that vertex
+                int vertex = u1 <= 0 ? edge : next;
+
+                float dx = cx - vx[vertex];
+                float dy = cy - vy[vertex];
+                float distSq = (dx * dx) + (dy * dy);
+
+                if(distSq > radius * radius) {
+                    CollisionUtil.setSeparated(manifold);
+                    return;
+                }
+
+                float dist = (float) Math.sqrt(distSq);
+                if(dist == 0) {
+                    normalX = nx[edge];
+                    normalY = ny[edge];
+                }
+                else {
+                    normalX = dx / dist;
+                    normalY = dy / dist;
+                }
+
+                overlap = radius - dist;
+                feature = (vertex << 1) | 1;
+            }
+            else {
+                normalX = nx[edge];
+                normalY = ny[edge];
+                overlap = radius - separation;
+                feature = edge << 1;
+            }
+        }
 
-        Circle circle = (Circle) a;
-        Polygon polygon = (Polygon) b;
+        manifold.collided = true;
+        if(flip) {
+            manifold.setNormal(normalX, normalY);
+        }
+        else {
+            manifold.setNormal(-normalX, -normalY);
+        }
+        manifold.overlap = overlap;
 
-        throw new IllegalStateException("Error: Not Yet Implemented!");
+        // The contact point is the deepest point of the circle
+        manifold.addContactPoint(cx - (normalX * radius), cy - (normalY * radius), feature);
     }
 }
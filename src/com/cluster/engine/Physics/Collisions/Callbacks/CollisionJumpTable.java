@@ -25,8 +25,28 @@ package com.cluster.engine.Physics.Collisions.Callbacks;
 
 public final class CollisionJumpTable {
 
+    /** The algorithms which can be used for the polygon against polygon narrow phase */
+    public enum PolygonMethod {
+        /** GJK to find the overlap followed by EPA to find the penetration, the default */
+        GJK,
+        /** The separating axis theorem, testing the edge normals of both polygons */
+        SAT
+    }
+
+    private static final CollisionHandler POLYGON_GJK = new PolygonPolygonCollision();
+    private static final CollisionHandler POLYGON_SAT = new PolygonPolygonSatCollision();
+
     public static final CollisionHandler[][] handlers = new CollisionHandler[][] {
-            { new PolygonPolygonCollision(), new PolygonCircleCollision() },
+            { POLYGON_GJK, new PolygonCircleCollision() },
             { new CirclePolygonCollision(), new CircleCircleCollision() }
     };
+
+    /**
+     * Sets the algorithm used to test polygons against each other, this applies to every world and should not be
+     * changed while a world is updating
+     * @param method The algorithm to use
+     */
+    public static void setPolygonMethod(PolygonMethod method) {
+        handlers[0][0] = method == PolygonMethod.SAT ? POLYGON_SAT : POLYGON_GJK;
+    }
 }
@@ -0,0 +1,83 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions.Callbacks;
+
+import com.cluster.engine.Physics.Collisions.Manifold;
+
+/**
+ * Helpers shared by the narrow phase collision handlers
+ */
+final class CollisionUtil {
+
+    // Private constructor
+    private CollisionUtil() {}
+
+    /**
+     * Marks the manifold as not colliding
+     * @param manifold The manifold of the pair
+     */
+    static void setSeparated(Manifold manifold) {
+        manifold.collided = false;
+        manifold.hasNormal = false;
+        manifold.overlap = 0;
+    }
+
+    /**
+     * Clips the points given to the half space defined by the normal and offset, points behind the plane are
+     * removed and the segment between them is cut at the plane
+     * @param px The x coordinates of the two points of the segment to clip, these are modified in place
+     * @param py The y coordinates of the two points of the segment to clip, these are modified in place
+     * @param nx The x component of the normal of the clipping plane
+     * @param ny The y component of the normal of the clipping plane
+     * @param offset The distance of the plane along the normal
+     * @return The number of points which are left
+     */
+    static int clip(float[] px, float[] py, float nx, float ny, float offset) {
+        float v1x = px[0], v1y = py[0];
+        float v2x = px[1], v2y = py[1];
+
+        float d1 = ((nx * v1x) + (ny * v1y)) - offset;
+        float d2 = ((nx * v2x) + (ny * v2y)) - offset;
+
+        int result = 0;
+        if(d1 >= 0) {
+            px[result] = v1x;
+            py[result++] = v1y;
+        }
+        if(d2 >= 0) {
+            px[result] = v2x;
+            py[result++] = v2y;
+        }
+
+        // The points are on opposite sides of the plane so add the intersection
+        if(d1 * d2 < 0) {
+            float u = d1 / (d1 - d2);
+
+            px[result] = v1x + ((v2x - v1x) * u);
+            py[result++] = v1y + ((v2y - v1y) * u);
+        }
+
+        return result;
+    }
+}
@@ -32,12 +32,9 @@ class PolygonCircleCollision implements CollisionHandler {
 
         /*
          * This test is exactly the same as Circle-Polygon, all that needs
-         * to be done is reversing the shapes and calling the other handler
+         * to be done is reversing the bodies and flipping the normal
          */
 
-        int ia = a.getType().index;
-        int ib = b.getType().index;
-
-        CollisionJumpTable.handlers[ib][ia].handleCollision(manifold, b, a);
+        CirclePolygonCollision.collide(manifold, manifold.b, manifold.a, true);
     }
 }
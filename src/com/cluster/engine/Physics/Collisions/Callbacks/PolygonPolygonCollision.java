@@ -24,49 +24,69 @@
 package com.cluster.engine.Physics.Collisions.Callbacks;
 
 import com.cluster.engine.Physics.Collisions.Manifold;
-import com.cluster.engine.Physics.Shapes.Polygon;
+import com.cluster.engine.Physics.RigidBody;
 import com.cluster.engine.Physics.Shapes.Shape;
 import com.cluster.engine.Physics.Transform;
+import com.cluster.engine.Physics.World;
 import com.cluster.engine.Utilities.MUtil;
-import com.cluster.engine.Utilities.VUtil;
-import org.jsfml.system.Vector2f;
+import com.cluster.engine.Utilities.Vec2;
 
 class PolygonPolygonCollision implements CollisionHandler {
 
     /**
-     * a helper class to store the vertices
+     * a helper class to store a polygon edge in world space for contact point generation
      */
-    public static class Simplex {
-        public Vector2f[] vertices;
-        public int vertexCount;
-
-        public Vector2f direction;
-
-        public Simplex() {
-            vertices = new Vector2f[3];
-            vertexCount = 0;
-
-            direction = null;
-        }
+    private static class ContactEdge {
+        float startX, startY;
+        float endX, endY;
+        float directionX, directionY;
+        int index;
     }
 
     /**
-     * a helper class to store an edge representation for EPA
+     * The working memory for a single collision test, this is kept per thread as the narrow phase can run on
+     * several threads at once and is reused between tests so that nothing is allocated
      */
-    public static class Edge {
-        public Vector2f normal;
-        public int index;
-        public float distance;
-
-        public Edge() {
-            normal = null;
-            index = 0;
-            distance = Float.MAX_VALUE;
+    private static class Scratch {
+        // The GJK simplex followed by the EPA polytope, the polytope grows by at most one vertex per iteration
+        float[] x = new float[3 + DEFAULT_ITERATIONS];
+        float[] y = new float[3 + DEFAULT_ITERATIONS];
+        int count;
+
+        // The current search direction
+        float directionX, directionY;
+
+        // The closest polytope edge found by EPA
+        float edgeNormalX, edgeNormalY;
+        float edgeDistance;
+        int edgeIndex;
+
+        final Vec2 pointA = new Vec2();
+        final Vec2 pointB = new Vec2();
+
+        final ContactEdge edgeA = new ContactEdge();
+        final ContactEdge edgeB = new ContactEdge();
+
+        // The incident edge while it is being clipped
+        final float[] clipX = new float[2];
+        final float[] clipY = new float[2];
+
+        /**
+         * Makes sure the polytope can hold the vertices added by the number of EPA iterations given
+         * @param epaIterations The maximum number of EPA iterations
+         */
+        void ensureCapacity(int epaIterations) {
+            if(x.length >= 3 + epaIterations) return;
+
+            x = new float[3 + epaIterations];
+            y = new float[3 + epaIterations];
         }
     }
 
-    // TODO(James): Maybe this can go elsewhere and be modifiable
-    static final int MAX_ITERATIONS = 30;
+    /** The number of GJK and EPA iterations used when the bodies do not belong to a world */
+    private static final int DEFAULT_ITERATIONS = 30;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
 
     /**
      * Performs narrow-phase GJK collision detection for two convex polygons
@@ -76,144 +96,199 @@ class PolygonPolygonCollision implements CollisionHandler {
      */
     public void handleCollision(Manifold manifold, Shape a, Shape b) {
 
-        Polygon polygonA = (Polygon) a;
-        Polygon polygonB = (Polygon) b;
-
-        Transform txA = manifold.a.getTransform();
-        Transform txB = manifold.b.getTransform();
-
-        Simplex simplex = new Simplex();
+        // The polygons are read from the world space vertices kept by the bodies
+        RigidBody bodyA = manifold.a;
+        RigidBody bodyB = manifold.b;
 
-        simplex.direction = Vector2f.sub(txB.getPosition(), txA.getPosition());
+        Transform txA = bodyA.getTransform();
+        Transform txB = bodyB.getTransform();
 
+        Scratch s = SCRATCH.get();
 
-        Vector2f pA = support(polygonA,
-                txA.applyRotation(simplex.direction));
+        // The iteration limits are set per world through its configuration
+        World world = bodyA.getWorld();
+        int gjkIterations = world != null ? world.getGjkIterations() : DEFAULT_ITERATIONS;
+        int epaIterations = world != null ? world.getEpaIterations() : DEFAULT_ITERATIONS;
 
-        pA = txA.apply(pA);
+        s.ensureCapacity(epaIterations);
 
-        Vector2f pB = support(polygonB,
-                txB.applyRotation(Vector2f.neg(simplex.direction)));
+        // Bodies barely move between steps, so the direction which separated them last time will usually
+        // still separate them and a single support point is enough to prove it
+        if(manifold.hasSeparatingAxis) {
+            s.count = 0;
+            s.directionX = manifold.separatingX;
+            s.directionY = manifold.separatingY;
 
-        pB = txB.apply(pB);
-
-        simplex.vertices[simplex.vertexCount] = Vector2f.sub(pA, pB);
-        simplex.vertexCount++;
+            if(!addSupport(s, bodyA, bodyB)) {
+                setSeparated(manifold, s);
+                return;
+            }
+        }
 
+        s.count = 0;
 
-        if(VUtil.dot(simplex.vertices[0], simplex.direction) < 0) {
-            manifold.collided = false;
-            manifold.normal = null;
-            manifold.overlap = 0;
+        s.directionX = txB.getX() - txA.getX();
+        s.directionY = txB.getY() - txA.getY();
 
+        if(!addSupport(s, bodyA, bodyB)) {
+            setSeparated(manifold, s);
             return;
         }
 
-        simplex.direction = Vector2f.neg(simplex.direction);
-
-        for(int iter = 0; iter < MAX_ITERATIONS; iter++) {
-            pA = support(polygonA, txA.applyRotation(simplex.direction));
-            pA = txA.apply(pA);
-
-            pB = support(polygonB, txB.applyRotation(Vector2f.neg(simplex.direction)));
-            pB = txB.apply(pB);
-
-            simplex.vertices[simplex.vertexCount] = Vector2f.sub(pA, pB);
-            simplex.vertexCount++;
-
-            if(VUtil.dot(simplex.vertices[simplex.vertexCount - 1],
-                    simplex.direction) < 0) {
-
-                manifold.collided = false;
-                manifold.normal = null;
-                manifold.overlap = 0;
+        s.directionX = -s.directionX;
+        s.directionY = -s.directionY;
 
+        for(int iter = 0; iter < gjkIterations; iter++) {
+            if(!addSupport(s, bodyA, bodyB)) {
+                setSeparated(manifold, s);
                 return;
             }
             else {
-                if(contains(simplex)) {
+                if(contains(s)) {
                     manifold.collided = true;
-                    handleEPA(manifold, simplex, polygonA, polygonB);
+                    manifold.hasSeparatingAxis = false;
+                    handleEPA(manifold, s, bodyA, bodyB, epaIterations);
+
+                    if(manifold.collided && manifold.hasNormal) {
+                        findContactPoints(manifold, s, bodyA, bodyB);
+                    }
+
                     return;
                 }
             }
         }
     }
 
+    /**
+     * Marks the manifold as not colliding and remembers the current direction, which separates the polygons,
+     * so the next test for the pair can start from it
+     * @param manifold The manifold of the pair
+     * @param s The scratch memory holding the separating direction
+     */
+    private void setSeparated(Manifold manifold, Scratch s) {
+        CollisionUtil.setSeparated(manifold);
+
+        manifold.separatingX = s.directionX;
+        manifold.separatingY = s.directionY;
+        manifold.hasSeparatingAxis = true;
+    }
+
+    /**
+     * Adds the support point of the Minkowski difference in the current direction to the simplex
+     * @param s The scratch memory holding the simplex and direction
+     * @return False if the new point did not pass the origin, meaning the polygons are separated
+     */
+    private boolean addSupport(Scratch s, RigidBody a, RigidBody b) {
+        support(a, s.directionX, s.directionY, s.pointA);
+        support(b, -s.directionX, -s.directionY, s.pointB);
+
+        float px = s.pointA.x - s.pointB.x;
+        float py = s.pointA.y - s.pointB.y;
+
+        s.x[s.count] = px;
+        s.y[s.count] = py;
+        s.count++;
+
+        return !((px * s.directionX) + (py * s.directionY) < 0);
+    }
+
     /**
      * The support method for GJK, gets the farthest point on a polygon in the given direction
-     * @param polygon The polygon which is part of the detection
-     * @param direction The direction to search in
-     * @return The farthest vertex along the given direction
+     * @param body The body whose polygon is part of the detection
+     * @param directionX The x component of the direction to search in, in world space
+     * @param directionY The y component of the direction to search in, in world space
+     * @param out The vector to write the farthest vertex to, in world space
      */
-    private Vector2f support(Polygon polygon, Vector2f direction) {
+    private void support(RigidBody body, float directionX, float directionY, Vec2 out) {
+        int index = farthestVertex(body, directionX, directionY);
+        out.set(body.getVertexX()[index], body.getVertexY()[index]);
+    }
 
-        Vector2f[] vertices = polygon.getVertices();
-        int count = polygon.getVertexCount();
+    /**
+     * Finds the vertex of the polygon which is farthest along the given direction
+     * @param body The body whose polygon should be searched
+     * @param directionX The x component of the direction, in world space
+     * @param directionY The y component of the direction, in world space
+     * @return The index of the farthest vertex
+     */
+    private int farthestVertex(RigidBody body, float directionX, float directionY) {
+        float[] x = body.getVertexX();
+        float[] y = body.getVertexY();
 
-        float max = VUtil.dot(vertices[0], direction);
+        float max = (x[0] * directionX) + (y[0] * directionY);
         int bestIndex = 0;
 
-        for(int i = 1; i < count; i++) {
-            float distance = VUtil.dot(vertices[i], direction);
+        for(int i = 1; i < x.length; i++) {
+            float distance = (x[i] * directionX) + (y[i] * directionY);
             if(distance > max) {
                 max = distance;
                 bestIndex = i;
             }
         }
 
-        return vertices[bestIndex];
+        return bestIndex;
     }
 
     /**
      * Works out if the simplex contains the origin or not, if not augments the vertices and changes direction
-     * @param simplex The simplex created by GJK
+     * @param s The scratch memory holding the simplex created by GJK
      * @return True if the origin is contained within the vertices, otherwise False
      */
-    private boolean contains(Simplex simplex) {
-
-        Vector2f a = simplex.vertices[simplex.vertexCount - 1];
-        Vector2f ao = Vector2f.neg(a);
-
-        if(simplex.vertexCount == 3) {
-            Vector2f b = simplex.vertices[1];
-            Vector2f c = simplex.vertices[0];
-
-            Vector2f ab = Vector2f.sub(b, c);
-            Vector2f ac = Vector2f.sub(c, a);
-
-            if(VUtil.dot(VUtil.tripleCross(ab, ac, ac), ao) > 0) {
-                if(VUtil.dot(ac, ao) > 0) {
-                    simplex.vertices[1] = a;
-                    simplex.vertexCount--;
-                    simplex.direction = VUtil.tripleCross(ac, ao, ac);
+    private boolean contains(Scratch s) {
+
+        float ax = s.x[s.count - 1];
+        float ay = s.y[s.count - 1];
+        float aox = -ax;
+        float aoy = -ay;
+
+        if(s.count == 3) {
+            float bx = s.x[1], by = s.y[1];
+            float cx = s.x[0], cy = s.y[0];
+
+            float abx = bx - cx, aby = by - cy;
+            float acx = cx - ax, acy = cy - ay;
+
+            if(tripleCrossDot(abx, aby, acx, acy, acx, acy, aox, aoy) > 0) {
+                if((acx * aox) + (acy * aoy) > 0) {
+                    s.x[1] = ax;
+                    s.y[1] = ay;
+                    s.count--;
+                    setTripleCross(s, acx, acy, aox, aoy, acx, acy);
                 }
                 else {
-                    if(VUtil.dot(ab, ao) > 0) {
-                        simplex.vertices[0] = b;
-                        simplex.vertices[1] = a;
-                        simplex.vertexCount--;
-                        simplex.direction = VUtil.tripleCross(ab, ao, ab);
+                    if((abx * aox) + (aby * aoy) > 0) {
+                        s.x[0] = bx;
+                        s.y[0] = by;
+                        s.x[1] = ax;
+                        s.y[1] = ay;
+                        s.count--;
+                        setTripleCross(s, abx, aby, aox, aoy, abx, aby);
                     }
                     else {
-                        simplex.vertices[0] = a;
-                        simplex.vertexCount = 1;
-                        simplex.direction = ao;
+                        s.x[0] = ax;
+                        s.y[0] = ay;
+                        s.count = 1;
+                        s.directionX = aox;
+                        s.directionY = aoy;
                     }
                 }
             }
             else {
-                if(VUtil.dot(VUtil.tripleCross(ab, ab, ac), ao) > 0) {
-                    if(VUtil.dot(ab, ao) > 0) {
-                        simplex.vertices[0] = b;
-                        simplex.vertices[1] = a;
-                        simplex.vertexCount--;
-                        simplex.direction = VUtil.tripleCross(ab, ao, ab);
+                if(tripleCrossDot(abx, aby, abx, aby, acx, acy, aox, aoy) > 0) {
+                    if((abx * aox) + (aby * aoy) > 0) {
+                        s.x[0] = bx;
+                        s.y[0] = by;
+                        s.x[1] = ax;
+                        s.y[1] = ay;
+                        s.count--;
+                        setTripleCross(s, abx, aby, aox, aoy, abx, aby);
                     }
                     else {
-                        simplex.vertices[0] = a;
-                        simplex.vertexCount = 1;
-                        simplex.direction = ao;
+                        s.x[0] = ax;
+                        s.y[0] = ay;
+                        s.count = 1;
+                        s.directionX = aox;
+                        s.directionY = aoy;
                     }
                 }
                 else {
@@ -223,111 +298,278 @@ class PolygonPolygonCollision implements CollisionHandler {
             }
         }
         else {
-            Vector2f b = simplex.vertices[0];
-            Vector2f ab = Vector2f.sub(b, a);
+            float abx = s.x[0] - ax;
+            float aby = s.y[0] - ay;
 
-            if(VUtil.dot(ab, ao) > 0) {
-                simplex.direction = VUtil.tripleCross(ab, ao, ab);
+            if((abx * aox) + (aby * aoy) > 0) {
+                setTripleCross(s, abx, aby, aox, aoy, abx, aby);
             }
             else {
-                simplex.vertices[0] = a;
-                simplex.vertexCount = 1;
-                simplex.direction = ao;
+                s.x[0] = ax;
+                s.y[0] = ay;
+                s.count = 1;
+                s.directionX = aox;
+                s.directionY = aoy;
             }
         }
 
         return false;
     }
 
+    /**
+     * Sets the search direction to the triple cross product (a x b) x c
+     */
+    private void setTripleCross(Scratch s, float ax, float ay, float bx, float by, float cx, float cy) {
+        float ac = (ax * cx) + (ay * cy);
+        float bc = (bx * cx) + (by * cy);
+
+        s.directionX = bx * ac - ax * bc;
+        s.directionY = by * ac - ay * bc;
+    }
+
+    /**
+     * Calculates the dot product of the triple cross product (a x b) x c with d
+     */
+    private float tripleCrossDot(float ax, float ay, float bx, float by, float cx, float cy, float dx, float dy) {
+        float ac = (ax * cx) + (ay * cy);
+        float bc = (bx * cx) + (by * cy);
+
+        return ((bx * ac - ax * bc) * dx) + ((by * ac - ay * bc) * dy);
+    }
+
     /**
      * Perform EPA to find the MTV and penetration distance
      * @param manifold The manifold to store the calculated information
-     * @param simplex The simplex created by GJK
+     * @param s The scratch memory holding the simplex created by GJK
+     * @param iterations The maximum number of vertices to add to the polytope
      */
-    private void handleEPA(Manifold manifold, Simplex simplex, Polygon a, Polygon b) {
-
-        Transform txA = manifold.a.getTransform();
-        Transform txB = manifold.b.getTransform();
+    private void handleEPA(Manifold manifold, Scratch s, RigidBody a, RigidBody b, int iterations) {
 
-        for(int iter = 0; iter < MAX_ITERATIONS; iter++) {
+        for(int iter = 0; iter < iterations; iter++) {
 
-            Edge edge = getClosestEdge(simplex);
-            if(edge.normal.equals(Vector2f.ZERO)) {
+            // Either every edge is degenerate or the closest one is, there is nothing sensible to push along
+            if(!findClosestEdge(s) || (s.edgeNormalX == 0 && s.edgeNormalY == 0)) {
                 manifold.collided = false;
                 return;
             }
 
-            Vector2f pA = support(a, edge.normal);
-            pA = txA.apply(pA);
+            float nx = s.edgeNormalX;
+            float ny = s.edgeNormalY;
 
-            Vector2f pB = support(b, Vector2f.neg(edge.normal));
-            pB = txB.apply(pB);
+            support(a, nx, ny, s.pointA);
+            support(b, -nx, -ny, s.pointB);
 
-            Vector2f p = Vector2f.sub(pA, pB);
+            float px = s.pointA.x - s.pointB.x;
+            float py = s.pointA.y - s.pointB.y;
 
-            float dist = VUtil.dot(p, edge.normal);
+            float dist = (px * nx) + (py * ny);
             if(MUtil.isZero(dist)) {
-                manifold.collided = false;
-                manifold.normal = null;
-                manifold.overlap = 0;
+                CollisionUtil.setSeparated(manifold);
                 return;
             }
 
-            if(MUtil.isZero(dist - edge.distance, 0.00001f)) {
-                manifold.normal = edge.normal;
+            if(MUtil.isZero(dist - s.edgeDistance, 0.00001f)) {
+                manifold.setNormal(nx, ny);
                 manifold.overlap = dist;
                 return;
             }
             else {
-                Vector2f[] tmp = simplex.vertices;
-                simplex.vertices = new Vector2f[++simplex.vertexCount];
+                // Insert the new point between the vertices of the closest edge
+                int index = s.edgeIndex;
+                System.arraycopy(s.x, index, s.x, index + 1, s.count - index);
+                System.arraycopy(s.y, index, s.y, index + 1, s.count - index);
+
+                s.x[index] = px;
+                s.y[index] = py;
+                s.count++;
+            }
+        }
+    }
 
-                for(int i = 0; i < simplex.vertexCount; i++) {
-                    if(i == edge.index) {
-                        simplex.vertices[i] = p;
-                    }
-                    else if(i > edge.index) {
-                        simplex.vertices[i] = tmp[i - 1];
-                    }
-                    else {
-                        simplex.vertices[i] = tmp[i];
-                    }
-                }
+    /**
+     * Finds the edge of the polytope which is closest to the origin, the result is stored in the scratch memory
+     * @param s The scratch memory holding the polytope
+     * @return True if an edge was found, False if every edge is degenerate
+     */
+    private boolean findClosestEdge(Scratch s) {
+        boolean found = false;
+        s.edgeDistance = Float.MAX_VALUE;
+
+        for(int i = 0; i < s.count; i++) {
+
+            int j = i + 1 == s.count ? 0 : i + 1;
+
+            float ax = s.x[i], ay = s.y[i];
+            float bx = s.x[j], by = s.y[j];
+
+            if(ax == bx && ay == by) continue;
+
+            float nx = by - ay;
+            float ny = -(bx - ax);
+
+            float len = (float) Math.sqrt((nx * nx) + (ny * ny));
+            if(len != 0) {
+                nx = nx / len;
+                ny = ny / len;
+            }
+            else {
+                nx = 0;
+                ny = 0;
+            }
+
+            float d = (nx * ax) + (ny * ay);
+            if(d < s.edgeDistance) {
+                s.edgeNormalX = nx;
+                s.edgeNormalY = ny;
+                s.edgeIndex = j;
+                s.edgeDistance = d;
+                found = true;
             }
         }
+
+        return found;
     }
 
     /**
-     * Finds the edge of the simplex which is closest to the bounding area of the Minkowski sum
-     * @param simplex The simplex created by GJK
-     * @return The edge which is closest to the bounding area
+     * Generates the contact points of the collision by clipping the incident edge against the reference edge<br>
+     * The reference edge is whichever of the two edges most facing the other polygon is more perpendicular to
+     * the collision normal
+     * @param manifold The manifold to add the contact points to
+     * @param s The scratch memory to use
+     * @param a The body of the first polygon in the collision
+     * @param b The body of the second polygon in the collision
      */
-    private Edge getClosestEdge(Simplex simplex) {
-        Edge result = new Edge();
+    private void findContactPoints(Manifold manifold, Scratch s, RigidBody a, RigidBody b) {
+        float nx = manifold.normal.x;
+        float ny = manifold.normal.y;
+
+        ContactEdge edgeA = getBestEdge(a, nx, ny, s, s.edgeA);
+        ContactEdge edgeB = getBestEdge(b, -nx, -ny, s, s.edgeB);
+
+        ContactEdge reference;
+        ContactEdge incident;
+        boolean flip;
+
+        if(Math.abs((edgeA.directionX * nx) + (edgeA.directionY * ny))
+                <= Math.abs((edgeB.directionX * nx) + (edgeB.directionY * ny))) {
+            reference = edgeA;
+            incident = edgeB;
+            flip = false;
+        }
+        else {
+            reference = edgeB;
+            incident = edgeA;
+            flip = true;
+        }
 
-        for(int i = 0; i < simplex.vertexCount; i++) {
+        float dx = reference.directionX;
+        float dy = reference.directionY;
 
-            int j = i + 1 == simplex.vertexCount ? 0 : i + 1;
+        // Clip the incident edge to the side planes of the reference edge
+        float[] px = s.clipX;
+        float[] py = s.clipY;
 
-            Vector2f a = simplex.vertices[i];
-            Vector2f b = simplex.vertices[j];
+        px[0] = incident.startX;
+        py[0] = incident.startY;
+        px[1] = incident.endX;
+        py[1] = incident.endY;
 
-            if(a.equals(b)) continue;
+        if(CollisionUtil.clip(px, py, dx, dy, (dx * reference.startX) + (dy * reference.startY)) < 2) return;
+        if(CollisionUtil.clip(px, py, -dx, -dy, -((dx * reference.endX) + (dy * reference.endY))) < 2) return;
 
-            Vector2f e = Vector2f.sub(b, a);
+        // The face normal of the reference edge, pointing towards the incident polygon
+        float rnx = dy;
+        float rny = -dx;
 
-            Vector2f norm = new Vector2f(e.y, -e.x);
-            norm = VUtil.normalise(norm);
+        float facing = flip ? (rnx * -nx) + (rny * -ny) : (rnx * nx) + (rny * ny);
+        if(facing < 0) {
+            rnx = -rnx;
+            rny = -rny;
+        }
 
+        float max = (rnx * reference.startX) + (rny * reference.startY);
 
-            float d = VUtil.dot(norm, a);
-            if(d < result.distance) {
-                result.normal = norm;
-                result.index = j;
-                result.distance = d;
-            }
+        // Only keep the points which are behind the reference face
+        for(int i = 0; i < 2; i++) {
+            float depth = max - ((rnx * px[i]) + (rny * py[i]));
+            if(depth < 0) continue;
+
+            int id = (flip ? 1 : 0) | (reference.index << 1) | (incident.index << 9) | (i << 17);
+            manifold.addContactPoint(px[i], py[i], id);
         }
+    }
+
+    /**
+     * Finds the edge of the polygon which is most perpendicular to the direction given, out of the two edges
+     * which share the farthest vertex along that direction
+     * @param body The body whose polygon the edge should be found on
+     * @param directionX The x component of the direction to search in, in world space
+     * @param directionY The y component of the direction to search in, in world space
+     * @param s The scratch memory to use
+     * @param result The edge to write the result to
+     * @return The best edge, in world space
+     */
+    private ContactEdge getBestEdge(RigidBody body, float directionX, float directionY, Scratch s,
+                                    ContactEdge result) {
+
+        float[] x = body.getVertexX();
+        float[] y = body.getVertexY();
+        int count = x.length;
+
+        int index = farthestVertex(body, directionX, directionY);
+        int prev = index == 0 ? count - 1 : index - 1;
+        int next = index + 1 == count ? 0 : index + 1;
+
+        float vx = x[index], vy = y[index];
+        float v0x = x[prev], v0y = y[prev];
+        float v1x = x[next], v1y = y[next];
+
+        s.pointA.set(vx - v1x, vy - v1y);
+        s.pointB.set(vx - v0x, vy - v0y);
+        normalise(s.pointA);
+        normalise(s.pointB);
+
+        float left = Math.abs((s.pointA.x * directionX) + (s.pointA.y * directionY));
+        float right = Math.abs((s.pointB.x * directionX) + (s.pointB.y * directionY));
+
+        if(right <= left) {
+            result.startX = v0x;
+            result.startY = v0y;
+            result.endX = vx;
+            result.endY = vy;
+            result.index = prev;
+
+            s.pointA.set(vx - v0x, vy - v0y);
+        }
+        else {
+            result.startX = vx;
+            result.startY = vy;
+            result.endX = v1x;
+            result.endY = v1y;
+            result.index = index;
+
+            s.pointA.set(v1x - vx, v1y - vy);
+        }
+
+        normalise(s.pointA);
+        result.directionX = s.pointA.x;
+        result.directionY = s.pointA.y;
 
         return result;
     }
+
+    /**
+     * Normalises the vector in place, a zero length vector is left as zero
+     * @param v The vector to normalise
+     */
+    private void normalise(Vec2 v) {
+        float len = (float) Math.sqrt((v.x * v.x) + (v.y * v.y));
+
+        if(len != 0) {
+            v.set(v.x / len, v.y / len);
+        }
+        else {
+            v.setZero();
+        }
+    }
 }
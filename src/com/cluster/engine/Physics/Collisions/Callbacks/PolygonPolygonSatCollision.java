@@ -0,0 +1,248 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions.Callbacks;
+
+import com.cluster.engine.Physics.Collisions.Manifold;
+import com.cluster.engine.Physics.RigidBody;
+import com.cluster.engine.Physics.Shapes.Polygon;
+import com.cluster.engine.Physics.Shapes.Shape;
+
+/**
+ * Narrow-phase collision detection for two convex polygons using the separating axis theorem<br>
+ * As polygons are limited to {@link Polygon#MAX_VERTICES} vertices testing every edge normal is cheap, and the
+ * axis of least penetration gives the reference edge for the contact points directly
+ */
+class PolygonPolygonSatCollision implements CollisionHandler {
+
+    /**
+     * The working memory for a single collision test, kept per thread as the narrow phase can run on several
+     * threads at once
+     */
+    private static class Scratch {
+        // The edge found by the last call to findMaxSeparation
+        int edge;
+
+        // The incident edge while it is being clipped
+        final float[] clipX = new float[2];
+        final float[] clipY = new float[2];
+    }
+
+    /** Stops the reference edge flipping between the polygons when both give almost the same separation */
+    private static final float RELATIVE_TOLERANCE = 0.98f;
+    private static final float ABSOLUTE_TOLERANCE = 0.001f;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Performs narrow-phase SAT collision detection for two convex polygons
+     * @param manifold The manifold to hold information about the collision
+     * @param a The first shape to test for collision
+     * @param b The second shape to test for collision
+     */
+    public void handleCollision(Manifold manifold, Shape a, Shape b) {
+
+        Scratch s = SCRATCH.get();
+
+        // The polygons are read from the world space vertices and normals kept by the bodies
+        RigidBody bodyA = manifold.a;
+        RigidBody bodyB = manifold.b;
+
+        float[] vertexAX = bodyA.getVertexX(), vertexAY = bodyA.getVertexY();
+        float[] normalAX = bodyA.getNormalX(), normalAY = bodyA.getNormalY();
+        float[] vertexBX = bodyB.getVertexX(), vertexBY = bodyB.getVertexY();
+        float[] normalBX = bodyB.getNormalX(), normalBY = bodyB.getNormalY();
+
+        int countA = vertexAX.length;
+        int countB = vertexBX.length;
+
+        // The axis which separated the pair last step will usually still separate it
+        if(manifold.referenceEdge >= 0) {
+            int edge = manifold.referenceEdge >> 1;
+            float separation;
+
+            if((manifold.referenceEdge & 1) == 0) {
+                separation = edgeSeparation(edge, vertexAX, vertexAY, normalAX, normalAY,
+                        vertexBX, vertexBY, countB);
+            }
+            else {
+                separation = edgeSeparation(edge, vertexBX, vertexBY, normalBX, normalBY,
+                        vertexAX, vertexAY, countA);
+            }
+
+            if(separation > 0) {
+                CollisionUtil.setSeparated(manifold);
+                return;
+            }
+        }
+
+        float separationA = findMaxSeparation(s, vertexAX, vertexAY, normalAX, normalAY, countA,
+                vertexBX, vertexBY, countB);
+        int edgeA = s.edge;
+
+        if(separationA > 0) {
+            manifold.referenceEdge = edgeA << 1;
+            CollisionUtil.setSeparated(manifold);
+            return;
+        }
+
+        float separationB = findMaxSeparation(s, vertexBX, vertexBY, normalBX, normalBY, countB,
+                vertexAX, vertexAY, countA);
+        int edgeB = s.edge;
+
+        if(separationB > 0) {
+            manifold.referenceEdge = (edgeB << 1) | 1;
+            CollisionUtil.setSeparated(manifold);
+            return;
+        }
+
+        // The reference edge is the one with the least penetration, preferring a
+        boolean flip = separationB > (RELATIVE_TOLERANCE * separationA) + ABSOLUTE_TOLERANCE;
+
+        float[] refX, refY, refNX, refNY, incX, incY, incNX, incNY;
+        int refCount, incCount, reference;
+        float separation;
+
+        if(flip) {
+            refX = vertexBX; refY = vertexBY; refNX = normalBX; refNY = normalBY; refCount = countB;
+            incX = vertexAX; incY = vertexAY; incNX = normalAX; incNY = normalAY; incCount = countA;
+
+            reference = edgeB;
+            separation = separationB;
+        }
+        else {
+            refX = vertexAX; refY = vertexAY; refNX = normalAX; refNY = normalAY; refCount = countA;
+            incX = vertexBX; incY = vertexBY; incNX = normalBX; incNY = normalBY; incCount = countB;
+
+            reference = edgeA;
+            separation = separationA;
+        }
+
+        manifold.referenceEdge = (reference << 1) | (flip ? 1 : 0);
+
+        float nx = refNX[reference];
+        float ny = refNY[reference];
+
+        // The incident edge is the edge of the other polygon which faces the reference normal the most
+        int incident = 0;
+        float min = Float.MAX_VALUE;
+        for(int i = 0; i < incCount; i++) {
+            float dot = (nx * incNX[i]) + (ny * incNY[i]);
+            if(dot < min) {
+                min = dot;
+                incident = i;
+            }
+        }
+
+        int referenceNext = reference + 1 == refCount ? 0 : reference + 1;
+        int incidentNext = incident + 1 == incCount ? 0 : incident + 1;
+
+        float startX = refX[reference], startY = refY[reference];
+        float endX = refX[referenceNext], endY = refY[referenceNext];
+
+        // The direction along the reference edge, the outward normal rotated a quarter turn
+        float dx = -ny;
+        float dy = nx;
+        if((dx * (endX - startX)) + (dy * (endY - startY)) < 0) {
+            dx = -dx;
+            dy = -dy;
+        }
+
+        // Clip the incident edge to the side planes of the reference edge
+        float[] px = s.clipX;
+        float[] py = s.clipY;
+
+        px[0] = incX[incident];
+        py[0] = incY[incident];
+        px[1] = incX[incidentNext];
+        py[1] = incY[incidentNext];
+
+        manifold.collided = true;
+        if(flip) {
+            manifold.setNormal(-nx, -ny);
+        }
+        else {
+            manifold.setNormal(nx, ny);
+        }
+        manifold.overlap = -separation;
+
+        if(CollisionUtil.clip(px, py, dx, dy, (dx * startX) + (dy * startY)) < 2) return;
+        if(CollisionUtil.clip(px, py, -dx, -dy, -((dx * endX) + (dy * endY))) < 2) return;
+
+        float max = (nx * startX) + (ny * startY);
+
+        // Only keep the points which are behind the reference face
+        for(int i = 0; i < 2; i++) {
+            float depth = max - ((nx * px[i]) + (ny * py[i]));
+            if(depth < 0) continue;
+
+            int id = (flip ? 1 : 0) | (reference << 1) | (incident << 9) | (i << 17);
+            manifold.addContactPoint(px[i], py[i], id);
+        }
+    }
+
+    /**
+     * Finds the edge of the first polygon which has the largest separation from the second polygon, stopping
+     * early if the polygons are found to be separated
+     * @return The largest separation, the edge it was found on is stored in the scratch memory
+     */
+    private float findMaxSeparation(Scratch s, float[] x1, float[] y1, float[] nx1, float[] ny1, int count1,
+                                    float[] x2, float[] y2, int count2) {
+
+        float max = -Float.MAX_VALUE;
+        s.edge = 0;
+
+        for(int i = 0; i < count1; i++) {
+            float separation = edgeSeparation(i, x1, y1, nx1, ny1, x2, y2, count2);
+
+            if(separation > max) {
+                max = separation;
+                s.edge = i;
+
+                if(max > 0) break;
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * Calculates how far the second polygon is in front of an edge of the first polygon along the edge normal
+     * @param edge The index of the edge on the first polygon
+     * @return The separation, negative if the second polygon is behind the edge
+     */
+    private float edgeSeparation(int edge, float[] x1, float[] y1, float[] nx1, float[] ny1,
+                                 float[] x2, float[] y2, int count2) {
+
+        float nx = nx1[edge];
+        float ny = ny1[edge];
+
+        float min = Float.MAX_VALUE;
+        for(int j = 0; j < count2; j++) {
+            float dot = (nx * (x2[j] - x1[edge])) + (ny * (y2[j] - y1[edge]));
+            if(dot < min) min = dot;
+        }
+
+        return min;
+    }
+}
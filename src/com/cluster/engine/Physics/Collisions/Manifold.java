@@ -28,10 +28,10 @@ import com.cluster.engine.Physics.MassData;
 import com.cluster.engine.Physics.Material;
 import com.cluster.engine.Physics.RigidBody;
 import com.cluster.engine.Physics.Shapes.AABB;
-import com.cluster.engine.Physics.Shapes.Polygon;
+import com.cluster.engine.Physics.Shapes.Shape;
 import com.cluster.engine.Physics.Transform;
 import com.cluster.engine.Utilities.MUtil;
-import com.cluster.engine.Utilities.VUtil;
+import com.cluster.engine.Utilities.Vec2;
 import org.jsfml.system.Vector2f;
 
 /**
@@ -39,6 +39,12 @@ import org.jsfml.system.Vector2f;
  */
 public class Manifold {
 
+    /** The maximum number of contact points a manifold can hold */
+    public static final int MAX_CONTACT_POINTS = 2;
+
+    /** The relative normal velocity below which restitution is ignored, stops resting contacts bouncing */
+    public static final float RESTITUTION_THRESHOLD = 1f;
+
     /** The first {@link RigidBody} to be involved in the collision */
     public RigidBody a;
     /** The second {@link RigidBody} to be involved in the collision */
@@ -47,29 +53,168 @@ public class Manifold {
     /** Whether or not there was a collision */
     public boolean collided;
 
-    /** The penetration normal used for resolution */
-    public Vector2f normal;
+    /** The penetration normal used for resolution, only valid while {@link #hasNormal} is set */
+    public final Vec2 normal;
+    /** Whether the narrow phase found a normal for the pair */
+    public boolean hasNormal;
     /** The amount the two bodies overlapped */
     public float overlap;
+    /** The overlap still to be corrected by the position solver this step */
+    private float positionOverlap;
+
+    /** The step in which the broadphase last reported this pair */
+    public int lastUpdate;
+    /** The step in which this manifold was last added to an island */
+    public int islandStep;
+
+    /** The last direction the narrow phase found to separate the bodies, used to start the next test from */
+    public float separatingX, separatingY;
+    /** Whether {@link #separatingX} and {@link #separatingY} hold a separating direction */
+    public boolean hasSeparatingAxis;
+    /**
+     * The polygon edge the SAT narrow phase last used as the separating or reference axis, the lowest bit is set
+     * when the edge is on b, -1 if there is none
+     */
+    public int referenceEdge;
 
-    // TODO(James): Contact points via clipping
-    private Vector2f[] contactPoints;
+    // The contact points, in world space, and the ids of the features which created them
+    private float[] contactX;
+    private float[] contactY;
+    private int[] contactIds;
     private int contactPointCount;
 
+    // The impulses accumulated at each contact point, kept between steps while the features stay in contact
+    private float[] normalImpulses;
+    private float[] tangentImpulses;
+
+    // Solver data for each contact point, calculated once per step in preStep
+    private float[] raX, raY;
+    private float[] rbX, rbY;
+    private float[] normalMasses;
+    private float[] tangentMasses;
+    private float[] velocityBiases;
+
+    // The effective mass matrix of the two normal constraints and its inverse, used to solve both at once
+    private boolean blockSolve;
+    private float k11, k12, k22;
+    private float invK11, invK12, invK22;
+
+    // The normal and tangent used by the solver, the normal is a copy of the collision normal pointing from a to b
+    private final Vec2 solverNormal;
+    private final Vec2 tangent;
+    private float staticFriction;
+    private float dynamicFriction;
+
     public Manifold(RigidBody a, RigidBody b) {
         this.a = a;
         this.b = b;
 
         collided = false;
 
-        normal = null;
+        normal = new Vec2();
+        hasNormal = false;
         overlap = 0;
 
-        contactPoints = new Vector2f[2];
+        lastUpdate = 0;
+        islandStep = 0;
+
+        separatingX = 0;
+        separatingY = 0;
+        hasSeparatingAxis = false;
+        referenceEdge = -1;
+
+        contactX = new float[MAX_CONTACT_POINTS];
+        contactY = new float[MAX_CONTACT_POINTS];
+        contactIds = new int[MAX_CONTACT_POINTS];
         contactPointCount = 0;
+
+        normalImpulses = new float[MAX_CONTACT_POINTS];
+        tangentImpulses = new float[MAX_CONTACT_POINTS];
+
+        raX = new float[MAX_CONTACT_POINTS];
+        raY = new float[MAX_CONTACT_POINTS];
+        rbX = new float[MAX_CONTACT_POINTS];
+        rbY = new float[MAX_CONTACT_POINTS];
+
+        normalMasses = new float[MAX_CONTACT_POINTS];
+        tangentMasses = new float[MAX_CONTACT_POINTS];
+        velocityBiases = new float[MAX_CONTACT_POINTS];
+
+        solverNormal = new Vec2();
+        tangent = new Vec2();
+    }
+
+    /**
+     * Creates a key which is unique to the pair of bodies given, the order of the bodies does not matter
+     * @param a The first body
+     * @param b The second body
+     * @return The key of the pair
+     */
+    public static long pairKey(RigidBody a, RigidBody b) {
+        int idA = Math.min(a.getId(), b.getId());
+        int idB = Math.max(a.getId(), b.getId());
+
+        return ((long) idA << 32) | (idB & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Sets the collision normal, used by the narrow phase. The normal is stored in place so that colliding pairs do
+     * not allocate a new vector every step
+     * @param x The x component of the normal
+     * @param y The y component of the normal
+     */
+    public void setNormal(float x, float y) {
+        normal.set(x, y);
+        hasNormal = true;
     }
 
     public void solve() {
+        // Remember last step's contacts so their impulses can be carried over
+        int oldCount = contactPointCount;
+        int oldId0 = contactIds[0], oldId1 = contactIds[1];
+        float oldNormal0 = normalImpulses[0], oldNormal1 = normalImpulses[1];
+        float oldTangent0 = tangentImpulses[0], oldTangent1 = tangentImpulses[1];
+
+        // The manifold is reused between steps so reset the result first
+        collided = false;
+        hasNormal = false;
+        overlap = 0;
+        contactPointCount = 0;
+
+        test();
+
+        if(!collided || !hasNormal) {
+            contactPointCount = 0;
+            return;
+        }
+
+        // Fall back to the deepest point of b if the narrow phase did not provide any contact points
+        if(contactPointCount == 0) {
+            Transform txB = b.getTransform();
+            Vector2f direction = txB.applyInverseRotation(new Vector2f(-normal.x, -normal.y));
+
+            addContactPoint(txB.apply(b.getShape().getFarthestPoint(direction)), 0);
+        }
+
+        // Impulses can only be carried over while the same features stay in contact
+        for(int i = 0; i < contactPointCount; i++) {
+            normalImpulses[i] = 0;
+            tangentImpulses[i] = 0;
+
+            for(int j = 0; j < oldCount; j++) {
+                if(contactIds[i] == (j == 0 ? oldId0 : oldId1)) {
+                    normalImpulses[i] = j == 0 ? oldNormal0 : oldNormal1;
+                    tangentImpulses[i] = j == 0 ? oldTangent0 : oldTangent1;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the narrow phase test for the pair
+     */
+    private void test() {
 
         MassData massA = a.getMassData();
         MassData massB = b.getMassData();
@@ -78,112 +223,351 @@ public class Manifold {
             return;
         }
 
-        Polygon a = this.a.getShape();
-        Polygon b = this.b.getShape();
-
-        AABB aabbA = new AABB(a.getVertices(), a.getVertexCount());
-        AABB aabbB = new AABB(b.getVertices(), b.getVertexCount());
-
-        aabbA.transform(this.a.getTransform());
-        aabbB.transform(this.b.getTransform());
-
-        if(!AABB.overlaps(aabbA, aabbB)) {
+        // The bounds are calculated once per step by the world
+        if(!AABB.overlaps(this.a.getAABB(), this.b.getAABB())) {
             collided = false;
             return;
         }
 
+        Shape a = this.a.getShape();
+        Shape b = this.b.getShape();
+
         int ia = a.getType().index;
         int ib = b.getType().index;
 
         CollisionJumpTable.handlers[ia][ib].handleCollision(this, a, b);
     }
 
-    public void apply() {
+    /**
+     * Adds a contact point to the manifold, this is used by the narrow phase
+     * @param point The contact point, in world space
+     * @param id An id for the features which created the point, used to match contact points between steps
+     */
+    public void addContactPoint(Vector2f point, int id) { addContactPoint(point.x, point.y, id); }
+
+    /**
+     * Adds a contact point to the manifold without needing a vector, this is used by the narrow phase
+     * @param x The x coordinate of the contact point, in world space
+     * @param y The y coordinate of the contact point, in world space
+     * @param id An id for the features which created the point, used to match contact points between steps
+     */
+    public void addContactPoint(float x, float y, int id) {
+        if(contactPointCount == MAX_CONTACT_POINTS) return;
+
+        contactX[contactPointCount] = x;
+        contactY[contactPointCount] = y;
+        contactIds[contactPointCount] = id;
+        contactPointCount++;
+    }
+
+    /**
+     * Gets a contact point of the collision
+     * @param index The index of the contact point, less than {@link #getContactPointCount()}
+     * @return The contact point, in world space
+     */
+    public Vector2f getContactPoint(int index) { return new Vector2f(contactX[index], contactY[index]); }
+
+    /**
+     * Gets the number of contact points the collision produced
+     * @return The contact point count
+     */
+    public int getContactPointCount() { return contactPointCount; }
+
+    /**
+     * Gets the normal impulse accumulated at a contact point
+     * @param index The index of the contact point
+     * @return The accumulated normal impulse
+     */
+    public float getNormalImpulse(int index) { return normalImpulses[index]; }
+
+    /**
+     * Gets the friction impulse accumulated at a contact point
+     * @param index The index of the contact point
+     * @return The accumulated friction impulse
+     */
+    public float getTangentImpulse(int index) { return tangentImpulses[index]; }
+
+    /**
+     * Calculates the data used by the solver, this is done once per step before any impulses are applied
+     */
+    public void preStep() {
+        if(!collided || !hasNormal)
+            return;
+
+        positionOverlap = overlap;
+
         Material materialA = a.getMaterial();
         Material materialB = b.getMaterial();
 
         MassData massA = a.getMassData();
         MassData massB = b.getMassData();
 
-        if (normal == null)
-            return;
-
-        Transform txA = a.getTransform();
-        Transform txB = b.getTransform();
+        float posAX = a.getTransform().getX();
+        float posAY = a.getTransform().getY();
+        float posBX = b.getTransform().getX();
+        float posBY = b.getTransform().getY();
 
-        Vector2f centre = Vector2f.sub(txA.getPosition(), txB.getPosition());
-        if(VUtil.dot(centre, normal) > 0) {
-            normal = Vector2f.neg(normal);
+        // Make sure the normal points from a to b
+        solverNormal.set(normal);
+        if(((posAX - posBX) * solverNormal.x) + ((posAY - posBY) * solverNormal.y) > 0) {
+            solverNormal.neg();
+            normal.set(solverNormal);
         }
 
+        tangent.set(solverNormal.y, -solverNormal.x);
+
         // Choose which restitution value to use
         float e = Math.min(materialA.restitution, materialB.restitution);
 
-        // Calculate the relative velocity between both bodies
-        Vector2f rv = Vector2f.sub(b.getVelocity(), a.getVelocity());
+        float velAX = a.getVelocityX();
+        float velAY = a.getVelocityY();
+        float velBX = b.getVelocityX();
+        float velBY = b.getVelocityY();
+        float wA = a.getAngularVelocity();
+        float wB = b.getAngularVelocity();
 
-        // If they are not moving towards each other then don't apply collision
-        if(VUtil.dot(rv, normal) > 0) return;
+        for(int i = 0; i < contactPointCount; i++) {
+            raX[i] = contactX[i] - posAX;
+            raY[i] = contactY[i] - posAY;
+            rbX[i] = contactX[i] - posBX;
+            rbY[i] = contactY[i] - posBY;
 
-        // Work out the magnitude of the impulse
-        float impulseMag = -(1 + e) * (VUtil.dot(rv, normal));
-        impulseMag /= (massA.invMass + massB.invMass);
+            // The effective mass along the normal and tangent at the contact point
+            float rnA = (raX[i] * solverNormal.y) - (raY[i] * solverNormal.x);
+            float rnB = (rbX[i] * solverNormal.y) - (rbY[i] * solverNormal.x);
 
-        // Work out the actual impulse to apply
-        Vector2f impulse = new Vector2f(normal.x * impulseMag, normal.y * impulseMag);
+            float normalMass = massA.invMass + massB.invMass
+                    + (massA.invInertia * rnA * rnA) + (massB.invInertia * rnB * rnB);
 
-        // Apply Impulse to body a
-        a.applyImpulse(Vector2f.neg(impulse));
+            normalMasses[i] = normalMass > 0 ? 1f / normalMass : 0;
 
-        // Apply Impulse to body b
-        b.applyImpulse(impulse);
+            float rtA = (raX[i] * tangent.y) - (raY[i] * tangent.x);
+            float rtB = (rbX[i] * tangent.y) - (rbY[i] * tangent.x);
 
-        Vector2f tangent = Vector2f.sub(rv, Vector2f.mul(normal, VUtil.dot(rv, normal)));
-        tangent = VUtil.normalise(tangent);
+            float tangentMass = massA.invMass + massB.invMass
+                    + (massA.invInertia * rtA * rtA) + (massB.invInertia * rtB * rtB);
 
-        float frictionMag = -VUtil.dot(rv, tangent);
-        frictionMag /= (massA.invMass + massB.invMass);
+            tangentMasses[i] = tangentMass > 0 ? 1f / tangentMass : 0;
 
-        float staticFriction = MUtil.sqrt((materialA.staticFriction * materialA.staticFriction)
-                + (materialB.staticFriction * materialB.staticFriction));
+            // The velocity the bodies should separate at once the collision is resolved
+            float rvX = velBX - (wB * rbY[i]) - velAX + (wA * raY[i]);
+            float rvY = velBY + (wB * rbX[i]) - velAY - (wA * raX[i]);
 
-        Vector2f frictionImpulse;
-        if(Math.abs(frictionMag) < impulseMag * staticFriction) {
-            frictionImpulse = Vector2f.mul(tangent, frictionMag);
+            float vn = (rvX * solverNormal.x) + (rvY * solverNormal.y);
+            velocityBiases[i] = vn < -RESTITUTION_THRESHOLD ? -e * vn : 0;
         }
-        else {
-            float dynamicFriction = MUtil.sqrt((materialA.dynamicFriction * materialA.dynamicFriction)
-                    + (materialB.dynamicFriction * materialB.dynamicFriction));
 
-            frictionImpulse = Vector2f.mul(tangent, -impulseMag * dynamicFriction);
+        // Two contact points are solved together, sequentially solving them makes stacks rock from side to side
+        blockSolve = false;
+        if(contactPointCount == 2) {
+            float invMassSum = massA.invMass + massB.invMass;
+
+            float rn1A = (raX[0] * solverNormal.y) - (raY[0] * solverNormal.x);
+            float rn1B = (rbX[0] * solverNormal.y) - (rbY[0] * solverNormal.x);
+            float rn2A = (raX[1] * solverNormal.y) - (raY[1] * solverNormal.x);
+            float rn2B = (rbX[1] * solverNormal.y) - (rbY[1] * solverNormal.x);
+
+            k11 = invMassSum + (massA.invInertia * rn1A * rn1A) + (massB.invInertia * rn1B * rn1B);
+            k22 = invMassSum + (massA.invInertia * rn2A * rn2A) + (massB.invInertia * rn2B * rn2B);
+            k12 = invMassSum + (massA.invInertia * rn1A * rn2A) + (massB.invInertia * rn1B * rn2B);
+
+            // Only use the block solver if the matrix is well conditioned
+            float determinant = (k11 * k22) - (k12 * k12);
+            if((k11 * k11) < 1000f * determinant) {
+                float invDeterminant = 1f / determinant;
+
+                invK11 = k22 * invDeterminant;
+                invK12 = -k12 * invDeterminant;
+                invK22 = k11 * invDeterminant;
+
+                blockSolve = true;
+            }
         }
 
-        a.applyImpulse(Vector2f.neg(frictionImpulse));
-        b.applyImpulse(frictionImpulse);
+        staticFriction = MUtil.sqrt((materialA.staticFriction * materialA.staticFriction)
+                + (materialB.staticFriction * materialB.staticFriction));
+
+        dynamicFriction = MUtil.sqrt((materialA.dynamicFriction * materialA.dynamicFriction)
+                + (materialB.dynamicFriction * materialB.dynamicFriction));
     }
 
     /**
-     * This deals with objects that sink into each other<br>
-     * More visible when dealing with very small bodies colliding with very large bodies, or bodies resting on static ones
+     * Applies the impulses accumulated last step, this means resting contacts start close to their solution
      */
-    public void correctPosition() {
-        if(normal == null)
+    public void warmStart() {
+        if(!collided || !hasNormal)
             return;
 
-        MassData massA = a.getMassData();
-        MassData massB = b.getMassData();
+        for(int i = 0; i < contactPointCount; i++) {
+            float px = (solverNormal.x * normalImpulses[i]) + (tangent.x * tangentImpulses[i]);
+            float py = (solverNormal.y * normalImpulses[i]) + (tangent.y * tangentImpulses[i]);
+
+            applyImpulse(i, px, py);
+        }
+    }
+
+    /**
+     * Runs a single iteration of the sequential impulse solver over every contact point<br>
+     * The normal impulse is accumulated and clamped so that it never pulls the bodies together, the friction
+     * impulse is clamped by the friction cone of the accumulated normal impulse
+     * @return The largest change in relative contact velocity caused by this iteration
+     */
+    public float apply() {
+        if(!collided || !hasNormal)
+            return 0;
+
+        float maxChange = 0;
+
+        // Friction is solved first as non-penetration is more important
+        for(int i = 0; i < contactPointCount; i++) {
+
+            float rv = relativeVelocity(i, tangent);
+            float lambda = -tangentMasses[i] * rv;
+
+            // Stick while within the static friction cone, otherwise slide with dynamic friction
+            float newImpulse = tangentImpulses[i] + lambda;
+            if(Math.abs(newImpulse) > staticFriction * normalImpulses[i]) {
+                float maxFriction = dynamicFriction * normalImpulses[i];
+                newImpulse = MUtil.clamp(newImpulse, -maxFriction, maxFriction);
+            }
+
+            lambda = newImpulse - tangentImpulses[i];
+            tangentImpulses[i] = newImpulse;
+
+            applyImpulse(i, tangent.x * lambda, tangent.y * lambda);
+
+            if(tangentMasses[i] > 0) {
+                maxChange = Math.max(maxChange, Math.abs(lambda) / tangentMasses[i]);
+            }
+        }
+
+        if(blockSolve) {
+            return Math.max(maxChange, applyBlock());
+        }
 
-        float correctionVal = (Math.max(overlap - 0.01f, 0.0f) / (massA.invMass + massB.invMass)) * 0.2f;
+        for(int i = 0; i < contactPointCount; i++) {
 
-        Vector2f correction = new Vector2f(correctionVal * normal.x, correctionVal * normal.y);
+            // Calculate the relative velocity at the contact point
+            float rv = relativeVelocity(i, solverNormal);
 
-        Vector2f positionA = Vector2f.sub(a.getTransform().getPosition(),
-                new Vector2f(correction.x * massA.invMass, correction.y * massA.invMass));
+            // Work out the change in normal impulse, clamping the total so that it only ever pushes
+            float lambda = -normalMasses[i] * (rv - velocityBiases[i]);
+
+            float newImpulse = Math.max(normalImpulses[i] + lambda, 0);
+            lambda = newImpulse - normalImpulses[i];
+            normalImpulses[i] = newImpulse;
+
+            applyImpulse(i, solverNormal.x * lambda, solverNormal.y * lambda);
+
+            if(normalMasses[i] > 0) {
+                maxChange = Math.max(maxChange, Math.abs(lambda) / normalMasses[i]);
+            }
+        }
+
+        return maxChange;
+    }
+
+    /**
+     * Solves the normal impulses of both contact points at once, this is done by trying each combination of
+     * points being active until one is found which satisfies the constraints
+     * @return The largest change in relative contact velocity
+     */
+    private float applyBlock() {
+        float a1 = normalImpulses[0];
+        float a2 = normalImpulses[1];
+
+        // The relative velocities with the current impulses removed
+        float b1 = relativeVelocity(0, solverNormal) - velocityBiases[0] - ((k11 * a1) + (k12 * a2));
+        float b2 = relativeVelocity(1, solverNormal) - velocityBiases[1] - ((k12 * a1) + (k22 * a2));
+
+        float x1, x2;
+
+        // Both points active
+        x1 = -((invK11 * b1) + (invK12 * b2));
+        x2 = -((invK12 * b1) + (invK22 * b2));
+
+        if(x1 < 0 || x2 < 0) {
+            // Only the first point active
+            x1 = -b1 / k11;
+            x2 = 0;
+
+            if(x1 < 0 || ((k12 * x1) + b2) < 0) {
+                // Only the second point active
+                x1 = 0;
+                x2 = -b2 / k22;
+
+                if(x2 < 0 || ((k12 * x2) + b1) < 0) {
+                    // Neither point active, the bodies are separating
+                    x1 = 0;
+                    x2 = 0;
+
+                    if(b1 < 0 || b2 < 0) {
+                        // No solution was found, leave the impulses as they are
+                        return 0;
+                    }
+                }
+            }
+        }
+
+        float d1 = x1 - a1;
+        float d2 = x2 - a2;
+
+        normalImpulses[0] = x1;
+        normalImpulses[1] = x2;
+
+        applyImpulse(0, solverNormal.x * d1, solverNormal.y * d1);
+        applyImpulse(1, solverNormal.x * d2, solverNormal.y * d2);
+
+        return Math.max(Math.abs(d1) * k11, Math.abs(d2) * k22);
+    }
+
+    /**
+     * Calculates the relative velocity of b to a at a contact point along the direction given
+     * @param i The index of the contact point
+     * @param direction The direction to measure along
+     * @return The relative velocity along the direction
+     */
+    private float relativeVelocity(int i, Vec2 direction) {
+        float wA = a.getAngularVelocity();
+        float wB = b.getAngularVelocity();
+
+        float rvX = b.getVelocityX() - (wB * rbY[i]) - a.getVelocityX() + (wA * raY[i]);
+        float rvY = b.getVelocityY() + (wB * rbX[i]) - a.getVelocityY() - (wA * raX[i]);
+
+        return (rvX * direction.x) + (rvY * direction.y);
+    }
+
+    /**
+     * Applies an impulse at a contact point, the impulse is applied to b and the negated impulse to a
+     * @param i The index of the contact point
+     * @param px The x component of the impulse
+     * @param py The y component of the impulse
+     */
+    private void applyImpulse(int i, float px, float py) {
+        a.applyImpulse(-px, -py, raX[i], raY[i]);
+        b.applyImpulse(px, py, rbX[i], rbY[i]);
+    }
+
+    /**
+     * This deals with objects that sink into each other<br>
+     * More visible when dealing with very small bodies colliding with very large bodies, or bodies resting on static ones<br>
+     * Each call corrects a fraction of the overlap left over from the previous call, the overlap is reset by
+     * {@link #preStep()}
+     * @param slop The overlap which is allowed to remain, stops resting bodies jittering
+     * @param baumgarte The fraction of the overlap past the slop which is corrected
+     * @return How far to push the bodies apart along the normal before scaling by their inverse masses, a is pushed
+     * against the normal and b along it
+     */
+    public float correctPosition(float slop, float baumgarte) {
+        if(!hasNormal)
+            return 0;
+
+        MassData massA = a.getMassData();
+        MassData massB = b.getMassData();
 
-        Vector2f positionB = Vector2f.add(b.getTransform().getPosition(),
-                new Vector2f(correction.x * massB.invMass, correction.y * massB.invMass));
+        float correctionVal = (Math.max(positionOverlap - slop, 0.0f) / (massA.invMass + massB.invMass)) * baumgarte;
+        positionOverlap -= correctionVal * (massA.invMass + massB.invMass);
 
-        a.setTransform(positionA, a.getTransform().getAngle());
-        b.setTransform(positionB, b.getTransform().getAngle());
+        return correctionVal;
     }
 }
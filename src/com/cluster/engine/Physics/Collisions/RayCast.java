@@ -0,0 +1,162 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions;
+
+import com.cluster.engine.Physics.RigidBody;
+import com.cluster.engine.Physics.Shapes.Shape;
+import com.cluster.engine.Physics.Transform;
+
+/**
+ * Casts rays against the shape of a single body, using the world space vertices and normals cached by the body<br>
+ * The result of the last cast is kept so that nothing is allocated, a single instance must not be shared between
+ * threads
+ * @author James Bulman
+ */
+public class RayCast {
+
+    // The fraction of the ray's length at which the last cast hit and the surface normal at the hit
+    private float fraction;
+    private float normalX, normalY;
+
+    /**
+     * Creates a new ray cast
+     */
+    public RayCast() {
+        fraction = 0;
+        normalX = 0;
+        normalY = 0;
+    }
+
+    /**
+     * Casts a ray against the shape of the body given<br>
+     * Rays which start inside the shape do not hit it
+     * @param body The body to cast against
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param endX The x coordinate the ray ends at
+     * @param endY The y coordinate the ray ends at
+     * @param maxFraction The fraction of the ray's length past which hits are ignored
+     * @return True if the ray hit the shape, otherwise false
+     */
+    public boolean cast(RigidBody body, float startX, float startY, float endX, float endY, float maxFraction) {
+        float dx = endX - startX;
+        float dy = endY - startY;
+
+        if(body.getShape().getType() == Shape.Type.Polygon) {
+            return castPolygon(body, startX, startY, dx, dy, maxFraction);
+        }
+
+        return castCircle(body, startX, startY, dx, dy, maxFraction);
+    }
+
+    /**
+     * Gets the fraction of the ray's length at which the last cast hit
+     * @return The fraction
+     */
+    public float getFraction() { return fraction; }
+
+    /**
+     * Gets the x component of the surface normal where the last cast hit
+     * @return The x component
+     */
+    public float getNormalX() { return normalX; }
+
+    /**
+     * Gets the y component of the surface normal where the last cast hit
+     * @return The y component
+     */
+    public float getNormalY() { return normalY; }
+
+    /**
+     * Clips the ray against the half plane behind every edge of the polygon, the ray hits where it enters the last
+     * of them
+     */
+    private boolean castPolygon(RigidBody body, float startX, float startY, float dx, float dy, float maxFraction) {
+        float[] x = body.getVertexX();
+        float[] y = body.getVertexY();
+        float[] nx = body.getNormalX();
+        float[] ny = body.getNormalY();
+
+        float lower = 0;
+        float upper = maxFraction;
+        int index = -1;
+
+        for(int i = 0; i < x.length; i++) {
+            // The ray is inside this edge's half plane while the numerator over the denominator is positive
+            float numerator = (nx[i] * (x[i] - startX)) + (ny[i] * (y[i] - startY));
+            float denominator = (nx[i] * dx) + (ny[i] * dy);
+
+            if(denominator == 0) {
+                // Parallel to the edge and outside of it
+                if(numerator < 0) return false;
+            }
+            else if(denominator < 0 && numerator < lower * denominator) {
+                // Entering the half plane later than any other edge so far
+                lower = numerator / denominator;
+                index = i;
+            }
+            else if(denominator > 0 && numerator < upper * denominator) {
+                upper = numerator / denominator;
+            }
+
+            if(upper < lower) return false;
+        }
+
+        if(index < 0) return false;
+
+        fraction = lower;
+        normalX = nx[index];
+        normalY = ny[index];
+
+        return true;
+    }
+
+    /**
+     * Solves for where the ray first meets the circle
+     */
+    private boolean castCircle(RigidBody body, float startX, float startY, float dx, float dy, float maxFraction) {
+        Transform tx = body.getTransform();
+        float radius = body.getShape().getRadius();
+
+        float sx = startX - tx.getX();
+        float sy = startY - tx.getY();
+
+        float b = ((sx * sx) + (sy * sy)) - (radius * radius);
+        float c = (sx * dx) + (sy * dy);
+        float rr = (dx * dx) + (dy * dy);
+
+        float sigma = (c * c) - (rr * b);
+        if(sigma < 0 || rr == 0) return false;
+
+        float a = -(c + (float) Math.sqrt(sigma));
+        if(a < 0 || a > maxFraction * rr) return false;
+
+        fraction = a / rr;
+
+        normalX = (sx + (fraction * dx)) / radius;
+        normalY = (sy + (fraction * dy)) / radius;
+
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions;
+
+/**
+ * The motion of a body over a step, from a start position and angle to an end position and angle<br>
+ * The body is assumed to move linearly between the two, a time of 0 is the start and a time of 1 is the end
+ * @author James Bulman
+ */
+public class Sweep {
+
+    // The position and angle at the start of the sweep
+    public float x0, y0;
+    public float angle0;
+
+    // The position and angle at the end of the sweep
+    public float x1, y1;
+    public float angle1;
+
+    /**
+     * Creates a sweep which does not move from the origin
+     */
+    public Sweep() {
+        set(0, 0, 0);
+    }
+
+    /**
+     * Sets the start and end of the sweep
+     * @param x0 The x coordinate at the start
+     * @param y0 The y coordinate at the start
+     * @param angle0 The angle at the start
+     * @param x1 The x coordinate at the end
+     * @param y1 The y coordinate at the end
+     * @param angle1 The angle at the end
+     */
+    public void set(float x0, float y0, float angle0, float x1, float y1, float angle1) {
+        this.x0 = x0;
+        this.y0 = y0;
+        this.angle0 = angle0;
+
+        this.x1 = x1;
+        this.y1 = y1;
+        this.angle1 = angle1;
+    }
+
+    /**
+     * Sets the sweep to stay in one place for the whole step
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param angle The angle
+     */
+    public void set(float x, float y, float angle) {
+        set(x, y, angle, x, y, angle);
+    }
+
+    /**
+     * Moves the start of the sweep forward to the time given, the end stays where it is
+     * @param t The time to start the sweep from, between 0 and 1
+     */
+    public void advance(float t) {
+        x0 = getX(t);
+        y0 = getY(t);
+        angle0 = getAngle(t);
+    }
+
+    /**
+     * Gets the x coordinate at the time given
+     * @param t The time, between 0 and 1
+     * @return The x coordinate
+     */
+    public float getX(float t) { return x0 + ((x1 - x0) * t); }
+
+    /**
+     * Gets the y coordinate at the time given
+     * @param t The time, between 0 and 1
+     * @return The y coordinate
+     */
+    public float getY(float t) { return y0 + ((y1 - y0) * t); }
+
+    /**
+     * Gets the angle at the time given
+     * @param t The time, between 0 and 1
+     * @return The angle
+     */
+    public float getAngle(float t) { return angle0 + ((angle1 - angle0) * t); }
+}
@@ -0,0 +1,404 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics.Collisions;
+
+import com.cluster.engine.Physics.Shapes.Polygon;
+import com.cluster.engine.Physics.Shapes.Shape;
+import org.jsfml.system.Vector2f;
+
+/**
+ * Finds the first time at which two moving shapes touch using conservative advancement<br>
+ * The distance between the shapes is found and both are advanced by the most they could close that distance
+ * without passing through each other, which is repeated until they are touching or the end of the sweep is reached.
+ * This cannot step over thin shapes no matter how far they move in a step<br>
+ * The scratch arrays are reused between queries so a single instance must not be shared between threads
+ * @author James Bulman
+ */
+public class TimeOfImpact {
+
+    /** The distance at which the shapes are considered touching, stopping short means they never overlap */
+    public static final float TARGET_SEPARATION = 0.1f;
+
+    /** How far shapes which start touching can move into each other before they are stopped rather than solved */
+    private static final float ALLOWED_OVERLAP = 1f;
+
+    /** How much further than the closest points other vertices can be and still count as part of the contact */
+    private static final float CONTACT_TOLERANCE = 0.05f;
+
+    /** The most times the shapes are advanced before giving up */
+    private static final int MAX_ITERATIONS = 20;
+
+    // The world space vertices and normals of each shape at the current time, circles are a single vertex
+    private final float[] ax, ay, anx, any;
+    private final float[] bx, by, bnx, bny;
+    private int aCount, bCount;
+    private int aNormalCount, bNormalCount;
+
+    // The closest points between the shapes and the normal pointing from a to b, set by distance()
+    private float pointAX, pointAY;
+    private float pointBX, pointBY;
+    private float normalX, normalY;
+
+    // The point found by the last call to closestOnEdges()
+    private float closestX, closestY;
+
+    /**
+     * Creates a new time of impact query
+     */
+    public TimeOfImpact() {
+        ax = new float[Polygon.MAX_VERTICES];
+        ay = new float[Polygon.MAX_VERTICES];
+        anx = new float[Polygon.MAX_VERTICES];
+        any = new float[Polygon.MAX_VERTICES];
+
+        bx = new float[Polygon.MAX_VERTICES];
+        by = new float[Polygon.MAX_VERTICES];
+        bnx = new float[Polygon.MAX_VERTICES];
+        bny = new float[Polygon.MAX_VERTICES];
+    }
+
+    /**
+     * Finds the first time at which the shapes come within {@link #TARGET_SEPARATION} of each other<br>
+     * Shapes which start overlapping are left to the solver, as are shapes which start closer than the target and
+     * cannot move more than {@link #ALLOWED_OVERLAP} into each other. Otherwise shapes which start that close have
+     * to close half of the gap between them instead
+     * @param a The first shape
+     * @param sweepA The motion of the first shape
+     * @param b The second shape
+     * @param sweepB The motion of the second shape
+     * @return The time of impact between 0 and 1, or 1 if the shapes do not touch during the sweep
+     */
+    public float compute(Shape a, Sweep sweepA, Shape b, Sweep sweepB) {
+        return compute(a, sweepA, b, sweepB, 1);
+    }
+
+    /**
+     * Finds the first time at which the shapes come within {@link #TARGET_SEPARATION} of each other, giving up as
+     * soon as they cannot touch before the time given. This saves advancing shapes which would only be hit after
+     * something else already has been
+     * @param a The first shape
+     * @param sweepA The motion of the first shape
+     * @param b The second shape
+     * @param sweepB The motion of the second shape
+     * @param maxTime The time past which impacts are ignored, between 0 and 1
+     * @return The time of impact between 0 and the maximum time, or 1 if the shapes do not touch before then
+     */
+    public float compute(Shape a, Sweep sweepA, Shape b, Sweep sweepB, float maxTime) {
+        // The displacements over the whole sweep and how far any point on each shape can move due to rotation
+        float dx = (sweepA.x1 - sweepA.x0) - (sweepB.x1 - sweepB.x0);
+        float dy = (sweepA.y1 - sweepA.y0) - (sweepB.y1 - sweepB.y0);
+        float angular = (Math.abs(sweepA.angle1 - sweepA.angle0) * rotatingRadius(a))
+                + (Math.abs(sweepB.angle1 - sweepB.angle0) * rotatingRadius(b));
+
+        float target = TARGET_SEPARATION;
+
+        float t = 0;
+        for(int i = 0; i < MAX_ITERATIONS; i++) {
+            setVertices(a, sweepA, t, true);
+            setVertices(b, sweepB, t, false);
+
+            float distance = distance(a, b);
+            // The fastest the distance can shrink along the normal, the shapes cannot touch any sooner than this
+            float closing = (dx * normalX) + (dy * normalY) + angular;
+
+            if(i == 0 && distance <= target) {
+                if(distance == 0 || closing <= distance + ALLOWED_OVERLAP) return 1;
+                target = 0.5f * distance;
+            }
+
+            if(distance <= target) return t;
+            if(closing <= 0) return 1;
+
+            t += (distance - target) / closing;
+            if(t >= maxTime) return 1;
+        }
+
+        return t;
+    }
+
+    /**
+     * Gets the x coordinate of the point on the first shape which was closest to the second, at the time of impact
+     * @return The x coordinate
+     */
+    public float getPointAX() { return pointAX; }
+
+    /**
+     * Gets the y coordinate of the point on the first shape which was closest to the second, at the time of impact
+     * @return The y coordinate
+     */
+    public float getPointAY() { return pointAY; }
+
+    /**
+     * Gets the x coordinate of the point on the second shape which was closest to the first, at the time of impact
+     * @return The x coordinate
+     */
+    public float getPointBX() { return pointBX; }
+
+    /**
+     * Gets the y coordinate of the point on the second shape which was closest to the first, at the time of impact
+     * @return The y coordinate
+     */
+    public float getPointBY() { return pointBY; }
+
+    /**
+     * Gets the x component of the normal pointing from the first shape to the second, at the time of impact
+     * @return The x component
+     */
+    public float getNormalX() { return normalX; }
+
+    /**
+     * Gets the y component of the normal pointing from the first shape to the second, at the time of impact
+     * @return The y component
+     */
+    public float getNormalY() { return normalY; }
+
+    /**
+     * Gets the furthest any point on the surface of a shape is from its centre, rotating a circle does not move
+     * its surface so this is zero for circles
+     * @param shape The shape
+     * @return The radius which moves when the shape rotates
+     */
+    private static float rotatingRadius(Shape shape) {
+        return shape.getType() == Shape.Type.Polygon ? shape.getRadius() : 0;
+    }
+
+    /**
+     * Moves the vertices and normals of a shape to where they are at the time given
+     * @param shape The shape
+     * @param sweep The motion of the shape
+     * @param t The time, between 0 and 1
+     * @param first True to fill the arrays of the first shape, false for the second
+     */
+    private void setVertices(Shape shape, Sweep sweep, float t, boolean first) {
+        float[] x = first ? ax : bx;
+        float[] y = first ? ay : by;
+        float[] nx = first ? anx : bnx;
+        float[] ny = first ? any : bny;
+
+        float px = sweep.getX(t);
+        float py = sweep.getY(t);
+
+        int count;
+        int normalCount;
+
+        if(shape.getType() == Shape.Type.Polygon) {
+            Polygon polygon = (Polygon) shape;
+            Vector2f[] vertices = polygon.getVertices();
+            Vector2f[] normals = polygon.getNormals();
+
+            float angle = sweep.getAngle(t);
+            float sin = (float) Math.sin(angle);
+            float cos = (float) Math.cos(angle);
+
+            count = polygon.getVertexCount();
+            for(int i = 0; i < count; i++) {
+                Vector2f v = vertices[i];
+                Vector2f n = normals[i];
+
+                x[i] = ((v.x * cos) - (v.y * sin)) + px;
+                y[i] = ((v.x * sin) + (v.y * cos)) + py;
+
+                nx[i] = (n.x * cos) - (n.y * sin);
+                ny[i] = (n.x * sin) + (n.y * cos);
+            }
+
+            normalCount = count;
+        }
+        else {
+            // Circles are their centre grown by the radius
+            x[0] = px;
+            y[0] = py;
+
+            count = 1;
+            normalCount = 0;
+        }
+
+        if(first) {
+            aCount = count;
+            aNormalCount = normalCount;
+        }
+        else {
+            bCount = count;
+            bNormalCount = normalCount;
+        }
+    }
+
+    /**
+     * Finds the distance between the shapes at their current vertices, along with the closest points and the normal
+     * @param a The first shape
+     * @param b The second shape
+     * @return The distance between the shapes, 0 if they overlap
+     */
+    private float distance(Shape a, Shape b) {
+        // Convex polygons overlap if no edge normal separates them, a single vertex has no normals
+        if(aNormalCount + bNormalCount > 0) {
+            float separation = Math.max(maxSeparation(anx, any, ax, ay, aNormalCount, bx, by, bCount),
+                    maxSeparation(bnx, bny, bx, by, bNormalCount, ax, ay, aCount));
+
+            if(separation <= 0) return 0;
+        }
+
+        // When apart the closest points are always a vertex of one shape and a point on an edge of the other
+        float best = Float.MAX_VALUE;
+
+        for(int i = 0; i < aCount; i++) {
+            float distSq = closestOnEdges(ax[i], ay[i], bx, by, bCount);
+            if(distSq >= best) continue;
+
+            best = distSq;
+            pointAX = ax[i];
+            pointAY = ay[i];
+            pointBX = closestX;
+            pointBY = closestY;
+        }
+
+        for(int i = 0; i < bCount; i++) {
+            float distSq = closestOnEdges(bx[i], by[i], ax, ay, aCount);
+            if(distSq >= best) continue;
+
+            best = distSq;
+            pointAX = closestX;
+            pointAY = closestY;
+            pointBX = bx[i];
+            pointBY = by[i];
+        }
+
+        float distance = (float) Math.sqrt(best);
+        if(distance == 0) return 0;
+
+        normalX = (pointBX - pointAX) / distance;
+        normalY = (pointBY - pointAY) / distance;
+
+        centreContact(distance);
+
+        // Move the points out to the surface of any circles
+        float radiusA = a.getType() == Shape.Type.Polygon ? 0 : a.getRadius();
+        float radiusB = b.getType() == Shape.Type.Polygon ? 0 : b.getRadius();
+
+        pointAX += normalX * radiusA;
+        pointAY += normalY * radiusA;
+        pointBX -= normalX * radiusB;
+        pointBY -= normalY * radiusB;
+
+        return Math.max(distance - radiusA - radiusB, 0);
+    }
+
+    /**
+     * Moves the closest points to the middle of every vertex which is about as close to the other shape as the
+     * closest, this puts the contact between two parallel edges in their centre rather than at one of the corners
+     * @param distance The distance between the closest points
+     */
+    private void centreContact(float distance) {
+        float limit = (distance + CONTACT_TOLERANCE) * (distance + CONTACT_TOLERANCE);
+
+        float sumX = 0, sumY = 0;
+        int count = 0;
+
+        for(int i = 0; i < aCount; i++) {
+            if(closestOnEdges(ax[i], ay[i], bx, by, bCount) > limit) continue;
+
+            sumX += ax[i] + closestX;
+            sumY += ay[i] + closestY;
+            count++;
+        }
+
+        for(int i = 0; i < bCount; i++) {
+            if(closestOnEdges(bx[i], by[i], ax, ay, aCount) > limit) continue;
+
+            sumX += bx[i] + closestX;
+            sumY += by[i] + closestY;
+            count++;
+        }
+
+        if(count < 2) return;
+
+        // Keep the points the same distance apart along the normal, centred on the average
+        float midX = sumX / (2 * count);
+        float midY = sumY / (2 * count);
+
+        pointAX = midX - (normalX * 0.5f * distance);
+        pointAY = midY - (normalY * 0.5f * distance);
+        pointBX = midX + (normalX * 0.5f * distance);
+        pointBY = midY + (normalY * 0.5f * distance);
+    }
+
+    /**
+     * Finds the edge normal of the reference vertices which best separates them from the incident vertices
+     * @return The largest separation along any of the normals, negative infinity if there are no normals
+     */
+    private static float maxSeparation(float[] nx, float[] ny, float[] x, float[] y, int normalCount,
+                                       float[] incidentX, float[] incidentY, int incidentCount) {
+        float result = Float.NEGATIVE_INFINITY;
+
+        for(int i = 0; i < normalCount; i++) {
+            float min = Float.MAX_VALUE;
+            for(int j = 0; j < incidentCount; j++) {
+                float separation = ((incidentX[j] - x[i]) * nx[i]) + ((incidentY[j] - y[i]) * ny[i]);
+                if(separation < min) min = separation;
+            }
+
+            if(min > result) result = min;
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the closest point to the point given on the edges of the vertices given, the point found is stored in
+     * {@link #closestX} and {@link #closestY}
+     * @param px The x coordinate of the point
+     * @param py The y coordinate of the point
+     * @param x The x coordinates of the vertices
+     * @param y The y coordinates of the vertices
+     * @param count The number of vertices, a single vertex has no edges and is the closest point itself
+     * @return The squared distance to the closest point
+     */
+    private float closestOnEdges(float px, float py, float[] x, float[] y, int count) {
+        float best = Float.MAX_VALUE;
+
+        for(int i = 0; i < count; i++) {
+            int next = i + 1 == count ? 0 : i + 1;
+
+            float ex = x[next] - x[i];
+            float ey = y[next] - y[i];
+
+            // Project the point onto the edge and clamp it to the ends
+            float lengthSq = (ex * ex) + (ey * ey);
+            float s = lengthSq > 0 ? (((px - x[i]) * ex) + ((py - y[i]) * ey)) / lengthSq : 0;
+            s = Math.max(0, Math.min(1, s));
+
+            float cx = x[i] + (ex * s);
+            float cy = y[i] + (ey * s);
+
+            float distSq = ((px - cx) * (px - cx)) + ((py - cy) * (py - cy));
+            if(distSq >= best) continue;
+
+            best = distSq;
+            closestX = cx;
+            closestY = cy;
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Physics;
+
+import com.cluster.engine.Physics.Collisions.Manifold;
+
+import java.util.Vector;
+
+/**
+ * a group of awake bodies which are connected by contacts, each island can be solved on its own
+ */
+class Island {
+
+    /** The bodies in the island, static bodies are never part of an island */
+    private Vector<RigidBody> bodies;
+    /** The colliding manifolds which connect the bodies, including those against static bodies */
+    private Vector<Manifold> manifolds;
+
+    Island() {
+        bodies = new Vector<>();
+        manifolds = new Vector<>();
+    }
+
+    /**
+     * Removes all bodies and manifolds from the island so it can be reused
+     */
+    void clear() {
+        bodies.clear();
+        manifolds.clear();
+    }
+
+    /**
+     * Adds a body to the island
+     * @param body The body to add
+     */
+    void add(RigidBody body) { bodies.add(body); }
+
+    /**
+     * Adds a manifold to the island
+     * @param manifold The manifold to add
+     */
+    void add(Manifold manifold) { manifolds.add(manifold); }
+
+    /**
+     * Gets the size of the island, used to estimate how long it will take to solve
+     * @return The number of bodies and manifolds in the island
+     */
+    int size() { return bodies.size() + manifolds.size(); }
+
+    /**
+     * Solves the velocities of the contacts in the island, the forces must already be applied to the velocities
+     * @param velocityIterations The maximum number of velocity solver iterations
+     * @param velocityTolerance The change in contact velocity below which the solver stops iterating early
+     */
+    void solveVelocities(int velocityIterations, float velocityTolerance) {
+
+        // Prepare the manifolds and apply last step's impulses
+        int count = manifolds.size();
+
+        for (int i = 0; i < count; i++) {
+            manifolds.get(i).preStep();
+        }
+
+        for (int i = 0; i < count; i++) {
+            manifolds.get(i).warmStart();
+        }
+
+        // Apply the manifolds, stopping early once the impulses have converged
+        for (int iteration = 0; iteration < velocityIterations; iteration++) {
+            float maxChange = 0;
+            for (int i = 0; i < count; i++) {
+                maxChange = Math.max(maxChange, manifolds.get(i).apply());
+            }
+
+            if (maxChange < velocityTolerance) break;
+        }
+    }
+
+    /**
+     * Corrects the positions of any bodies in the island which are still overlapping after they have been moved
+     * @param positionIterations The number of times each manifold is corrected
+     * @param slop The overlap which is allowed to remain
+     * @param baumgarte The fraction of the overlap corrected each iteration
+     */
+    void solvePositions(int positionIterations, float slop, float baumgarte) {
+        for (int iteration = 0; iteration < positionIterations; iteration++) {
+            for (int i = 0; i < manifolds.size(); i++) {
+                Manifold manifold = manifolds.get(i);
+                if (!manifold.hasNormal) continue;
+
+                float correction = manifold.correctPosition(slop, baumgarte);
+                float correctionX = correction * manifold.normal.x;
+                float correctionY = correction * manifold.normal.y;
+
+                manifold.a.correctPosition(-correctionX, -correctionY);
+                manifold.b.correctPosition(correctionX, correctionY);
+            }
+        }
+    }
+
+    /**
+     * Puts the whole island to sleep if every body in it has been still for long enough
+     * @param dt The amount of time passed since last frame
+     * @param linearTolerance The speed below which a body is considered still
+     * @param angularTolerance The angular speed below which a body is considered still
+     * @param timeToSleep The time every body must be still for before the island sleeps
+     */
+    void updateSleep(float dt, float linearTolerance, float angularTolerance, float timeToSleep) {
+        float minSleepTime = Float.MAX_VALUE;
+
+        for (int i = 0; i < bodies.size(); i++) {
+            minSleepTime = Math.min(minSleepTime, bodies.get(i).updateSleepTime(dt, linearTolerance, angularTolerance));
+        }
+
+        if (minSleepTime < timeToSleep) return;
+
+        for (int i = 0; i < bodies.size(); i++) {
+            bodies.get(i).setAwake(false);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+
+package com.cluster.engine.Physics;
+
+/**
+ * A callback which receives the bodies hit by a ray cast through a {@link World}<br>
+ * Bodies are not reported in order along the ray, the value returned decides what happens to the rest of the cast
+ */
+public interface RayCastCallback {
+
+    /**
+     * Called for every body the ray hits
+     * @param body The body which was hit
+     * @param pointX The x coordinate of the point where the ray hit the body
+     * @param pointY The y coordinate of the point where the ray hit the body
+     * @param normalX The x component of the surface normal at the hit
+     * @param normalY The y component of the surface normal at the hit
+     * @param fraction The fraction of the ray's length at which the hit happened
+     * @return -1 to ignore the body, 0 to stop the ray, the fraction given to only look for closer hits, or 1 to
+     * carry on and find every hit
+     */
+    float reportHit(RigidBody body, float pointX, float pointY, float normalX, float normalY, float fraction);
+}
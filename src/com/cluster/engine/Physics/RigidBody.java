@@ -24,14 +24,19 @@
 
 package com.cluster.engine.Physics;
 
+import com.cluster.engine.Physics.Collisions.Manifold;
+import com.cluster.engine.Physics.Collisions.Sweep;
+import com.cluster.engine.Physics.Shapes.AABB;
 import com.cluster.engine.Physics.Shapes.Polygon;
+import com.cluster.engine.Physics.Shapes.Shape;
 import com.cluster.engine.Utilities.Interfaces.Updateable;
-import com.cluster.engine.Utilities.MUtil;
-import com.cluster.engine.Utilities.VUtil;
 import org.jsfml.system.Vector2f;
 
+import java.util.Vector;
+
 /**
- * Represents a physics body within the world
+ * Represents a physics body within the world<br>
+ * The movement state of the body is held in the {@link BodyStore} of its world, the body is a handle to it
  * @author James Bulman
  */
 public class RigidBody implements Updateable {
@@ -40,86 +45,144 @@ public class RigidBody implements Updateable {
     static final int MAX_FIXTURES = 4;
 
     // Positional
-    private Polygon shape;
+    private Shape shape;
     private Transform transform;
 
+    // The vertices and edge normals of the shape in world space, refreshed with the bounds
+    private float[] vertexX, vertexY;
+    private float[] normalX, normalY;
+
+    // The bounds of the body in world space, refreshed once per step when the transform has changed
+    private AABB aabb;
+    private boolean shapeDirty;
+
+    // The pose of the body before and after the last update, copied when the world is published so that it can be
+    // drawn while the world is updated on another thread
+    private float publishedPreviousX, publishedPreviousY, publishedPreviousAngle;
+    private float publishedX, publishedY, publishedAngle;
+    // The bounds and velocity of the body when the world was last published, used for debug drawing
+    private AABB publishedAABB;
+    private float publishedVelocityX, publishedVelocityY;
+
     // Material
     private Material material;
 
     // MassData
     private MassData massData;
 
-    // Movement
-    private Vector2f velocity;
-    private float angularVelocity;
-
-    // Forces
-    private Vector2f force;
-    private float torque;
+    // The store holding the position, movement and forces of the body, and the index of the body within it
+    private BodyStore store;
+    private int index;
 
     // Others
     private boolean alive;
 
+    // The unique id of the body within its world
+    private final int id;
+
     // The world the body is contained in
     private World world;
 
     // Collision Data
     private int mask;
     private int category;
+    private int group;
     private boolean isStatic;
+    private boolean bullet;
+
+    // The id of the proxy representing the body within the broadphase
+    private int proxyId;
+
+    // Sleeping, static bodies are never awake
+    private boolean awake;
+    private float sleepTime;
+
+    // Every manifold in the contact cache which this body is part of, used to build islands
+    private Vector<Manifold> contacts;
+    private int islandStep;
 
     /**
      * Creates a new rigid body from the config given
      * @param config The configuration to make to body from
+     * @param world The world the body belongs to
+     * @param id The unique id of the body within the world
+     * @param store The store to keep the state of the body in
      */
-    RigidBody(BodyConfig config, World world) {
+    RigidBody(BodyConfig config, World world, int id, BodyStore store) {
 
         if(config.shape == null)
             throw new IllegalArgumentException("Error: Shape cannot be null");
 
+        this.store = store;
+        index = store.add(this);
+
         transform = new Transform();
-        transform.setPosition(config.position);
 
         isStatic = config.isStatic;
         if(isStatic) {
             material = new Material(config.restitution, 0,
                     config.dynamicFriction, config.staticFriction);
-
-            velocity = new Vector2f(0, 0);
-            angularVelocity = 0;
         }
         else {
             material = new Material(config.restitution, config.density,
                     config.dynamicFriction, config.staticFriction);
 
-            velocity = config.velocity;
-            angularVelocity = config.angularVelocity;
+            store.vx[index] = config.velocity.x;
+            store.vy[index] = config.velocity.y;
+            store.omega[index] = config.angularVelocity;
         }
 
         shape = config.shape;
 
-        // TODO(James): Make this more robust and support circles
-        Vector2f[] vertices = shape.getVertices();
-        int vertexCount = shape.getVertexCount();
+        // Static bodies should not be rotated by contacts either
+        float inertia = isStatic ? 0 : material.density * shape.getAreaInertia();
+        massData = new MassData(material.density * shape.getArea(), inertia);
 
-        float area = 0;
+        store.invMass[index] = massData.invMass;
+        store.invInertia[index] = massData.invInertia;
 
-        for(int i = 0, j = vertexCount - 1; i < vertexCount; j = i++) {
-            area += VUtil.cross(vertices[i], vertices[j]);
-        }
+        alive = true;
 
-        float radius = shape.getRadius();
+        mask = config.mask;
+        category = config.category;
+        group = config.group;
+        bullet = config.bullet;
 
-        massData = new MassData(material.density * Math.abs(0.5f * area),
-                (MUtil.PI / 2f) * (float) Math.pow(radius, 4));
+        proxyId = -1;
+        this.id = id;
 
-        force = Vector2f.ZERO;
-        torque = 0;
+        awake = !isStatic;
+        sleepTime = 0;
+        updateMoving();
 
-        alive = true;
+        transform.set(config.position.x, config.position.y, 0);
+        store.x[index] = config.position.x;
+        store.y[index] = config.position.y;
 
-        mask = config.mask;
-        category = config.category;
+        store.previousX[index] = config.position.x;
+        store.previousY[index] = config.position.y;
+
+        publishedPreviousX = publishedX = config.position.x;
+        publishedPreviousY = publishedY = config.position.y;
+        publishedPreviousAngle = publishedAngle = 0;
+
+        contacts = new Vector<>();
+        islandStep = 0;
+
+        // Circles have no vertices, only their centre is needed
+        int vertexCount = shape.getType() == Shape.Type.Polygon ? ((Polygon) shape).getVertexCount() : 0;
+
+        vertexX = new float[vertexCount];
+        vertexY = new float[vertexCount];
+        normalX = new float[vertexCount];
+        normalY = new float[vertexCount];
+
+        aabb = new AABB();
+        shapeDirty = true;
+        refreshShape();
+
+        publishedAABB = new AABB();
+        publishedAABB.set(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY());
 
         this.world = world;
     }
@@ -129,33 +192,37 @@ public class RigidBody implements Updateable {
      * @param dt The amount of time passed since last frame
      */
     public void update(float dt) {
-        if(!alive) return;
+        if(!alive || isStatic) return;
 
-        float dth = dt * 0.5f;
+        float invMass = store.invMass[index];
 
-        Vector2f acceleration = Vector2f.mul(force, massData.invMass);
+        store.vx[index] += store.fx[index] * invMass * dt;
+        store.vy[index] += store.fy[index] * invMass * dt;
+        store.omega[index] += store.torque[index] * store.invInertia[index] * dt;
 
-        Vector2f dv = new Vector2f(acceleration.x * dth, acceleration.y * dth);
-        velocity = Vector2f.add(velocity, dv);
+        store.x[index] += store.vx[index] * dt;
+        store.y[index] += store.vy[index] * dt;
+        store.angle[index] += store.omega[index] * dt;
 
-        float omega = torque * massData.invInertia;
-        angularVelocity += (omega * dt);
-
-        Vector2f dx = new Vector2f(velocity.x * dt, velocity.y * dt);
-        transform.setPosition(Vector2f.add(transform.getPosition(), dx));
-
-        transform.setAngle(transform.getAngle() + (angularVelocity * dt));
+        onMoved();
+    }
 
-        dv = new Vector2f(acceleration.x * dth, acceleration.y * dth);
-        velocity = Vector2f.add(velocity, dv);
+    /**
+     * Updates the transform from the store after the body has been moved, this marks the world space shape and
+     * bounds as out of date
+     */
+    void onMoved() {
+        transform.set(store.x[index], store.y[index], store.angle[index]);
+        shapeDirty = true;
     }
 
     /**
      * Sets the force and the torque being applied to the body to zero
      */
     public void resetForces() {
-        force = Vector2f.ZERO;
-        torque = 0;
+        store.fx[index] = 0;
+        store.fy[index] = 0;
+        store.torque[index] = 0;
     }
 
     /**
@@ -163,7 +230,9 @@ public class RigidBody implements Updateable {
      * @param force The force to apply
      */
     public void applyForce(Vector2f force){
-        this.force = Vector2f.add(this.force, force);
+        store.fx[index] += force.x;
+        store.fy[index] += force.y;
+        setAwake(true);
     }
 
     /**
@@ -171,7 +240,35 @@ public class RigidBody implements Updateable {
      * @param impulse The impulse to apply
      */
     public void applyImpulse(Vector2f impulse) {
-        velocity = Vector2f.add(velocity, new Vector2f(impulse.x * massData.invMass, impulse.y * massData.invMass));
+        store.vx[index] += impulse.x * massData.invMass;
+        store.vy[index] += impulse.y * massData.invMass;
+        setAwake(true);
+    }
+
+    /**
+     * Applies an impulse on the body at a point, this directly modifies both the linear and angular velocity
+     * @param impulse The impulse to apply
+     * @param contactVector The point to apply the impulse at, relative to the centre of the body
+     */
+    public void applyImpulse(Vector2f impulse, Vector2f contactVector) {
+        applyImpulse(impulse.x, impulse.y, contactVector.x, contactVector.y);
+    }
+
+    /**
+     * Applies an impulse on the body at a point, this directly modifies both the linear and angular velocity
+     * @param impulseX The x component of the impulse
+     * @param impulseY The y component of the impulse
+     * @param contactX The x coordinate of the point to apply the impulse at, relative to the centre of the body
+     * @param contactY The y coordinate of the point to apply the impulse at, relative to the centre of the body
+     */
+    public void applyImpulse(float impulseX, float impulseY, float contactX, float contactY) {
+        // Static bodies are shared between islands which may be solved on different threads
+        if(isStatic) return;
+
+        store.vx[index] += impulseX * massData.invMass;
+        store.vy[index] += impulseY * massData.invMass;
+        store.omega[index] += massData.invInertia * ((contactX * impulseY) - (contactY * impulseX));
+        setAwake(true);
     }
 
     /**
@@ -180,8 +277,250 @@ public class RigidBody implements Updateable {
      * @param angle The angle to set the body to
      */
     public void setTransform(Vector2f position, float angle) {
-        transform.setPosition(position);
-        transform.setAngle(angle);
+        setTransform(position.x, position.y, angle);
+    }
+
+    /**
+     * Sets the body to the given position and rotates it to the given angle
+     * @param x The x coordinate to set the body to
+     * @param y The y coordinate to set the body to
+     * @param angle The angle to set the body to
+     */
+    public void setTransform(float x, float y, float angle) {
+        store.x[index] = x;
+        store.y[index] = y;
+        store.angle[index] = angle;
+
+        // Teleporting should not be drawn as the body sliding to its new place
+        store.previousX[index] = x;
+        store.previousY[index] = y;
+        store.previousAngle[index] = angle;
+
+        onMoved();
+        setAwake(true);
+
+        // Static bodies are not in the broadphase so the world has to rebuild its static tree instead
+        if(isStatic && world != null) world.markStaticsChanged();
+    }
+
+    /**
+     * Gets the x coordinate of the body part of the way between where it was before the last update of the world
+     * and where it is now
+     * @param alpha How far between the two updates, 0 is before the last update and 1 is now
+     * @return The interpolated x coordinate
+     */
+    public float getInterpolatedX(float alpha) {
+        return store.previousX[index] + ((store.x[index] - store.previousX[index]) * alpha);
+    }
+
+    /**
+     * Gets the y coordinate of the body part of the way between where it was before the last update of the world
+     * and where it is now
+     * @param alpha How far between the two updates, 0 is before the last update and 1 is now
+     * @return The interpolated y coordinate
+     */
+    public float getInterpolatedY(float alpha) {
+        return store.previousY[index] + ((store.y[index] - store.previousY[index]) * alpha);
+    }
+
+    /**
+     * Gets the angle of the body part of the way between its angle before the last update of the world and its
+     * angle now
+     * @param alpha How far between the two updates, 0 is before the last update and 1 is now
+     * @return The interpolated angle, in radians
+     */
+    public float getInterpolatedAngle(float alpha) {
+        return store.previousAngle[index] + ((store.angle[index] - store.previousAngle[index]) * alpha);
+    }
+
+    /**
+     * Sets the transform given to the pose of the body part of the way between the last update of the world and now,
+     * drawing bodies with the alpha from {@link com.cluster.engine.Engine#getAlpha()} keeps their motion smooth when
+     * the world is updated less often than the screen is drawn
+     * @param alpha How far between the two updates, 0 is before the last update and 1 is now
+     * @param out The transform to set
+     * @return The transform given
+     */
+    public Transform getInterpolatedTransform(float alpha, Transform out) {
+        out.set(getInterpolatedX(alpha), getInterpolatedY(alpha), getInterpolatedAngle(alpha));
+        return out;
+    }
+
+    /**
+     * Copies the pose of the body before and after the last update, along with its bounds and velocity, into what is
+     * drawn
+     */
+    void publish() {
+        publishedPreviousX = store.previousX[index];
+        publishedPreviousY = store.previousY[index];
+        publishedPreviousAngle = store.previousAngle[index];
+
+        publishedX = store.x[index];
+        publishedY = store.y[index];
+        publishedAngle = store.angle[index];
+
+        publishedAABB.set(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY());
+        publishedVelocityX = store.vx[index];
+        publishedVelocityY = store.vy[index];
+    }
+
+    /**
+     * Gets the bounds of the body as they were when the world was last published
+     * @return The published bounds, these must not be changed
+     */
+    AABB getPublishedAABB() { return publishedAABB; }
+
+    /**
+     * Gets the linear velocity of the body as it was when the world was last published
+     * @return The published linear velocity
+     */
+    Vector2f getPublishedVelocity() { return new Vector2f(publishedVelocityX, publishedVelocityY); }
+
+    /**
+     * Sets the transform given to the pose of the body as it was when the world was last published, part of the way
+     * between the two updates before the publish. This is safe to use while the world is being updated on another
+     * thread, see {@link World#publish()}
+     * @param alpha How far between the two updates, 0 is the earlier update and 1 is the later
+     * @param out The transform to set
+     * @return The transform given
+     */
+    public Transform getPublishedTransform(float alpha, Transform out) {
+        out.set(publishedPreviousX + ((publishedX - publishedPreviousX) * alpha),
+                publishedPreviousY + ((publishedY - publishedPreviousY) * alpha),
+                publishedPreviousAngle + ((publishedAngle - publishedPreviousAngle) * alpha));
+
+        return out;
+    }
+
+    /**
+     * Moves the body without waking it or telling the world, used by the world while stepping
+     * @param x The x coordinate to move the body to
+     * @param y The y coordinate to move the body to
+     * @param angle The angle to move the body to
+     */
+    void moveTo(float x, float y, float angle) {
+        store.x[index] = x;
+        store.y[index] = y;
+        store.angle[index] = angle;
+
+        onMoved();
+    }
+
+    /**
+     * Pushes the body out of a contact during position correction, unlike {@link #setTransform(float, float, float)}
+     * the move is part of the step so it is still interpolated when drawn<br>
+     * Static bodies are never moved, this stops their bounds from being refreshed for no reason
+     * @param correctionX The x component of the correction, scaled by the inverse mass of the body
+     * @param correctionY The y component of the correction, scaled by the inverse mass of the body
+     */
+    void correctPosition(float correctionX, float correctionY) {
+        float invMass = massData.invMass;
+        if(invMass <= 0) return;
+
+        moveTo(store.x[index] + (correctionX * invMass), store.y[index] + (correctionY * invMass), store.angle[index]);
+        setAwake(true);
+    }
+
+    /**
+     * Sets the sweep given to the motion of the body over the current step, bodies which are not moving stay where
+     * they are for the whole sweep
+     * @param sweep The sweep to set
+     */
+    void getSweep(Sweep sweep) {
+        if(!store.moving[index]) {
+            sweep.set(store.x[index], store.y[index], store.angle[index]);
+            return;
+        }
+
+        sweep.set(store.x0[index], store.y0[index], store.angle0[index],
+                store.x[index], store.y[index], store.angle[index]);
+    }
+
+    /**
+     * Recalculates the world space vertices, normals and bounds of the body if it has moved since they were last
+     * calculated
+     * @return True if the shape was recalculated, otherwise false
+     */
+    boolean refreshShape() {
+        if(!shapeDirty) return false;
+
+        if(shape.getType() != Shape.Type.Polygon) {
+            float radius = shape.getRadius();
+            aabb.set(transform.getX() - radius, transform.getY() - radius,
+                    transform.getX() + radius, transform.getY() + radius);
+
+            shapeDirty = false;
+            return true;
+        }
+
+        Polygon polygon = (Polygon) shape;
+        Vector2f[] vertices = polygon.getVertices();
+        Vector2f[] normals = polygon.getNormals();
+
+        float sin = transform.getSin();
+        float cos = transform.getCos();
+
+        for(int i = 0; i < vertexX.length; i++) {
+            Vector2f v = vertices[i];
+            Vector2f n = normals[i];
+
+            vertexX[i] = ((v.x * cos) - (v.y * sin)) + transform.getX();
+            vertexY[i] = ((v.x * sin) + (v.y * cos)) + transform.getY();
+
+            normalX[i] = (n.x * cos) - (n.y * sin);
+            normalY[i] = (n.x * sin) + (n.y * cos);
+        }
+
+        aabb.set(vertexX, vertexY, vertexX.length);
+        shapeDirty = false;
+
+        return true;
+    }
+
+    /**
+     * Checks whether a point is inside the shape of the body, using the world space shape refreshed by the world
+     * @param x The x coordinate of the point
+     * @param y The y coordinate of the point
+     * @return True if the point is inside the shape, otherwise false
+     */
+    public boolean testPoint(float x, float y) {
+        if(shape.getType() != Shape.Type.Polygon) {
+            float dx = x - transform.getX();
+            float dy = y - transform.getY();
+            float radius = shape.getRadius();
+
+            return (dx * dx) + (dy * dy) <= radius * radius;
+        }
+
+        // Inside a convex polygon is behind every edge
+        for(int i = 0; i < vertexX.length; i++) {
+            if(((x - vertexX[i]) * normalX[i]) + ((y - vertexY[i]) * normalY[i]) > 0) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds the time given to the time the body has been still for, the time is reset if the body is moving
+     * @param dt The amount of time passed since last frame
+     * @param linearTolerance The speed below which the body is considered still
+     * @param angularTolerance The angular speed below which the body is considered still
+     * @return The amount of time the body has been still for
+     */
+    float updateSleepTime(float dt, float linearTolerance, float angularTolerance) {
+        float vx = store.vx[index];
+        float vy = store.vy[index];
+        float omega = store.omega[index];
+
+        if((vx * vx) + (vy * vy) > linearTolerance * linearTolerance
+                || omega * omega > angularTolerance * angularTolerance) {
+            sleepTime = 0;
+        }
+        else {
+            sleepTime += dt;
+        }
+
+        return sleepTime;
     }
 
     /**
@@ -189,14 +528,46 @@ public class RigidBody implements Updateable {
      * @return the resultant speed of the body
      */
     public float getSpeed(){
-        return (float)Math.sqrt(VUtil.lengthSq(velocity));
+        float vx = store.vx[index];
+        float vy = store.vy[index];
+
+        return (float)Math.sqrt((vx * vx) + (vy * vy));
     }
 
     /**
      * Gets the shape which represents the body
      * @return The shape
      */
-    public Polygon getShape() { return shape; }
+    public Shape getShape() { return shape; }
+
+    /**
+     * Gets the x coordinates of the vertices of the shape in world space, these are refreshed once per step by
+     * the world and must not be modified<br>
+     * Circles have no vertices so this, and the other vertex and normal arrays, are empty for them
+     * @return The x coordinates of the vertices
+     */
+    public float[] getVertexX() { return vertexX; }
+
+    /**
+     * Gets the y coordinates of the vertices of the shape in world space, these are refreshed once per step by
+     * the world and must not be modified
+     * @return The y coordinates of the vertices
+     */
+    public float[] getVertexY() { return vertexY; }
+
+    /**
+     * Gets the x components of the edge normals of the shape in world space, these are refreshed once per step
+     * by the world and must not be modified
+     * @return The x components of the normals
+     */
+    public float[] getNormalX() { return normalX; }
+
+    /**
+     * Gets the y components of the edge normals of the shape in world space, these are refreshed once per step
+     * by the world and must not be modified
+     * @return The y components of the normals
+     */
+    public float[] getNormalY() { return normalY; }
 
     /**
      * Gets the transform of the body
@@ -204,17 +575,35 @@ public class RigidBody implements Updateable {
      */
     public Transform getTransform() { return transform; }
 
+    /**
+     * Gets the bounds of the body in world space, these are refreshed by the {@link World} once per step
+     * @return The world space AABB
+     */
+    public AABB getAABB() { return aabb; }
+
     /**
      * Gets the current linear velocity of the body
      * @return The linear velocity
      */
-    public Vector2f getVelocity() { return velocity; }
+    public Vector2f getVelocity() { return new Vector2f(store.vx[index], store.vy[index]); }
+
+    /**
+     * Gets the x component of the current linear velocity of the body
+     * @return The x velocity
+     */
+    public float getVelocityX() { return store.vx[index]; }
+
+    /**
+     * Gets the y component of the current linear velocity of the body
+     * @return The y velocity
+     */
+    public float getVelocityY() { return store.vy[index]; }
 
     /**
      * Gets the current angular velocity of the body
      * @return The angular velocity
      */
-    public float getAngularVelocity() { return angularVelocity; }
+    public float getAngularVelocity() { return store.omega[index]; }
 
     /**
      * Gets the material properties of the body
@@ -235,34 +624,183 @@ public class RigidBody implements Updateable {
     public boolean isAlive() { return alive; }
 
     /**
-     * Gets the mask which defines what can collide with this
+     * Gets the mask which defines which categories this can collide with
      * @return The bit mask
      */
     public int getMask() { return mask; }
 
     /**
-     * Gets the mask which defines what this can collide with
+     * Gets the category bits which this body belongs to
      * @return The category
      */
     public int getCategory() { return category; }
 
+    /**
+     * Gets the collision group of the body, see {@link BodyConfig#group}
+     * @return The group
+     */
+    public int getGroup() { return group; }
+
+    /**
+     * Checks whether the filtering of this body and the other allows them to collide<br>
+     * Bodies in the same non-zero group always or never collide depending on the sign of the group, otherwise
+     * each body's category has to be in the other's mask
+     * @param other The other body
+     * @return True if the bodies can collide, otherwise false
+     */
+    public boolean shouldCollide(RigidBody other) {
+        if(group != 0 && group == other.group) {
+            return group > 0;
+        }
+
+        return (mask & other.category) != 0 && (other.mask & category) != 0;
+    }
+
+    /**
+     * Gets the id of the body, this is unique within the world the body belongs to
+     * @return The id
+     */
+    public int getId() { return id; }
+
+    /**
+     * Whether or not the body is awake, sleeping bodies are not moved or solved until something wakes them
+     * @return True if the body is awake, otherwise false
+     */
+    public boolean isAwake() { return awake; }
+
+    /**
+     * Whether or not the body is static
+     * @return True if the body is static, otherwise false
+     */
+    public boolean isStatic() { return isStatic; }
+
+    /**
+     * Whether or not the body is swept to stop it passing through other bodies, see {@link BodyConfig#bullet}
+     * @return True if the body is a bullet, otherwise false
+     */
+    public boolean isBullet() { return bullet; }
+
+    /**
+     * Sets whether or not the body is swept to stop it passing through other bodies
+     * @param bullet True to make the body a bullet, false otherwise
+     */
+    public void setBullet(boolean bullet) { this.bullet = bullet; }
+
     /**
      * Gets the world the body is contained within
      * @return The world
      */
     public World getWorld() { return world; }
 
+    /**
+     * Gets the id of the proxy which represents the body in the broadphase
+     * @return The proxy id
+     */
+    int getProxyId() { return proxyId; }
+
+    /**
+     * Sets the id of the proxy which represents the body in the broadphase
+     * @param proxyId The proxy id
+     */
+    void setProxyId(int proxyId) { this.proxyId = proxyId; }
+
+    /**
+     * Gets the manifolds in the contact cache which this body is part of
+     * @return The manifolds
+     */
+    Vector<Manifold> getContacts() { return contacts; }
+
+    /**
+     * Gets the step in which the body was last added to an island
+     * @return The island step
+     */
+    int getIslandStep() { return islandStep; }
+
+    /**
+     * Sets the step in which the body was last added to an island
+     * @param islandStep The island step
+     */
+    void setIslandStep(int islandStep) { this.islandStep = islandStep; }
+
     /**
      * Sets the linear velocity of the body
      * @param velocity The new linear velocity to set
      */
-    public void setVelocity(Vector2f velocity) { this.velocity = velocity; }
+    public void setVelocity(Vector2f velocity) {
+        if(isStatic) return;
+
+        store.vx[index] = velocity.x;
+        store.vy[index] = velocity.y;
+        setAwake(true);
+    }
 
     /**
      * Sets the angular veloctiy of the body
      * @param angularVelocity The new angular velocity to ser
      */
-    public void setAngularVelocity(float angularVelocity) { this.angularVelocity = angularVelocity; }
+    public void setAngularVelocity(float angularVelocity) {
+        if(isStatic) return;
+
+        store.omega[index] = angularVelocity;
+        setAwake(true);
+    }
+
+    /**
+     * Wakes the body or puts it to sleep, a sleeping body has its velocity and forces cleared<br>
+     * Static bodies are never awake so this does nothing to them
+     * @param awake True to wake the body, false to put it to sleep
+     */
+    public void setAwake(boolean awake) {
+        if(isStatic) return;
+
+        if(awake) {
+            if(!this.awake) {
+                this.awake = true;
+                sleepTime = 0;
+
+                updateMoving();
+            }
+        }
+        else {
+            this.awake = false;
+            sleepTime = 0;
+
+            store.vx[index] = 0;
+            store.vy[index] = 0;
+            store.omega[index] = 0;
+
+            resetForces();
+            updateMoving();
+        }
+    }
+
+    /**
+     * Updates whether or not the store should integrate the body
+     */
+    private void updateMoving() {
+        store.moving[index] = alive && awake && !isStatic;
+    }
+
+    /**
+     * Sets the index of the body within its store, used when another body is removed from the store
+     * @param index The new index
+     */
+    void setStoreIndex(int index) { this.index = index; }
+
+    /**
+     * Moves the state of the body out of the world's store and into a store of its own, this is done when the
+     * body is removed so that it can still be used
+     */
+    void detach() {
+        BodyStore detached = new BodyStore(1);
+        int detachedIndex = detached.add(this);
+
+        store.copy(index, detached, detachedIndex);
+        store.remove(index);
+
+        store = detached;
+        index = detachedIndex;
+    }
 
     /**
      * Sets whether or not the body is alive, does nothing if the data has not been set
@@ -270,5 +808,6 @@ public class RigidBody implements Updateable {
      */
     public void setAlive(boolean alive) {
         this.alive = alive;
+        updateMoving();
     }
 }
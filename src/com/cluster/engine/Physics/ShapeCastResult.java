@@ -0,0 +1,123 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+
+package com.cluster.engine.Physics;
+
+import org.jsfml.system.Vector2f;
+
+/**
+ * Holds the first hit found by a shape cast through a {@link World}, see
+ * {@link World#shapeCast(com.cluster.engine.Physics.Shapes.Shape, Transform, Vector2f, ShapeCastResult)}<br>
+ * A single result can be reused between casts so that nothing is allocated
+ * @author James Bulman
+ */
+public class ShapeCastResult {
+
+    /** The body which was hit */
+    private RigidBody body;
+    /** The fraction of the translation at which the shape hit the body, the time of impact */
+    private float fraction;
+
+    // The point on the body which the shape touched and the surface normal of the body at that point
+    private float pointX, pointY;
+    private float normalX, normalY;
+
+    /**
+     * Creates an empty result
+     */
+    public ShapeCastResult() {
+        body = null;
+        fraction = 1;
+
+        pointX = pointY = 0;
+        normalX = normalY = 0;
+    }
+
+    /**
+     * Sets the hit held by the result
+     * @param body The body which was hit
+     * @param fraction The fraction of the translation at which the hit happened
+     * @param pointX The x coordinate of the point on the body
+     * @param pointY The y coordinate of the point on the body
+     * @param normalX The x component of the surface normal of the body
+     * @param normalY The y component of the surface normal of the body
+     */
+    void set(RigidBody body, float fraction, float pointX, float pointY, float normalX, float normalY) {
+        this.body = body;
+        this.fraction = fraction;
+        this.pointX = pointX;
+        this.pointY = pointY;
+        this.normalX = normalX;
+        this.normalY = normalY;
+    }
+
+    /**
+     * Gets the body the shape hit first
+     * @return The body
+     */
+    public RigidBody getBody() { return body; }
+
+    /**
+     * Gets the time of impact, as a fraction of the translation the shape was cast with. Moving the shape by this
+     * fraction of the translation leaves it just touching the body
+     * @return The fraction, between 0 and 1
+     */
+    public float getFraction() { return fraction; }
+
+    /**
+     * Gets the point on the body which the shape touched
+     * @return The point
+     */
+    public Vector2f getPoint() { return new Vector2f(pointX, pointY); }
+
+    /**
+     * Gets the x coordinate of the point on the body which the shape touched
+     * @return The x coordinate
+     */
+    public float getPointX() { return pointX; }
+
+    /**
+     * Gets the y coordinate of the point on the body which the shape touched
+     * @return The y coordinate
+     */
+    public float getPointY() { return pointY; }
+
+    /**
+     * Gets the surface normal of the body where the shape touched it, pointing back towards the shape
+     * @return The normal
+     */
+    public Vector2f getNormal() { return new Vector2f(normalX, normalY); }
+
+    /**
+     * Gets the x component of the surface normal of the body where the shape touched it
+     * @return The x component
+     */
+    public float getNormalX() { return normalX; }
+
+    /**
+     * Gets the y component of the surface normal of the body where the shape touched it
+     * @return The y component
+     */
+    public float getNormalY() { return normalY; }
+}
@@ -32,12 +32,22 @@ import org.jsfml.system.Vector2f;
  */
 public class AABB {
 
-    private Vector2f minimum;
-    private Vector2f maximum;
+    private float minX, minY;
+    private float maxX, maxY;
+
+    /**
+     * Creates an empty AABB at the origin
+     */
+    public AABB() {
+        minX = minY = 0;
+        maxX = maxY = 0;
+    }
 
     public AABB(Vector2f minimum, Vector2f maximum) {
-        this.minimum = minimum;
-        this.maximum = maximum;
+        minX = minimum.x;
+        minY = minimum.y;
+        maxX = maximum.x;
+        maxY = maximum.y;
     }
 
     /**
@@ -45,9 +55,6 @@ public class AABB {
      * @param vertices The vertices to create the AABB from
      */
     public AABB(Vector2f[] vertices, int count) {
-        float minX, maxX;
-        float minY, maxY;
-
         // Initial Values
         minX = maxX = vertices[0].x;
         minY = maxY = vertices[0].y;
@@ -69,29 +76,131 @@ public class AABB {
                 maxY = vertices[i].y;
             }
         }
+    }
+
+    /**
+     * Sets the AABB to the bounds of the given local space vertices once they have been transformed
+     * @param vertices The vertices, in local space
+     * @param count The number of vertices
+     * @param tx The transform to apply to the vertices
+     */
+    public void set(Vector2f[] vertices, int count, Transform tx) {
+        float sin = tx.getSin();
+        float cos = tx.getCos();
+
+        Vector2f position = tx.getPosition();
+
+        minX = minY = Float.MAX_VALUE;
+        maxX = maxY = -Float.MAX_VALUE;
+
+        for(int i = 0; i < count; i++) {
+            Vector2f v = vertices[i];
+
+            float x = (v.x * cos) - (v.y * sin) + position.x;
+            float y = (v.x * sin) + (v.y * cos) + position.y;
+
+            if(x < minX) minX = x;
+            if(x > maxX) maxX = x;
+            if(y < minY) minY = y;
+            if(y > maxY) maxY = y;
+        }
+    }
+
+    /**
+     * Sets the AABB to the bounds of the given world space vertices
+     * @param x The x coordinates of the vertices
+     * @param y The y coordinates of the vertices
+     * @param count The number of vertices
+     */
+    public void set(float[] x, float[] y, int count) {
+        minX = minY = Float.MAX_VALUE;
+        maxX = maxY = -Float.MAX_VALUE;
+
+        for(int i = 0; i < count; i++) {
+            if(x[i] < minX) minX = x[i];
+            if(x[i] > maxX) maxX = x[i];
+            if(y[i] < minY) minY = y[i];
+            if(y[i] > maxY) maxY = y[i];
+        }
+    }
 
-        // Find the centre
-        minimum = new Vector2f(minX, minY);
-        // Find the half width and height
-        maximum = new Vector2f(maxX,maxY);
+    /**
+     * Sets the AABB to the bounds given
+     * @param minX The minimum x
+     * @param minY The minimum y
+     * @param maxX The maximum x
+     * @param maxY The maximum y
+     */
+    public void set(float minX, float minY, float maxX, float maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
     }
 
+    /**
+     * Moves the AABB from local space into the space of the transform, the AABB is grown to
+     * contain all four of its corners once rotated
+     * @param tx The transform to apply
+     */
     public void transform(Transform tx) {
-        minimum = tx.applyPosition(minimum);
-        maximum = tx.applyPosition(maximum);
+        float sin = tx.getSin();
+        float cos = tx.getCos();
+
+        // Rotate the half extents to find the new half extents
+        float cx = (minX + maxX) * 0.5f;
+        float cy = (minY + maxY) * 0.5f;
+        float hx = (maxX - minX) * 0.5f;
+        float hy = (maxY - minY) * 0.5f;
+
+        float ex = Math.abs(cos) * hx + Math.abs(sin) * hy;
+        float ey = Math.abs(sin) * hx + Math.abs(cos) * hy;
+
+        Vector2f position = tx.getPosition();
+        float x = (cx * cos) - (cy * sin) + position.x;
+        float y = (cx * sin) + (cy * cos) + position.y;
+
+        minX = x - ex;
+        minY = y - ey;
+        maxX = x + ex;
+        maxY = y + ey;
     }
 
     /**
      * Gets the minimum corner of the AABB
      * @return The minimum corner
      */
-    public Vector2f getMinimum() { return minimum; }
+    public Vector2f getMinimum() { return new Vector2f(minX, minY); }
 
     /**
      * Gets the maximum corner of the AABB
      * @return The maximum corner
      */
-    public Vector2f getMaximum() { return maximum; }
+    public Vector2f getMaximum() { return new Vector2f(maxX, maxY); }
+
+    /**
+     * Gets the minimum x of the AABB
+     * @return The minimum x
+     */
+    public float getMinX() { return minX; }
+
+    /**
+     * Gets the minimum y of the AABB
+     * @return The minimum y
+     */
+    public float getMinY() { return minY; }
+
+    /**
+     * Gets the maximum x of the AABB
+     * @return The maximum x
+     */
+    public float getMaxX() { return maxX; }
+
+    /**
+     * Gets the maximum y of the AABB
+     * @return The maximum y
+     */
+    public float getMaxY() { return maxY; }
 
     /**
      * Checks if two AABBs overlap
@@ -101,16 +210,61 @@ public class AABB {
      */
     public static boolean overlaps(AABB one, AABB two) {
         // Check X axis
-        if(two.minimum.x > one.maximum.x || one.minimum.x > two.maximum.x) {
+        if(two.minX > one.maxX || one.minX > two.maxX) {
             return false;
         }
 
         // Check Y axis
-        if(two.minimum.y > one.maximum.y || one.minimum.y > two.maximum.y) {
+        if(two.minY > one.maxY || one.minY > two.maxY) {
             return false;
         }
 
         // They overlap
         return true;
     }
+
+    /**
+     * Checks if a ray passes through the bounds given before it reaches the fraction given
+     * @param minX The minimum x of the bounds
+     * @param minY The minimum y of the bounds
+     * @param maxX The maximum x of the bounds
+     * @param maxY The maximum y of the bounds
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param inverseDX One over the x component of the full length of the ray, infinite if the ray is vertical
+     * @param inverseDY One over the y component of the full length of the ray, infinite if the ray is horizontal
+     * @param maxFraction The fraction of the ray's length past which hits are ignored
+     * @return True if the ray hits the bounds, otherwise false
+     */
+    public static boolean testRay(float minX, float minY, float maxX, float maxY, float startX, float startY,
+                                  float inverseDX, float inverseDY, float maxFraction) {
+        float lower = 0;
+        float upper = maxFraction;
+
+        // Clip the ray to the slab between the minimum and maximum on each axis, the inverse lengths are passed in
+        // so that a ray tested against many bounds only divides once
+        if(Float.isInfinite(inverseDX)) {
+            if(startX < minX || startX > maxX) return false;
+        }
+        else {
+            float t1 = (minX - startX) * inverseDX;
+            float t2 = (maxX - startX) * inverseDX;
+
+            lower = Math.max(lower, Math.min(t1, t2));
+            upper = Math.min(upper, Math.max(t1, t2));
+            if(lower > upper) return false;
+        }
+
+        if(Float.isInfinite(inverseDY)) {
+            return startY >= minY && startY <= maxY;
+        }
+
+        float t1 = (minY - startY) * inverseDY;
+        float t2 = (maxY - startY) * inverseDY;
+
+        lower = Math.max(lower, Math.min(t1, t2));
+        upper = Math.min(upper, Math.max(t1, t2));
+
+        return lower <= upper;
+    }
 }
@@ -23,6 +23,7 @@
 */
 package com.cluster.engine.Physics.Shapes;
 
+import com.cluster.engine.Utilities.MUtil;
 import org.jsfml.graphics.CircleShape;
 import org.jsfml.graphics.Drawable;
 import org.jsfml.system.Vector2f;
@@ -43,8 +44,23 @@ public class Circle extends Shape {
     public Circle(float radius) {
         this.radius = radius;
         shape = new CircleShape(radius);
+
+        // Draw the circle around its centre rather than from the top left of its bounds
+        shape.setOrigin(radius, radius);
     }
 
+    /**
+     * Gets the area of the circle
+     * @return The area
+     */
+    public float getArea() { return MUtil.PI * radius * radius; }
+
+    /**
+     * Gets the polar moment of area of the circle about its centre
+     * @return The polar moment of area
+     */
+    public float getAreaInertia() { return 0.5f * MUtil.PI * radius * radius * radius * radius; }
+
     /**
      * Gets the farthest point in any given direction on the circle
      * @param direction The direction to search in
@@ -40,9 +40,16 @@ public class Polygon extends Shape {
     /** The vertices of the polygon, in local space */
     private Vector2f[] vertices;
 
+    /** The outward normals of the edges of the polygon, the edge at index i runs from vertex i to vertex i + 1 */
+    private Vector2f[] normals;
+
     /** The number of vertices in the polygon */
     private int vertexCount;
 
+    /** The area of the polygon and its polar moment of area about the centroid */
+    private float area;
+    private float areaInertia;
+
     /** The Drawable representation of the shape */
     private ConvexShape shape;
 
@@ -60,7 +67,6 @@ public class Polygon extends Shape {
         radius = Math.abs(radius);
 
         vertices = new Vector2f[MAX_VERTICES];
-        this.radius = radius;
 
         // Generate all of the vertices needed
         vertexCount = 0;
@@ -74,10 +80,7 @@ public class Polygon extends Shape {
             angle += MUtil.randomFloat(40, 80) * MUtil.DEG_TO_RAD;
         }
 
-        shape = new ConvexShape(vertexCount);
-        for(int i = 0; i < vertexCount; i++) {
-            shape.setPoint(i, vertices[i]);
-        }
+        initialise();
     }
 
     /**
@@ -94,16 +97,53 @@ public class Polygon extends Shape {
         System.arraycopy(vertices, 0, this.vertices, 0, vertices.length);
         vertexCount = vertices.length;
 
-        // Move the vertices into local space
+        initialise();
+    }
+
+    /**
+     * Moves the vertices into local space, so the centroid is at the origin, then calculates the radius, edge
+     * normals and drawable of the polygon
+     */
+    private void initialise() {
         Vector2f centroid = findCentroid(vertices, vertexCount);
-        for (int i = 0; i < vertexCount; i++) {
+
+        radius = 0;
+        for(int i = 0; i < vertexCount; i++) {
             vertices[i] = Vector2f.sub(vertices[i], centroid);
             float length = VUtil.lengthSq(vertices[i]);
             radius = length > radius ? length : radius;
         }
 
         radius = MUtil.sqrt(radius);
-        shape = new ConvexShape(vertices);
+
+        // Sum the triangles made by each edge and the centroid
+        float signedArea = 0;
+        float inertia = 0;
+        for(int i = 0, j = vertexCount - 1; i < vertexCount; j = i++) {
+            Vector2f v0 = vertices[j];
+            Vector2f v1 = vertices[i];
+
+            float cross = VUtil.cross(v0, v1);
+            signedArea += cross;
+            inertia += cross * (VUtil.dot(v0, v0) + VUtil.dot(v0, v1) + VUtil.dot(v1, v1));
+        }
+
+        area = Math.abs(0.5f * signedArea);
+        areaInertia = Math.abs(inertia / 12f);
+
+        // The vertices can be given in either winding so use the sign of the area to point the normals outwards
+        float orientation = signedArea < 0 ? -1 : 1;
+
+        normals = new Vector2f[MAX_VERTICES];
+        for(int i = 0; i < vertexCount; i++) {
+            Vector2f edge = Vector2f.sub(vertices[i + 1 == vertexCount ? 0 : i + 1], vertices[i]);
+            normals[i] = VUtil.normalise(new Vector2f(edge.y * orientation, -edge.x * orientation));
+        }
+
+        shape = new ConvexShape(vertexCount);
+        for(int i = 0; i < vertexCount; i++) {
+            shape.setPoint(i, vertices[i]);
+        }
     }
 
     /**
@@ -133,12 +173,30 @@ public class Polygon extends Shape {
      */
     public Vector2f[] getVertices() { return vertices; }
 
+    /**
+     * Gets the outward normals of the edges of the polygon, the edge at index i runs from vertex i to vertex i + 1
+     * @return An array containing the normals
+     */
+    public Vector2f[] getNormals() { return normals; }
+
     /**
      * Gets the number of vertices the polygon has
      * @return The vertex count
      */
     public int getVertexCount() { return vertexCount; }
 
+    /**
+     * Gets the area of the polygon
+     * @return The area
+     */
+    public float getArea() { return area; }
+
+    /**
+     * Gets the polar moment of area of the polygon about its centroid
+     * @return The polar moment of area
+     */
+    public float getAreaInertia() { return areaInertia; }
+
     /**
      * Gets the drawable representation of the shape
      * @return The drawable polygon
@@ -43,6 +43,19 @@ public abstract class Shape {
 
     public final float getRadius() { return radius; }
 
+    /**
+     * Gets the area of the shape, multiplied by the density this gives the mass
+     * @return The area
+     */
+    public abstract float getArea();
+
+    /**
+     * Gets the polar moment of area of the shape about its centre, multiplied by the density this gives the
+     * rotational inertia
+     * @return The polar moment of area
+     */
+    public abstract float getAreaInertia();
+
     public abstract Drawable getDrawable();
     public abstract Vector2f getFarthestPoint(Vector2f direction);
     public abstract Type getType();
@@ -24,7 +24,8 @@
 
 package com.cluster.engine.Physics;
 
-import com.cluster.engine.Utilities.MUtil;
+import com.cluster.engine.Utilities.Rot;
+import com.cluster.engine.Utilities.Vec2;
 import org.jsfml.system.Vector2f;
 
 /**
@@ -33,23 +34,21 @@ import org.jsfml.system.Vector2f;
  */
 public class Transform {
 
-    // TODO(James): Redo this to provide inverse transformations
-
     /** The position of the object on the screen */
-    private Vector2f position;
+    private float x, y;
     /** The angle of the object, in radians */
     private float angle;
-    /** The sine and cosine of the current angle */
-    private float sin, cos;
+    /** The rotation matrix of the current angle */
+    private final Rot rotation;
 
     /**
      * Creates a default Transform, at (0, 0) with a rotation of 0 and scale of (1, 1)
      */
     public Transform() {
-        position = Vector2f.ZERO;
+        x = 0;
+        y = 0;
         angle = 0;
-        sin = 0;
-        cos = 1;
+        rotation = new Rot();
     }
 
     /**
@@ -58,10 +57,10 @@ public class Transform {
      * @param angle The angle for the Transform to be rotated to
      */
     public Transform(Vector2f position, float angle) {
-        this.position = position;
+        x = position.x;
+        y = position.y;
         this.angle = angle;
-        sin = MUtil.sin(angle);
-        cos = MUtil.cos(angle);
+        rotation = new Rot(angle);
     }
 
     /**
@@ -70,10 +69,10 @@ public class Transform {
      * @return The transformed vector
      */
     public Vector2f apply(Vector2f vector) {
-        float x = (vector.x * cos) - (vector.y * sin);
-        float y = (vector.x * sin) + (vector.y * cos);
+        float rx = (vector.x * rotation.cos) - (vector.y * rotation.sin);
+        float ry = (vector.x * rotation.sin) + (vector.y * rotation.cos);
 
-        return Vector2f.add(new Vector2f(x, y), position);
+        return new Vector2f(rx + x, ry + y);
     }
 
     /**
@@ -81,7 +80,7 @@ public class Transform {
      * @param vector The vector to transform
      * @return The vector translated via the position of the transform
      */
-    public Vector2f applyPosition(Vector2f vector) { return Vector2f.add(vector, position); }
+    public Vector2f applyPosition(Vector2f vector) { return new Vector2f(vector.x + x, vector.y + y); }
 
     /**
      * Applies only the rotation portion of the transform
@@ -89,17 +88,79 @@ public class Transform {
      * @return The vector rotated by the angle of this transform
      */
     public Vector2f applyRotation(Vector2f vector) {
-        float x = (vector.x * cos) - (vector.y * sin);
-        float y = (vector.x * sin) + (vector.y * cos);
+        float rx = (vector.x * rotation.cos) - (vector.y * rotation.sin);
+        float ry = (vector.x * rotation.sin) + (vector.y * rotation.cos);
+
+        return new Vector2f(rx, ry);
+    }
+
+    /**
+     * Applies the inverse of the rotation portion of the transform, taking a world direction into local space
+     * @param vector The vector to transform
+     * @return The vector rotated by the negated angle of this transform
+     */
+    public Vector2f applyInverseRotation(Vector2f vector) {
+        float rx = (vector.x * rotation.cos) + (vector.y * rotation.sin);
+        float ry = (-vector.x * rotation.sin) + (vector.y * rotation.cos);
+
+        return new Vector2f(rx, ry);
+    }
 
-        return new Vector2f(x, y);
+    /**
+     * Applies the transformation to the vector given without allocating
+     * @param vector The vector to apply this transformation to
+     * @param out The vector to write the result to, this can be the input vector
+     * @return The output vector
+     */
+    public Vec2 apply(Vec2 vector, Vec2 out) {
+        rotation.apply(vector, out);
+        return out.set(out.x + x, out.y + y);
     }
 
+    /**
+     * Applies the inverse of the transformation, taking a world point into local space
+     * @param vector The vector to apply the inverse transformation to
+     * @param out The vector to write the result to, this can be the input vector
+     * @return The output vector
+     */
+    public Vec2 applyInverse(Vec2 vector, Vec2 out) {
+        out.set(vector.x - x, vector.y - y);
+        return rotation.applyInverse(out, out);
+    }
+
+    /**
+     * Applies only the rotation portion of the transform without allocating
+     * @param vector The vector to transform
+     * @param out The vector to write the result to, this can be the input vector
+     * @return The output vector
+     */
+    public Vec2 applyRotation(Vec2 vector, Vec2 out) { return rotation.apply(vector, out); }
+
+    /**
+     * Applies the inverse of the rotation portion of the transform without allocating
+     * @param vector The vector to transform
+     * @param out The vector to write the result to, this can be the input vector
+     * @return The output vector
+     */
+    public Vec2 applyInverseRotation(Vec2 vector, Vec2 out) { return rotation.applyInverse(vector, out); }
+
     /**
      * Gets the current position of the Transform
      * @return The position of the Transform
      */
-    public Vector2f getPosition() { return position; }
+    public Vector2f getPosition() { return new Vector2f(x, y); }
+
+    /**
+     * Gets the x coordinate of the position of the Transform
+     * @return The x coordinate
+     */
+    public float getX() { return x; }
+
+    /**
+     * Gets the y coordinate of the position of the Transform
+     * @return The y coordinate
+     */
+    public float getY() { return y; }
 
     /**
      * Gets the current rotation of the Transform
@@ -107,11 +168,45 @@ public class Transform {
      */
     public float getAngle() { return angle; }
 
+    /**
+     * Gets the sine of the current rotation
+     * @return The sine of the angle
+     */
+    public float getSin() { return rotation.sin; }
+
+    /**
+     * Gets the cosine of the current rotation
+     * @return The cosine of the angle
+     */
+    public float getCos() { return rotation.cos; }
+
+    /**
+     * Gets the rotation matrix of the current angle, this should not be modified
+     * @return The rotation
+     */
+    public Rot getRotation() { return rotation; }
+
     /**
      * Moves the Transform to the given position
      * @param position The new position to move the Transform to
      */
-    void setPosition(Vector2f position) { this.position = position; }
+    void setPosition(Vector2f position) {
+        x = position.x;
+        y = position.y;
+    }
+
+    /**
+     * Moves and rotates the Transform, the sine and cosine are only recalculated if the angle changed
+     * @param x The new x coordinate
+     * @param y The new y coordinate
+     * @param angle The new angle, in radians
+     */
+    void set(float x, float y, float angle) {
+        this.x = x;
+        this.y = y;
+
+        if(angle != this.angle) setAngle(angle);
+    }
 
     /**
      * Rotates the Transform to the given angle
@@ -119,7 +214,6 @@ public class Transform {
      */
     void setAngle(float angle) {
         this.angle = angle;
-        sin = MUtil.sin(angle);
-        cos = MUtil.cos(angle);
+        rotation.set(angle);
     }
 }
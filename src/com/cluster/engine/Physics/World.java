@@ -24,21 +24,32 @@
 
 package com.cluster.engine.Physics;
 
+import com.cluster.engine.Physics.Collisions.Broadphase.*;
 import com.cluster.engine.Physics.Collisions.Manifold;
+import com.cluster.engine.Physics.Collisions.RayCast;
+import com.cluster.engine.Physics.Collisions.Sweep;
+import com.cluster.engine.Physics.Collisions.TimeOfImpact;
 import com.cluster.engine.Physics.Shapes.AABB;
+import com.cluster.engine.Physics.Shapes.Polygon;
+import com.cluster.engine.Physics.Shapes.Shape;
+import com.cluster.engine.Utilities.Interfaces.Disposable;
 import com.cluster.engine.Utilities.Interfaces.EntityRenderable;
+import com.cluster.engine.Utilities.Interfaces.Publishable;
 import com.cluster.engine.Utilities.Interfaces.Updateable;
-import com.cluster.engine.Utilities.MUtil;
+import com.cluster.engine.Utilities.LongHashMap;
 import org.jsfml.graphics.*;
 import org.jsfml.system.Vector2f;
 
+import java.util.Arrays;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * a Class which represents the physics world and updates any body added to it
  * @author James
  */
-public class World implements Updateable, EntityRenderable {
+public class World implements Updateable, EntityRenderable, Publishable, Disposable {
 
     /** Whether or not the debug rendering should draw AABBs */
     public static boolean DRAW_AABB = false;
@@ -57,70 +68,1325 @@ public class World implements Updateable, EntityRenderable {
     /** The gravity of the World that should act on the bodies */
     private Vector2f gravity;
 
-    /** a vector of all of the bodies currently registered to the World */
+    /** a vector of all of the non-static bodies currently registered to the World */
     private Vector<RigidBody> bodies;
+    /** a vector of all of the static bodies currently registered to the World */
+    private Vector<RigidBody> staticBodies;
+    /** The position, movement and forces of every body in the world */
+    private BodyStore store;
 
-    /** a vector which contains all manifolds which require narrow phase collision checking */
-    private Vector<Manifold> manifolds;
+    /** The manifold of every pair reported by the broadphase, kept between steps to warm start the solver */
+    private LongHashMap<Manifold> contacts;
+    /** All of the manifolds held in the contact cache, used to find stale pairs */
+    private Vector<Manifold> cachedManifolds;
+
+    /** The number of steps the world has taken */
+    private int stepCount;
+    /** The id to give the next body created */
+    private int nextBodyId;
+
+    /** The maximum number of velocity solver iterations per step */
+    private int velocityIterations;
+    /** The change in contact velocity below which the solver stops iterating early */
+    private float velocityTolerance;
+    /** The number of times overlapping bodies are pushed apart each step */
+    private int positionIterations;
+    /** The overlap which is allowed to remain between bodies */
+    private float slop;
+    /** The fraction of the overlap past the slop which is corrected each position iteration */
+    private float baumgarte;
+
+    /** The number of smaller steps each update is split into */
+    private int subSteps;
+
+    /** The maximum number of GJK iterations used by the polygon narrow phase */
+    private int gjkIterations;
+    /** The maximum number of EPA iterations used by the polygon narrow phase */
+    private int epaIterations;
+
+    /** Whether or not bodies which have stopped moving are put to sleep */
+    private boolean allowSleeping;
+    /** The speed below which a body is considered still */
+    private float linearSleepTolerance;
+    /** The angular speed below which a body is considered still */
+    private float angularSleepTolerance;
+    /** The time an island must be still for before it is put to sleep */
+    private float timeToSleep;
+
+    /** The minimum number of bodies and manifolds solved by a single task when solving islands in parallel */
+    private static final int MIN_BATCH_SIZE = 64;
+
+    /** The islands built this step, reused between steps */
+    private Vector<Island> islands;
+    /** The number of islands in use this step */
+    private int islandCount;
+    /** The bodies waiting to be added to the island being built */
+    private Vector<RigidBody> islandStack;
+
+    /** The index of the first island of each batch, followed by the island count */
+    private int[] batchStarts;
+    /** The number of batches the islands were split into this step */
+    private int batchCount;
+
+    /** The pool used to solve islands in parallel, null if the world is single threaded */
+    private ForkJoinPool pool;
+
+    /** The maximum number of pairs tested by a single task when running the narrow phase in parallel */
+    private static final int NARROWPHASE_CHUNK_SIZE = 128;
+
+    /** Whether or not the narrow phase is run on the pool */
+    private boolean parallelNarrowphase;
+    /** The manifolds which need to be tested by the narrow phase this step, in the order they were reported */
+    private Manifold[] pendingManifolds;
+    /** The number of manifolds waiting to be tested */
+    private int pendingCount;
+
+    /** The broadphase used to find pairs of bodies which could be colliding, static bodies are not included */
+    private Broadphase broadphase;
+    /** Receives the candidate pairs found by the broadphase */
+    private final PairCallback pairCallback;
+
+    /** Holds the static bodies, only rebuilt when they change */
+    private StaticTree staticTree;
+    /** Whether a static body has been added, removed or moved since the static tree was built */
+    private boolean staticsChanged;
+    /** Whether the static tree has been rebuilt since the static pairs were last found */
+    private boolean staticsRebuilt;
+    /** Reports the static bodies overlapping the body being queried */
+    private final TreeCallback staticCallback;
+    /** The body the static tree is currently being queried for */
+    private RigidBody staticQueryBody;
+
+    /** The most times a bullet is stopped at a time of impact and moved on for the rest of the step */
+    private static final int MAX_BULLET_SUB_STEPS = 4;
+
+    /** Finds the time at which a bullet first touches another body */
+    private final TimeOfImpact timeOfImpact;
+    /** Reports the bodies in the broadphase which the bullet being swept could hit */
+    private final QueryCallback bulletCallback;
+    /** Reports the static bodies which the bullet being swept could hit */
+    private final TreeCallback staticBulletCallback;
+
+    // The bullet being swept, its motion over the rest of the step and the time of the step the motion starts at
+    private RigidBody bullet;
+    private final Sweep bulletSweep;
+    private float bulletStart;
+
+    // The first body the bullet hits, the time of the hit and the contact at that time
+    private RigidBody hitBody;
+    private final Sweep hitSweep;
+    private final Sweep candidateSweep;
+    private float hitTime;
+    private float hitX, hitY;
+    private float hitNormalX, hitNormalY;
+
+    /** Casts rays against the shapes of the bodies found by the broadphase and the static tree */
+    private final RayCast rayCast;
+    /** Tests the bodies the ray being cast passes through in the broadphase */
+    private final RayCallback rayBodyCallback;
+    /** Tests the static bodies the ray being cast passes through */
+    private final TreeRayCallback rayStaticCallback;
+
+    // The ray being cast and where to report its hits
+    private float rayStartX, rayStartY;
+    private float rayEndX, rayEndY;
+    private RayCastCallback rayCallback;
+
+    /** Reports the bodies found in the broadphase by an area or point query */
+    private final QueryCallback areaBodyCallback;
+    /** Reports the static bodies found by an area or point query */
+    private final TreeCallback areaStaticCallback;
+
+    // Where to report the bodies found by the current query, and the point when it is a point query
+    private QueryCallback queryCallback;
+    private boolean queryStopped;
+    private boolean queryIsPoint;
+    private float queryX, queryY;
+
+    /** The area swept out by the shape being cast */
+    private final AABB castBounds;
+    /** The motion of the shape being cast */
+    private final Sweep castSweep;
+    /** A body the shape being cast could hit, which stays where it is for the whole cast */
+    private final Sweep castBodySweep;
+    /** Tests the bodies in the broadphase which the shape being cast could hit */
+    private final QueryCallback castBodyCallback;
+    /** Tests the static bodies which the shape being cast could hit */
+    private final TreeCallback castStaticCallback;
+
+    // The shape being cast and where to keep the first hit found so far
+    private Shape castShape;
+    private ShapeCastResult castResult;
+    private boolean castHit;
+
+    /** The pose a body is drawn at, between the last update and now */
+    private final Transform renderTransform;
+    /** The pose a body was at when the world was last published, used to move its published bounds */
+    private final Transform renderPublishedTransform;
+
+    /** The bodies which were in the world at the last publish, in the order they are drawn */
+    private RigidBody[] publishedBodies;
+    /** The number of bodies which were in the world at the last publish */
+    private int publishedCount;
+    /** Whether the world has been published, once it has only the published bodies are drawn */
+    private boolean published;
+
+    /** The most rays or areas tested by a single task when running a batch of queries in parallel */
+    private static final int QUERY_CHUNK_SIZE = 64;
+
+    /** The non-static bodies built into a tree with tight bounds, shared by every thread running a batch of queries */
+    private StaticTree querySnapshot;
+    /** Whether a non-static body has moved, been added or been removed since the snapshot was built */
+    private boolean snapshotChanged;
+    /** Runs batches which are too small to be worth splitting between threads */
+    private BatchWorker batchWorker;
+
+    // The batch being run, the inputs are the origins of the rays or the bounds of the areas. Each task reads its
+    // own range of the inputs and writes to the same range of the results
+    private float[] batchInputs;
+    private float[] batchDirections;
+    private int batchMask;
+    private float[] batchFractions;
+    private float[] batchNormals;
+    private RigidBody[] batchHits;
+    private int[] batchCounts;
 
     /**
-     * Constructs a new physics world with the gravity applied
+     * Constructs a new physics world with the gravity applied and the default configuration
      * @param gravity The gravity of the world
      */
     public World(Vector2f gravity) {
+        this(new WorldConfig());
         this.gravity = gravity;
+    }
+
+    /**
+     * Constructs a new physics world from the configuration given
+     * @param config The configuration to make the world from
+     */
+    public World(WorldConfig config) {
+        gravity = config.gravity;
         bodies = new Vector<>();
-        manifolds = new Vector<>();
+        staticBodies = new Vector<>();
+        store = new BodyStore(64);
+
+        contacts = new LongHashMap<>();
+        cachedManifolds = new Vector<>();
+
+        stepCount = 0;
+        nextBodyId = 0;
+
+        velocityIterations = Math.max(config.velocityIterations, 1);
+        velocityTolerance = Math.max(config.velocityTolerance, 0);
+        positionIterations = Math.max(config.positionIterations, 0);
+        slop = Math.max(config.slop, 0);
+        baumgarte = Math.max(Math.min(config.baumgarte, 1), 0);
+
+        subSteps = Math.max(config.subSteps, 1);
+
+        gjkIterations = Math.max(config.gjkIterations, 1);
+        epaIterations = Math.max(config.epaIterations, 1);
+
+        allowSleeping = config.allowSleeping;
+        linearSleepTolerance = config.linearSleepTolerance;
+        angularSleepTolerance = config.angularSleepTolerance;
+        timeToSleep = config.timeToSleep;
+
+        islands = new Vector<>();
+        islandCount = 0;
+        islandStack = new Vector<>();
+
+        batchStarts = new int[16];
+        batchCount = 0;
+
+        pool = config.threadCount > 1 ? new ForkJoinPool(config.threadCount) : null;
+
+        parallelNarrowphase = config.parallelNarrowphase;
+        pendingManifolds = new Manifold[64];
+        pendingCount = 0;
+
+        broadphase = createBroadphase(config);
+        pairCallback = this::addPair;
+
+        staticTree = new StaticTree();
+        staticsChanged = false;
+        staticsRebuilt = false;
+        staticCallback = this::addStaticPair;
+        staticQueryBody = null;
+
+        timeOfImpact = new TimeOfImpact();
+        bulletCallback = this::sweepBullet;
+        staticBulletCallback = this::sweepBulletStatic;
+
+        bullet = null;
+        bulletSweep = new Sweep();
+        bulletStart = 0;
+
+        hitBody = null;
+        hitSweep = new Sweep();
+        candidateSweep = new Sweep();
+
+        rayCast = new RayCast();
+        rayBodyCallback = this::rayCastBody;
+        rayStaticCallback = this::rayCastStatic;
+        rayCallback = null;
+
+        areaBodyCallback = this::reportQuery;
+        areaStaticCallback = this::reportStaticQuery;
+        queryCallback = null;
+
+        renderTransform = new Transform();
+        renderPublishedTransform = new Transform();
+
+        publishedBodies = new RigidBody[64];
+        publishedCount = 0;
+        published = false;
+
+        castBounds = new AABB();
+        castSweep = new Sweep();
+        castBodySweep = new Sweep();
+        castBodyCallback = this::castBody;
+        castStaticCallback = this::castStatic;
+        castShape = null;
+        castResult = null;
+
+        querySnapshot = new StaticTree();
+        snapshotChanged = true;
+        batchWorker = null;
     }
 
     /**
-     * Updates all rigid bodies which are present in the world and tests for collisions
+     * Updates all rigid bodies which are present in the world and tests for collisions<br>
+     * The update is split into the number of sub-steps set by the configuration of the world
      * @param dt The amount of time passed since last frame
      */
     public void update(float dt) {
+        store.savePrevious();
+
+        float stepDt = dt / subSteps;
+
+        for (int i = 0; i < subSteps; i++) {
+            step(stepDt);
+        }
+    }
+
+    /**
+     * Moves the world forward by a single step
+     * @param dt The length of the step
+     */
+    private void step(float dt) {
+        stepCount++;
+        snapshotChanged = true;
 
-        // Evaluate manifolds of bodies to test for collisions
+        // Catch up with any bodies which were moved outside of the world since last step
+        updateProxies(dt);
+
+        // Evaluate manifolds of candidate pairs to test for collisions
+        pendingCount = 0;
+        broadphase.updatePairs(pairCallback);
+        updateStaticPairs();
+
+        // The pairs are independent so they can be tested at the same time, each only writes to its own manifold
+        if (pool == null || !parallelNarrowphase || pendingCount <= NARROWPHASE_CHUNK_SIZE) {
+            solveManifolds(0, pendingCount);
+        }
+        else {
+            pool.invoke(new NarrowphaseTask(0, pendingCount));
+        }
+
+        // Release the references so removed bodies can be collected
+        Arrays.fill(pendingManifolds, 0, pendingCount, null);
+
+        // Drop any cached pairs which the broadphase no longer reports
+        for (int i = cachedManifolds.size() - 1; i >= 0; i--) {
+            Manifold manifold = cachedManifolds.get(i);
+            if (manifold.lastUpdate == stepCount) continue;
+
+            contacts.remove(Manifold.pairKey(manifold.a, manifold.b));
+
+            manifold.a.getContacts().remove(manifold);
+            manifold.b.getContacts().remove(manifold);
+
+            // Anything resting on a body which has gone needs to fall
+            if (manifold.collided) {
+                manifold.a.setAwake(true);
+                manifold.b.setAwake(true);
+            }
+
+            int last = cachedManifolds.size() - 1;
+            cachedManifolds.set(i, cachedManifolds.get(last));
+            cachedManifolds.remove(last);
+        }
+
+        // Group touching awake bodies into islands, waking any sleeping bodies they touch
+        islandCount = 0;
+        for (int i = 0; i < bodies.size(); i++) {
+            RigidBody seed = bodies.get(i);
+            if (!seed.isAwake() || !seed.isAlive() || seed.getIslandStep() == stepCount) continue;
+
+            buildIsland(seed);
+        }
+
+        // Apply gravity and any other forces to the velocities first so the solver can counteract them
+        store.integrateForces(dt, gravity.x, gravity.y);
+
+        // Islands share no bodies so they can be solved in any order, or at the same time
+        if (pool != null && islandCount > 1) {
+            batchIslands();
+        }
+
+        solveIslands(false, dt);
+
+        // Move the bodies using the solved velocities
+        store.integrateVelocities(dt);
+
+        solveIslands(true, dt);
+
+        // Refresh the bounds of every body which moved, these are used until next step
+        updateProxies(dt);
+
+        // Stop any fast bodies which passed through something this step at the point they hit it
+        solveBullets(dt);
+    }
+
+    /**
+     * Refreshes the world space shape and bounds of any bodies which moved and moves their broadphase proxies to
+     * match<br>
+     * Sleeping bodies do not move so their proxies are left where they are
+     * @param dt The amount of time passed since last frame
+     */
+    private void updateProxies(float dt) {
         for (int i = 0; i < bodies.size(); i++) {
-            RigidBody a = bodies.get(i);
-            if (!a.isAlive()) continue;
+            RigidBody body = bodies.get(i);
+            if (!body.refreshShape()) continue;
+
+            broadphase.moveProxy(body.getProxyId(), body.getAABB(), body.getVelocityX() * dt, body.getVelocityY() * dt);
+        }
+    }
 
-            for (int j = i + 1; j < bodies.size(); j++) {
-                RigidBody b = bodies.get(j);
-                if (!b.isAlive()) continue;
+    /**
+     * Finds the pairs between non-static bodies and static bodies, rebuilding the static tree first if the static
+     * bodies have changed<br>
+     * Sleeping bodies cannot have gained or lost a static pair, as neither body moved, so their existing static
+     * manifolds are kept without querying the tree
+     */
+    private void updateStaticPairs() {
+        if (staticsChanged) rebuildStaticTree();
 
-                Manifold manifold = new Manifold(a, b);
-                manifold.solve();
+        boolean rebuilt = staticsRebuilt;
+        staticsRebuilt = false;
 
-                if (manifold.collided) {
-                    manifolds.add(manifold);
+        if (staticTree.getBodyCount() == 0) return;
+
+        for (int i = 0; i < bodies.size(); i++) {
+            RigidBody body = bodies.get(i);
+
+            if (!rebuilt && !body.isAwake()) {
+                Vector<Manifold> bodyContacts = body.getContacts();
+                for (int j = 0; j < bodyContacts.size(); j++) {
+                    Manifold manifold = bodyContacts.get(j);
+                    if (manifold.a.isStatic() || manifold.b.isStatic()) manifold.lastUpdate = stepCount;
                 }
+
+                continue;
             }
+
+            // Pad the bounds the same as the dynamic tree so contacts do not flicker in and out
+            AABB aabb = body.getAABB();
+            staticQueryBody = body;
+            staticTree.query(aabb.getMinX() - DynamicTree.AABB_MARGIN, aabb.getMinY() - DynamicTree.AABB_MARGIN,
+                    aabb.getMaxX() + DynamicTree.AABB_MARGIN, aabb.getMaxY() + DynamicTree.AABB_MARGIN,
+                    staticCallback);
+        }
+
+        staticQueryBody = null;
+    }
+
+    /**
+     * Rebuilds the static tree from the current shapes of the static bodies
+     */
+    private void rebuildStaticTree() {
+        for (int i = 0; i < staticBodies.size(); i++) {
+            staticBodies.get(i).refreshShape();
         }
 
-        // Apply any manifolds which did collide
-        for (int i = 0; i < 6; i++) {
-            for (Manifold manifold : manifolds) {
-                manifold.apply();
+        staticTree.build(staticBodies);
+        staticsChanged = false;
+        staticsRebuilt = true;
+    }
+
+    /**
+     * Adds the pair between the body being queried and a static body found in the static tree
+     * @param index The index of the static body within the tree
+     * @return Always True, all overlaps are wanted
+     */
+    private boolean addStaticPair(int index) {
+        addPair(staticQueryBody, staticTree.getBody(index));
+        return true;
+    }
+
+    /**
+     * Marks the static tree as out of date, it is rebuilt at the start of the next step
+     */
+    void markStaticsChanged() { staticsChanged = true; }
+
+    /**
+     * Sweeps every awake bullet over the motion it made this step and stops it at the first body it hit<br>
+     * The bullet is moved back to the time of impact, the impact is resolved and the bullet is moved on with its new
+     * velocity for the rest of the step, which is swept again in case it hits something else. Bullets are not swept
+     * against other bullets
+     * @param dt The amount of time passed since last frame
+     */
+    private void solveBullets(float dt) {
+        for (int i = 0; i < bodies.size(); i++) {
+            RigidBody body = bodies.get(i);
+            if (!body.isBullet() || !body.isAwake() || !body.isAlive()) continue;
+
+            bullet = body;
+            bullet.getSweep(bulletSweep);
+            bulletStart = 0;
+
+            boolean moved = false;
+            float remaining = dt;
+
+            for (int subStep = 0; subStep < MAX_BULLET_SUB_STEPS; subStep++) {
+                if (!findFirstHit()) break;
+
+                // Put the bullet where it was at the time of impact
+                float x = bulletSweep.getX(hitTime);
+                float y = bulletSweep.getY(hitTime);
+                float angle = bulletSweep.getAngle(hitTime);
+
+                bullet.moveTo(x, y, angle);
+                moved = true;
+
+                resolveHit(x, y);
+
+                // The step in which it hit is used up, move it on with its new velocity for the rest of the step
+                bulletStart += (1 - bulletStart) * hitTime;
+                remaining *= 1 - hitTime;
+
+                if (subStep + 1 == MAX_BULLET_SUB_STEPS) break;
+
+                float endX = x + (bullet.getVelocityX() * remaining);
+                float endY = y + (bullet.getVelocityY() * remaining);
+                float endAngle = angle + (bullet.getAngularVelocity() * remaining);
+
+                bulletSweep.set(x, y, angle, endX, endY, endAngle);
+                bullet.moveTo(endX, endY, endAngle);
+            }
+
+            if (moved && bullet.refreshShape()) {
+                broadphase.moveProxy(bullet.getProxyId(), bullet.getAABB(),
+                        bullet.getVelocityX() * dt, bullet.getVelocityY() * dt);
+            }
+        }
+
+        bullet = null;
+        hitBody = null;
+    }
+
+    /**
+     * Finds the first body the bullet being swept hits over the rest of the step
+     * @return True if the bullet hit something, otherwise false
+     */
+    private boolean findFirstHit() {
+        hitBody = null;
+        hitTime = 1;
+
+        // Every body the bullet could hit is within the bounds of its shape at the start and end of the sweep
+        float radius = bullet.getShape().getRadius();
+
+        float lowerX = Math.min(bulletSweep.x0, bulletSweep.x1) - radius;
+        float lowerY = Math.min(bulletSweep.y0, bulletSweep.y1) - radius;
+        float upperX = Math.max(bulletSweep.x0, bulletSweep.x1) + radius;
+        float upperY = Math.max(bulletSweep.y0, bulletSweep.y1) + radius;
+
+        broadphase.query(lowerX, lowerY, upperX, upperY, bulletCallback);
+        staticTree.query(lowerX, lowerY, upperX, upperY, staticBulletCallback);
+
+        return hitBody != null;
+    }
+
+    /**
+     * Sweeps the bullet against a body from the broadphase, keeping the hit if it is the first so far
+     * @param body The body the bullet could hit
+     * @return Always True, every body has to be tested to find the first hit
+     */
+    private boolean sweepBullet(RigidBody body) {
+        if (body == bullet || body.isBullet() || !body.isAlive() || !bullet.shouldCollide(body)) return true;
+
+        // The other body moves over the same part of the step as the bullet
+        body.getSweep(candidateSweep);
+        candidateSweep.advance(bulletStart);
+
+        float t = timeOfImpact.compute(bullet.getShape(), bulletSweep, body.getShape(), candidateSweep);
+        if (t >= hitTime) return true;
+
+        hitBody = body;
+        hitTime = t;
+
+        hitSweep.set(candidateSweep.x0, candidateSweep.y0, candidateSweep.angle0,
+                candidateSweep.x1, candidateSweep.y1, candidateSweep.angle1);
+
+        hitX = 0.5f * (timeOfImpact.getPointAX() + timeOfImpact.getPointBX());
+        hitY = 0.5f * (timeOfImpact.getPointAY() + timeOfImpact.getPointBY());
+        hitNormalX = timeOfImpact.getNormalX();
+        hitNormalY = timeOfImpact.getNormalY();
+
+        return true;
+    }
+
+    /**
+     * Sweeps the bullet against a static body found in the static tree
+     * @param index The index of the static body within the tree
+     * @return Always True, every body has to be tested to find the first hit
+     */
+    private boolean sweepBulletStatic(int index) {
+        return sweepBullet(staticTree.getBody(index));
+    }
+
+    /**
+     * Applies an impulse between the bullet and the body it hit so that they are no longer moving towards each other
+     * at the contact found by the time of impact
+     * @param x The x coordinate of the bullet at the time of impact
+     * @param y The y coordinate of the bullet at the time of impact
+     */
+    private void resolveHit(float x, float y) {
+        float raX = hitX - x;
+        float raY = hitY - y;
+        float rbX = hitX - hitSweep.getX(hitTime);
+        float rbY = hitY - hitSweep.getY(hitTime);
+
+        // Relative velocity of the hit body to the bullet at the contact
+        float rvX = (hitBody.getVelocityX() - (hitBody.getAngularVelocity() * rbY))
+                - (bullet.getVelocityX() - (bullet.getAngularVelocity() * raY));
+        float rvY = (hitBody.getVelocityY() + (hitBody.getAngularVelocity() * rbX))
+                - (bullet.getVelocityY() + (bullet.getAngularVelocity() * raX));
+
+        float normalVelocity = (rvX * hitNormalX) + (rvY * hitNormalY);
+        if (normalVelocity >= 0) return;
+
+        MassData massA = bullet.getMassData();
+        MassData massB = hitBody.getMassData();
+
+        float raCrossN = (raX * hitNormalY) - (raY * hitNormalX);
+        float rbCrossN = (rbX * hitNormalY) - (rbY * hitNormalX);
+
+        float invMassSum = massA.invMass + massB.invMass + (raCrossN * raCrossN * massA.invInertia)
+                + (rbCrossN * rbCrossN * massB.invInertia);
+
+        // Slow hits do not bounce, the same as contacts in the solver
+        float e = Math.min(bullet.getMaterial().restitution, hitBody.getMaterial().restitution);
+        if (-normalVelocity < Manifold.RESTITUTION_THRESHOLD) e = 0;
+        float impulse = (-(1 + e) * normalVelocity) / invMassSum;
+
+        bullet.applyImpulse(-impulse * hitNormalX, -impulse * hitNormalY, raX, raY);
+        hitBody.applyImpulse(impulse * hitNormalX, impulse * hitNormalY, rbX, rbY);
+    }
+
+    /**
+     * Fills the island with every body connected to the seed by colliding manifolds<br>
+     * Static bodies end the search so that everything resting on the ground does not become one island
+     * @param seed The body to start the island from
+     */
+    private void buildIsland(RigidBody seed) {
+        if (islandCount == islands.size()) {
+            islands.add(new Island());
+        }
+
+        Island island = islands.get(islandCount++);
+        island.clear();
+
+        seed.setIslandStep(stepCount);
+        islandStack.add(seed);
+
+        while (!islandStack.isEmpty()) {
+            RigidBody body = islandStack.remove(islandStack.size() - 1);
+
+            body.setAwake(true);
+            island.add(body);
+
+            Vector<Manifold> bodyContacts = body.getContacts();
+            for (int i = 0; i < bodyContacts.size(); i++) {
+                Manifold manifold = bodyContacts.get(i);
+                if (!manifold.collided || manifold.islandStep == stepCount) continue;
+
+                RigidBody other = manifold.a == body ? manifold.b : manifold.a;
+                if (!other.isAlive()) continue;
+
+                manifold.islandStep = stepCount;
+                island.add(manifold);
+
+                if (other.isStatic() || other.getIslandStep() == stepCount) continue;
+
+                other.setIslandStep(stepCount);
+                islandStack.add(other);
+            }
+        }
+    }
+
+    /**
+     * Solves the velocities or the positions of every island built this step
+     * @param positions True to solve positions and update sleeping, false to solve velocities
+     * @param dt The amount of time passed since last frame
+     */
+    private void solveIslands(boolean positions, float dt) {
+        if (pool == null || islandCount < 2) {
+            solveIslands(0, islandCount, positions, dt);
+        }
+        else {
+            pool.invoke(new IslandTask(0, batchCount, positions, dt));
+        }
+    }
+
+    /**
+     * Solves a range of the islands built this step
+     * @param start The index of the first island to solve
+     * @param end The index after the last island to solve
+     * @param positions True to solve positions and update sleeping, false to solve velocities
+     * @param dt The amount of time passed since last frame
+     */
+    private void solveIslands(int start, int end, boolean positions, float dt) {
+        for (int i = start; i < end; i++) {
+            Island island = islands.get(i);
+
+            if (!positions) {
+                island.solveVelocities(velocityIterations, velocityTolerance);
+                continue;
+            }
+
+            island.solvePositions(positionIterations, slop, baumgarte);
+            if (allowSleeping) {
+                island.updateSleep(dt, linearSleepTolerance, angularSleepTolerance, timeToSleep);
             }
         }
+    }
 
-        // Update body forces and positions
-        for (RigidBody body : bodies) {
-            // Apply gravity
-            body.applyForce(new Vector2f(gravity.x * body.getMassData().mass,
-                    gravity.y * body.getMassData().mass));
-            body.update(dt);
-            // Reset any forces being applied to the body
-            body.resetForces();
+    /**
+     * Splits the islands into batches of consecutive islands so that small islands are not solved as a task each
+     */
+    private void batchIslands() {
+        batchCount = 0;
+
+        int size = MIN_BATCH_SIZE;
+        for (int i = 0; i < islandCount; i++) {
+            if (size >= MIN_BATCH_SIZE) {
+                if (batchCount + 1 >= batchStarts.length) {
+                    batchStarts = Arrays.copyOf(batchStarts, batchStarts.length * 2);
+                }
+
+                batchStarts[batchCount++] = i;
+                size = 0;
+            }
+
+            size += islands.get(i).size();
         }
 
-        // Correct positions of any bodies which collided
-        for (Manifold manifold : manifolds) {
-            manifold.correctPosition();
+        batchStarts[batchCount] = islandCount;
+    }
+
+    /**
+     * Solves a range of island batches, splitting the range in half until each task has a single batch
+     */
+    private class IslandTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final boolean positions;
+        private final float dt;
+
+        IslandTask(int start, int end, boolean positions, float dt) {
+            this.start = start;
+            this.end = end;
+            this.positions = positions;
+            this.dt = dt;
         }
 
-        // Clear all collision manifolds
-        manifolds.clear();
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                solveIslands(batchStarts[start], batchStarts[end], positions, dt);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new IslandTask(start, middle, positions, dt), new IslandTask(middle, end, positions, dt));
+        }
+    }
+
+    /**
+     * Finds the manifold of a candidate pair from the broadphase and queues it for the narrow phase<br>
+     * The manifold of the pair is reused from the contact cache if the pair was reported last step
+     * @param a The first body in the pair
+     * @param b The second body in the pair
+     */
+    private void addPair(RigidBody a, RigidBody b) {
+        if (!a.isAlive() || !b.isAlive()) return;
+
+        // Filtered pairs never get a manifold so they cost nothing past the broadphase
+        if (!a.shouldCollide(b)) return;
+
+        long key = Manifold.pairKey(a, b);
+
+        Manifold manifold = contacts.get(key);
+        if (manifold == null) {
+            manifold = new Manifold(a, b);
+
+            contacts.put(key, manifold);
+            cachedManifolds.add(manifold);
+
+            a.getContacts().add(manifold);
+            b.getContacts().add(manifold);
+        }
+
+        manifold.lastUpdate = stepCount;
+
+        // Nothing can have changed between bodies which are not moving so keep the last result
+        if (!a.isAwake() && !b.isAwake()) return;
+
+        if (pendingCount == pendingManifolds.length) {
+            pendingManifolds = Arrays.copyOf(pendingManifolds, pendingCount * 2);
+        }
+
+        pendingManifolds[pendingCount++] = manifold;
+    }
+
+    /**
+     * Runs the narrow phase on a range of the manifolds reported this step
+     * @param start The index of the first manifold to test
+     * @param end The index after the last manifold to test
+     */
+    private void solveManifolds(int start, int end) {
+        for (int i = start; i < end; i++) {
+            pendingManifolds[i].solve();
+        }
+    }
+
+    /**
+     * Runs the narrow phase on a range of manifolds, splitting the range in half until it is small enough
+     */
+    private class NarrowphaseTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+
+        NarrowphaseTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= NARROWPHASE_CHUNK_SIZE) {
+                solveManifolds(start, end);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new NarrowphaseTask(start, middle), new NarrowphaseTask(middle, end));
+        }
+    }
+
+    /**
+     * Casts a ray through the world and reports every body it hits to the callback, see {@link RayCastCallback}
+     * for how the callback controls the cast<br>
+     * Bodies are tested where they were at the end of the last step, and the callback must not query or change
+     * the world
+     * @param startX The x coordinate the ray starts at
+     * @param startY The y coordinate the ray starts at
+     * @param endX The x coordinate the ray ends at
+     * @param endY The y coordinate the ray ends at
+     * @param callback The callback to report the hits to
+     */
+    public void raycast(float startX, float startY, float endX, float endY, RayCastCallback callback) {
+        if (staticsChanged) rebuildStaticTree();
+
+        rayStartX = startX;
+        rayStartY = startY;
+        rayEndX = endX;
+        rayEndY = endY;
+        rayCallback = callback;
+
+        // Hits found in the broadphase shorten the ray before the static bodies are tested
+        float maxFraction = broadphase.rayCast(startX, startY, endX, endY, 1, rayBodyCallback);
+        if (maxFraction > 0) {
+            staticTree.rayCast(startX, startY, endX, endY, maxFraction, rayStaticCallback);
+        }
+
+        rayCallback = null;
+    }
+
+    /**
+     * Casts a ray through the world and reports every body it hits to the callback
+     * @param start The point the ray starts at
+     * @param end The point the ray ends at
+     * @param callback The callback to report the hits to
+     */
+    public void raycast(Vector2f start, Vector2f end, RayCastCallback callback) {
+        raycast(start.x, start.y, end.x, end.y, callback);
+    }
+
+    /**
+     * Reports every body whose bounds overlap the area given to the callback<br>
+     * Bodies are tested where they were at the end of the last step, and the callback must not query or change
+     * the world
+     * @param lowerX The minimum x of the area
+     * @param lowerY The minimum y of the area
+     * @param upperX The maximum x of the area
+     * @param upperY The maximum y of the area
+     * @param callback The callback to report the bodies to, returning false stops the query
+     */
+    public void queryAABB(float lowerX, float lowerY, float upperX, float upperY, QueryCallback callback) {
+        query(lowerX, lowerY, upperX, upperY, false, callback);
+    }
+
+    /**
+     * Reports every body whose bounds overlap the area given to the callback
+     * @param aabb The area to query
+     * @param callback The callback to report the bodies to, returning false stops the query
+     */
+    public void queryAABB(AABB aabb, QueryCallback callback) {
+        query(aabb.getMinX(), aabb.getMinY(), aabb.getMaxX(), aabb.getMaxY(), false, callback);
+    }
+
+    /**
+     * Reports every body whose shape contains the point given to the callback<br>
+     * Bodies are tested where they were at the end of the last step, and the callback must not query or change
+     * the world
+     * @param x The x coordinate of the point
+     * @param y The y coordinate of the point
+     * @param callback The callback to report the bodies to, returning false stops the query
+     */
+    public void queryPoint(float x, float y, QueryCallback callback) {
+        query(x, y, x, y, true, callback);
+    }
+
+    /**
+     * Reports every body whose shape contains the point given to the callback
+     * @param point The point
+     * @param callback The callback to report the bodies to, returning false stops the query
+     */
+    public void queryPoint(Vector2f point, QueryCallback callback) {
+        query(point.x, point.y, point.x, point.y, true, callback);
+    }
+
+    /**
+     * Queries the broadphase and then the static tree with the area given
+     * @param point True if the area is a single point which has to be inside the shape of each body reported
+     */
+    private void query(float lowerX, float lowerY, float upperX, float upperY, boolean point,
+                       QueryCallback callback) {
+        if (staticsChanged) rebuildStaticTree();
+
+        queryCallback = callback;
+        queryStopped = false;
+        queryIsPoint = point;
+        queryX = lowerX;
+        queryY = lowerY;
+
+        broadphase.query(lowerX, lowerY, upperX, upperY, areaBodyCallback);
+        if (!queryStopped) {
+            staticTree.query(lowerX, lowerY, upperX, upperY, areaStaticCallback);
+        }
+
+        queryCallback = null;
+    }
+
+    /**
+     * Reports a body found by the current query, point queries only report bodies containing the point
+     * @param body The body found
+     * @return False if the callback stopped the query, otherwise True
+     */
+    private boolean reportQuery(RigidBody body) {
+        if (!body.isAlive()) return true;
+        if (queryIsPoint && !body.testPoint(queryX, queryY)) return true;
+
+        if (queryCallback.reportBody(body)) return true;
+
+        queryStopped = true;
+        return false;
+    }
+
+    /**
+     * Reports a static body found by the current query
+     * @param index The index of the static body within the tree
+     * @return False if the callback stopped the query, otherwise True
+     */
+    private boolean reportStaticQuery(int index) {
+        return reportQuery(staticTree.getBody(index));
+    }
+
+    /**
+     * Tests the ray being cast against the shape of a body it passes the bounds of, reporting the hit if there is one
+     * @param body The body
+     * @param maxFraction The current maximum fraction of the ray
+     * @return The new maximum fraction of the ray
+     */
+    private float rayCastBody(RigidBody body, float maxFraction) {
+        if (!body.isAlive() || !rayCast.cast(body, rayStartX, rayStartY, rayEndX, rayEndY, maxFraction)) {
+            return maxFraction;
+        }
+
+        float fraction = rayCast.getFraction();
+        float pointX = rayStartX + ((rayEndX - rayStartX) * fraction);
+        float pointY = rayStartY + ((rayEndY - rayStartY) * fraction);
+
+        float value = rayCallback.reportHit(body, pointX, pointY, rayCast.getNormalX(), rayCast.getNormalY(), fraction);
+
+        // A negative value ignores the body, leaving the ray as it was
+        return value < 0 ? maxFraction : value;
+    }
+
+    /**
+     * Tests the ray being cast against the shape of a static body
+     * @param index The index of the static body within the tree
+     * @param maxFraction The current maximum fraction of the ray
+     * @return The new maximum fraction of the ray
+     */
+    private float rayCastStatic(int index, float maxFraction) {
+        return rayCastBody(staticTree.getBody(index), maxFraction);
+    }
+
+    /**
+     * Moves a shape through the world in a straight line and finds the first body it hits, without the shape having
+     * to be part of the world<br>
+     * The shape stops {@link TimeOfImpact#TARGET_SEPARATION} short of the body it hits. Bodies which the shape
+     * overlaps at the start of the cast are ignored so that a shape can be moved out of something it is stuck in.
+     * Bodies are tested where they were at the end of the last step
+     * @param shape The shape to cast
+     * @param transform The position and angle of the shape at the start of the cast
+     * @param translation How far to move the shape
+     * @param result Receives the first hit, only changed if something was hit
+     * @return True if the shape hit a body, otherwise false
+     */
+    public boolean shapeCast(Shape shape, Transform transform, Vector2f translation, ShapeCastResult result) {
+        if (staticsChanged) rebuildStaticTree();
+
+        float x = transform.getX();
+        float y = transform.getY();
+        castSweep.set(x, y, transform.getAngle(), x + translation.x, y + translation.y, transform.getAngle());
+
+        if (shape.getType() == Shape.Type.Polygon) {
+            Polygon polygon = (Polygon) shape;
+            castBounds.set(polygon.getVertices(), polygon.getVertexCount(), transform);
+        }
+        else {
+            float radius = shape.getRadius();
+            castBounds.set(x - radius, y - radius, x + radius, y + radius);
+        }
+
+        // Grow the bounds to cover the whole translation, along with the gap the shape stops short by
+        float lowerX = castBounds.getMinX() + Math.min(translation.x, 0) - TimeOfImpact.TARGET_SEPARATION;
+        float lowerY = castBounds.getMinY() + Math.min(translation.y, 0) - TimeOfImpact.TARGET_SEPARATION;
+        float upperX = castBounds.getMaxX() + Math.max(translation.x, 0) + TimeOfImpact.TARGET_SEPARATION;
+        float upperY = castBounds.getMaxY() + Math.max(translation.y, 0) + TimeOfImpact.TARGET_SEPARATION;
+
+        castShape = shape;
+        castResult = result;
+        castHit = false;
+
+        broadphase.query(lowerX, lowerY, upperX, upperY, castBodyCallback);
+        staticTree.query(lowerX, lowerY, upperX, upperY, castStaticCallback);
+
+        castShape = null;
+        castResult = null;
+
+        return castHit;
+    }
+
+    /**
+     * Moves a shape through the world in a straight line and finds the first body it hits, see
+     * {@link #shapeCast(Shape, Transform, Vector2f, ShapeCastResult)}
+     * @param shape The shape to cast
+     * @param transform The position and angle of the shape at the start of the cast
+     * @param translation How far to move the shape
+     * @return The first hit, or null if the shape did not hit anything
+     */
+    public ShapeCastResult shapeCast(Shape shape, Transform transform, Vector2f translation) {
+        ShapeCastResult result = new ShapeCastResult();
+        return shapeCast(shape, transform, translation, result) ? result : null;
+    }
+
+    /**
+     * Finds the time at which the shape being cast hits a body whose bounds are in the path of the shape, keeping
+     * the hit if it is the first so far
+     * @param body The body
+     * @return Always True, every body in the path has to be tested
+     */
+    private boolean castBody(RigidBody body) {
+        if (!body.isAlive()) return true;
+
+        Transform tx = body.getTransform();
+        castBodySweep.set(tx.getX(), tx.getY(), tx.getAngle());
+
+        float maxTime = castHit ? castResult.getFraction() : 1;
+
+        float t = timeOfImpact.compute(castShape, castSweep, body.getShape(), castBodySweep, maxTime);
+        if (t >= maxTime) return true;
+
+        // The normal found points from the shape to the body, the surface of the body faces the other way
+        castResult.set(body, t, timeOfImpact.getPointBX(), timeOfImpact.getPointBY(),
+                -timeOfImpact.getNormalX(), -timeOfImpact.getNormalY());
+        castHit = true;
+
+        return true;
+    }
+
+    /**
+     * Finds the time at which the shape being cast hits a static body
+     * @param index The index of the static body within the tree
+     * @return Always True, every body in the path has to be tested
+     */
+    private boolean castStatic(int index) {
+        return castBody(staticTree.getBody(index));
+    }
+
+    /**
+     * Casts a batch of rays through the world, finding the closest body each ray hits. The rays are split between
+     * the threads of the world if it has more than one<br>
+     * Every ray is tested against the same snapshot of the bodies, taken where they were at the end of the last step,
+     * and the world must not be updated or changed while the batch runs
+     * @param origins The x and y coordinates each ray starts at, two values per ray
+     * @param directions The x and y components of the full length of each ray, two values per ray
+     * @param count The number of rays to cast
+     * @param mask The category bits of the bodies the rays can hit, bodies with none of these bits are ignored
+     * @param fractions Receives the fraction of each ray's length at which its closest hit is, -1 if it hit nothing
+     * @param normals Receives the x and y components of the surface normal at each hit, can be null
+     * @param hits Receives the body each ray hit first, null if it hit nothing. This array can also be null
+     */
+    public void raycastBatch(float[] origins, float[] directions, int count, int mask, float[] fractions,
+                             float[] normals, RigidBody[] hits) {
+        if (count < 0 || origins.length < 2 * count || directions.length < 2 * count || fractions.length < count
+                || (normals != null && normals.length < 2 * count) || (hits != null && hits.length < count)) {
+            throw new IllegalArgumentException("Error: Batch arrays are too short for " + count + " rays");
+        }
+
+        batchInputs = origins;
+        batchDirections = directions;
+        batchMask = mask;
+        batchFractions = fractions;
+        batchNormals = normals;
+        batchHits = hits;
+
+        runBatch(count, true);
+
+        batchInputs = null;
+        batchDirections = null;
+        batchFractions = null;
+        batchNormals = null;
+        batchHits = null;
+    }
+
+    /**
+     * Counts the bodies whose bounds overlap each area of a batch. The areas are split between the threads of the
+     * world if it has more than one<br>
+     * Every area is tested against the same snapshot of the bodies, taken where they were at the end of the last step,
+     * and the world must not be updated or changed while the batch runs
+     * @param bounds The minimum x, minimum y, maximum x and maximum y of each area, four values per area
+     * @param count The number of areas to test
+     * @param mask The category bits of the bodies to count, bodies with none of these bits are ignored
+     * @param counts Receives the number of bodies overlapping each area
+     */
+    public void queryAABBBatch(float[] bounds, int count, int mask, int[] counts) {
+        if (count < 0 || bounds.length < 4 * count || counts.length < count) {
+            throw new IllegalArgumentException("Error: Batch arrays are too short for " + count + " areas");
+        }
+
+        batchInputs = bounds;
+        batchMask = mask;
+        batchCounts = counts;
+
+        runBatch(count, false);
+
+        batchInputs = null;
+        batchCounts = null;
+    }
+
+    /**
+     * Brings the snapshot and the static tree up to date, then runs the batch on the calling thread or on the pool
+     * @param count The number of rays or areas in the batch
+     * @param rays True if the batch is made of rays, false if it is made of areas
+     */
+    private void runBatch(int count, boolean rays) {
+        if (staticsChanged) rebuildStaticTree();
+
+        // Bodies do not move between steps, so every batch until the next step can share the same snapshot
+        if (snapshotChanged) {
+            querySnapshot.build(bodies);
+            snapshotChanged = false;
+        }
+
+        if (pool == null || count <= QUERY_CHUNK_SIZE) {
+            if (batchWorker == null || !batchWorker.fits()) batchWorker = new BatchWorker();
+
+            batchWorker.run(0, count, rays);
+        }
+        else {
+            pool.invoke(new BatchTask(0, count, rays));
+        }
+    }
+
+    /**
+     * Runs part of a batch of queries, splitting the range in half until it is small enough
+     */
+    private class BatchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final boolean rays;
+
+        BatchTask(int start, int end, boolean rays) {
+            this.start = start;
+            this.end = end;
+            this.rays = rays;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= QUERY_CHUNK_SIZE) {
+                new BatchWorker().run(start, end, rays);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new BatchTask(start, middle, rays), new BatchTask(middle, end, rays));
+        }
+    }
+
+    /**
+     * Holds everything a thread writes to while running part of a batch, so that threads only share the trees and
+     * bodies which they read from
+     */
+    private class BatchWorker {
+
+        /** Casts the rays against the shapes of the bodies found in the trees */
+        private final RayCast rayCast;
+        /** The stack used to walk the trees */
+        private final int[] stack;
+
+        private final TreeRayCallback snapshotRayCallback;
+        private final TreeRayCallback staticRayCallback;
+        private final TreeCallback snapshotAreaCallback;
+        private final TreeCallback staticAreaCallback;
+
+        // The ray being cast and the closest hit found so far
+        private float startX, startY;
+        private float endX, endY;
+        private RigidBody hit;
+        private float hitFraction;
+        private float hitNormalX, hitNormalY;
+
+        /** The number of bodies found overlapping the area being tested */
+        private int overlaps;
+
+        BatchWorker() {
+            rayCast = new RayCast();
+            stack = new int[Math.max(querySnapshot.getStackSize(), staticTree.getStackSize())];
+
+            snapshotRayCallback = (index, maxFraction) -> castBody(querySnapshot.getBody(index), maxFraction);
+            staticRayCallback = (index, maxFraction) -> castBody(staticTree.getBody(index), maxFraction);
+            snapshotAreaCallback = index -> countBody(querySnapshot.getBody(index));
+            staticAreaCallback = index -> countBody(staticTree.getBody(index));
+        }
+
+        /**
+         * Checks whether the stack is still deep enough for the trees, they may have grown since it was created
+         * @return True if the worker can still be used, otherwise false
+         */
+        boolean fits() {
+            return stack.length >= querySnapshot.getStackSize() && stack.length >= staticTree.getStackSize();
+        }
+
+        /**
+         * Runs a range of the batch, writing the results for each ray or area in the range
+         * @param start The index of the first ray or area
+         * @param end The index after the last ray or area
+         * @param rays True if the batch is made of rays, false if it is made of areas
+         */
+        void run(int start, int end, boolean rays) {
+            for (int i = start; i < end; i++) {
+                if (rays) {
+                    castRay(i);
+                }
+                else {
+                    countArea(i);
+                }
+            }
+        }
+
+        /**
+         * Finds the closest hit of a single ray, the snapshot is cast through first so that its hits shorten the
+         * ray before the static bodies are tested
+         */
+        private void castRay(int i) {
+            startX = batchInputs[2 * i];
+            startY = batchInputs[(2 * i) + 1];
+            endX = startX + batchDirections[2 * i];
+            endY = startY + batchDirections[(2 * i) + 1];
+            hit = null;
+
+            float maxFraction = querySnapshot.rayCast(startX, startY, endX, endY, 1, snapshotRayCallback, stack);
+            staticTree.rayCast(startX, startY, endX, endY, maxFraction, staticRayCallback, stack);
+
+            batchFractions[i] = hit == null ? -1 : hitFraction;
+
+            if (batchNormals != null) {
+                batchNormals[2 * i] = hit == null ? 0 : hitNormalX;
+                batchNormals[(2 * i) + 1] = hit == null ? 0 : hitNormalY;
+            }
+
+            if (batchHits != null) batchHits[i] = hit;
+
+            hit = null;
+        }
+
+        /**
+         * Tests the ray against a body whose bounds it passes through, keeping the hit as the closest so far
+         * @return The new maximum fraction of the ray
+         */
+        private float castBody(RigidBody body, float maxFraction) {
+            if (!body.isAlive() || (body.getCategory() & batchMask) == 0) return maxFraction;
+            if (!rayCast.cast(body, startX, startY, endX, endY, maxFraction)) return maxFraction;
+
+            hit = body;
+            hitFraction = rayCast.getFraction();
+            hitNormalX = rayCast.getNormalX();
+            hitNormalY = rayCast.getNormalY();
+
+            return hitFraction;
+        }
+
+        /**
+         * Counts the bodies overlapping a single area of the batch
+         */
+        private void countArea(int i) {
+            float lowerX = batchInputs[4 * i];
+            float lowerY = batchInputs[(4 * i) + 1];
+            float upperX = batchInputs[(4 * i) + 2];
+            float upperY = batchInputs[(4 * i) + 3];
+
+            overlaps = 0;
+            querySnapshot.query(lowerX, lowerY, upperX, upperY, snapshotAreaCallback, stack);
+            staticTree.query(lowerX, lowerY, upperX, upperY, staticAreaCallback, stack);
+
+            batchCounts[i] = overlaps;
+        }
+
+        /**
+         * Counts a body found overlapping the area being tested
+         * @return Always True, every overlap is counted
+         */
+        private boolean countBody(RigidBody body) {
+            if (body.isAlive() && (body.getCategory() & batchMask) != 0) overlaps++;
+            return true;
+        }
     }
 
     /**
@@ -128,43 +1394,148 @@ public class World implements Updateable, EntityRenderable {
      * @param renderer The {@link RenderWindow} to draw the entity to
      */
     public void render(RenderWindow renderer) {
-        if(!(DRAW_AABB || DRAW_BODIES || DRAW_VELOCITIES)) return;
+        render(renderer, 1);
+    }
 
-        for(RigidBody body : bodies) {
-            if(DRAW_BODIES) {
-                Shape shape = (Shape) body.getShape().getDrawable();
-                shape.setFillColor(Color.TRANSPARENT);
-                shape.setOutlineColor(BODY_COLOUR);
-                shape.setOutlineThickness(-1f);
+    /**
+     * Copies the bodies in the world, their poses before and after the last update, their bounds and their velocities
+     * into what is drawn, the world can then be updated on another thread while the copy is rendered<br>
+     * See {@link RigidBody#getPublishedTransform(float, Transform)} for drawing the published pose of a body
+     */
+    public void publish() {
+        int total = bodies.size() + staticBodies.size();
+        if(total > publishedBodies.length) {
+            publishedBodies = new RigidBody[Math.max(total, publishedBodies.length * 2)];
+        }
 
-                shape.setPosition(body.getTransform().getPosition());
-                shape.setRotation(body.getTransform().getAngle() * MUtil.RAD_TO_DEG);
+        int count = 0;
+        for(int i = 0; i < bodies.size(); i++) {
+            RigidBody body = bodies.get(i);
 
-                renderer.draw(shape);
+            body.publish();
+            publishedBodies[count++] = body;
+        }
+
+        for(int i = 0; i < staticBodies.size(); i++) {
+            RigidBody body = staticBodies.get(i);
+
+            body.publish();
+            publishedBodies[count++] = body;
+        }
+
+        // Release any bodies which have been removed since the last publish
+        if(publishedCount > count) Arrays.fill(publishedBodies, count, publishedCount, null);
+
+        publishedCount = count;
+        published = true;
+    }
+
+    /**
+     * Draws bodies to the screen part of the way between where they were before the last update and where they are
+     * now, used for debugging<br>
+     * Once the world has been published the bodies are drawn as they were at the last publish
+     * @param renderer The {@link RenderWindow} to draw the entity to
+     * @param alpha How far between the two updates, see {@link com.cluster.engine.Engine#getAlpha()}
+     */
+    public void render(RenderWindow renderer, float alpha) {
+        if(!(DRAW_AABB || DRAW_BODIES || DRAW_VELOCITIES)) return;
+
+        if(published) {
+            for(int i = 0; i < publishedCount; i++) {
+                renderBody(renderer, publishedBodies[i], alpha);
             }
 
-            if(DRAW_AABB) {
-                AABB aabb = new AABB(body.getShape().getVertices(), body.getShape().getVertexCount());
-                RectangleShape shape = new RectangleShape(Vector2f.sub(aabb.getMaximum(), aabb.getMinimum()));
-                shape.setPosition(body.getTransform().getPosition());
+            return;
+        }
+
+        for(int i = 0; i < bodies.size(); i++) {
+            renderBody(renderer, bodies.get(i), alpha);
+        }
+
+        for(int i = 0; i < staticBodies.size(); i++) {
+            renderBody(renderer, staticBodies.get(i), alpha);
+        }
+    }
+
+    /**
+     * Draws a single body with the debug settings
+     * @param renderer The {@link RenderWindow} to draw the body to
+     * @param body The body to draw
+     * @param alpha How far between the last update and now to draw the body
+     */
+    private void renderBody(RenderWindow renderer, RigidBody body, float alpha) {
+        Transform tx = published ? body.getPublishedTransform(alpha, renderTransform)
+                : body.getInterpolatedTransform(alpha, renderTransform);
+
+        if(DRAW_BODIES) {
+            if(body.getShape().getType() == Shape.Type.Circle) {
+                float radius = body.getShape().getRadius();
+
+                CircleShape shape = (CircleShape) body.getShape().getDrawable();
                 shape.setFillColor(Color.TRANSPARENT);
-                shape.setOutlineColor(AABB_COLOUR);
+                shape.setOutlineColor(BODY_COLOUR);
                 shape.setOutlineThickness(-1f);
+                shape.setPosition(tx.getX(), tx.getY());
 
                 renderer.draw(shape);
+
+                // A line from the centre so the rotation of the circle can be seen
+                Vector2f centre = new Vector2f(tx.getX(), tx.getY());
+                Vector2f edge = new Vector2f(tx.getX() + (tx.getCos() * radius),
+                        tx.getY() + (tx.getSin() * radius));
+
+                renderer.draw(new Vertex[] { new Vertex(centre, BODY_COLOUR), new Vertex(edge, BODY_COLOUR) },
+                        PrimitiveType.LINES);
             }
+            else {
+                // The cached world space vertices are where the body is now, so the outline is built from the pose
+                // being drawn instead
+                Polygon polygon = (Polygon) body.getShape();
+                Vector2f[] vertices = polygon.getVertices();
+                int count = polygon.getVertexCount();
 
-            if(DRAW_VELOCITIES) {
-                Vector2f vel = body.getVelocity();
-                Vector2f pos = body.getTransform().getPosition();
+                Vertex[] outline = new Vertex[count + 1];
+                for(int i = 0; i < count; i++) {
+                    Vector2f v = vertices[i];
+                    float x = ((v.x * tx.getCos()) - (v.y * tx.getSin())) + tx.getX();
+                    float y = ((v.x * tx.getSin()) + (v.y * tx.getCos())) + tx.getY();
 
-                Vector2f length = new Vector2f(pos.x + (vel.x), pos.y + (vel.y));
+                    outline[i] = new Vertex(new Vector2f(x, y), BODY_COLOUR);
+                }
 
-                Vertex[] line = new Vertex[] { new Vertex(pos, VELOCITY_COLOUR), new Vertex(length, VELOCITY_COLOUR) };
+                outline[count] = outline[0];
 
-                renderer.draw(line, PrimitiveType.LINES);
+                renderer.draw(outline, PrimitiveType.LINE_STRIP);
             }
         }
+
+        if(DRAW_AABB) {
+            // Only the position is interpolated, the bounds are moved along with it
+            AABB aabb = published ? body.getPublishedAABB() : body.getAABB();
+            Transform current = published ? body.getPublishedTransform(1, renderPublishedTransform)
+                    : body.getTransform();
+
+            RectangleShape shape = new RectangleShape(new Vector2f(aabb.getMaxX() - aabb.getMinX(),
+                    aabb.getMaxY() - aabb.getMinY()));
+            shape.setPosition(aabb.getMinX() + (tx.getX() - current.getX()),
+                    aabb.getMinY() + (tx.getY() - current.getY()));
+            shape.setFillColor(Color.TRANSPARENT);
+            shape.setOutlineColor(AABB_COLOUR);
+            shape.setOutlineThickness(-1f);
+
+            renderer.draw(shape);
+        }
+
+        if(DRAW_VELOCITIES) {
+            Vector2f vel = published ? body.getPublishedVelocity() : body.getVelocity();
+            Vector2f pos = tx.getPosition();
+
+            Vector2f length = new Vector2f(pos.x + (vel.x), pos.y + (vel.y));
+
+            Vertex[] line = new Vertex[] { new Vertex(pos, VELOCITY_COLOUR), new Vertex(length, VELOCITY_COLOUR) };
+
+            renderer.draw(line, PrimitiveType.LINES);
+        }
     }
 
     /**
@@ -173,7 +1544,23 @@ public class World implements Updateable, EntityRenderable {
      * @return True if the body is successfully removed, otherwise false
      */
     public boolean removeBody(RigidBody body) {
-        return bodies.remove(body);
+        if(body.isStatic()) {
+            if(!staticBodies.remove(body)) return false;
+
+            staticsChanged = true;
+        }
+        else {
+            if(!bodies.remove(body)) return false;
+
+            broadphase.destroyProxy(body.getProxyId());
+            body.setProxyId(-1);
+
+            snapshotChanged = true;
+        }
+
+        body.detach();
+
+        return true;
     }
 
     /**
@@ -182,8 +1569,19 @@ public class World implements Updateable, EntityRenderable {
      * @return The body instance which was created
      */
     public RigidBody createBody(BodyConfig config) {
-        RigidBody rb = new RigidBody(config, this);
-        bodies.add(rb);
+        RigidBody rb = new RigidBody(config, this, nextBodyId++, store);
+
+        // Static bodies never move so they are kept out of the broadphase and in the static tree instead
+        if(rb.isStatic()) {
+            staticBodies.add(rb);
+            staticsChanged = true;
+        }
+        else {
+            rb.setProxyId(broadphase.createProxy(rb.getAABB(), rb));
+            bodies.add(rb);
+
+            snapshotChanged = true;
+        }
 
         return rb;
     }
@@ -192,7 +1590,99 @@ public class World implements Updateable, EntityRenderable {
      * Clears all of the bodies in the world
      */
     public void clearBodies() {
-        manifolds.clear();
+        // Bodies are detached from the end as bodies are usually stored in the order they were created
+        for(int i = bodies.size() - 1; i >= 0; i--) {
+            RigidBody body = bodies.get(i);
+
+            broadphase.destroyProxy(body.getProxyId());
+            body.setProxyId(-1);
+
+            body.getContacts().clear();
+            body.detach();
+        }
+
         bodies.clear();
+
+        for(int i = staticBodies.size() - 1; i >= 0; i--) {
+            RigidBody body = staticBodies.get(i);
+
+            body.getContacts().clear();
+            body.detach();
+        }
+
+        staticBodies.clear();
+        rebuildStaticTree();
+
+        querySnapshot.build(bodies);
+        snapshotChanged = false;
+
+        contacts.clear();
+        cachedManifolds.clear();
+    }
+
+    /**
+     * Changes the broadphase used to find candidate pairs, all bodies are moved into the new broadphase<br>
+     * Use {@link com.cluster.engine.Physics.Collisions.Broadphase.BruteForceBroadphase} to test every pair
+     * @param broadphase The broadphase to use
+     */
+    public void setBroadphase(Broadphase broadphase) {
+        if(broadphase == null)
+            throw new IllegalArgumentException("Error: Broadphase cannot be null");
+
+        for(RigidBody body : bodies) {
+            this.broadphase.destroyProxy(body.getProxyId());
+            body.setProxyId(broadphase.createProxy(body.getAABB(), body));
+        }
+
+        this.broadphase = broadphase;
+    }
+
+    /**
+     * Gets the broadphase used to find candidate pairs
+     * @return The broadphase
+     */
+    public Broadphase getBroadphase() { return broadphase; }
+
+    /**
+     * Gets the maximum number of GJK iterations the polygon narrow phase uses for bodies in this world
+     * @return The GJK iteration limit
+     */
+    public int getGjkIterations() { return gjkIterations; }
+
+    /**
+     * Gets the maximum number of EPA iterations the polygon narrow phase uses for bodies in this world
+     * @return The EPA iteration limit
+     */
+    public int getEpaIterations() { return epaIterations; }
+
+    /**
+     * Stops the threads used to solve islands in parallel, the world will be single threaded after this
+     */
+    public void dispose() {
+        if(pool == null) return;
+
+        pool.shutdown();
+        pool = null;
+    }
+
+    /**
+     * Creates the broadphase selected by the configuration given
+     * @param config The configuration of the world
+     * @return The broadphase
+     */
+    private static Broadphase createBroadphase(WorldConfig config) {
+        if(config.broadphase == null)
+            throw new IllegalArgumentException("Error: Broadphase type cannot be null");
+
+        switch (config.broadphase) {
+            case BruteForce:
+                return new BruteForceBroadphase();
+            case Grid:
+                return new GridBroadphase(config.cellSize);
+            case SweepAndPrune:
+                return new SweepAndPruneBroadphase();
+            default:
+                return new DynamicTreeBroadphase();
+        }
     }
 }
@@ -0,0 +1,105 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+
+package com.cluster.engine.Physics;
+
+import com.cluster.engine.Physics.Collisions.Broadphase.Broadphase;
+import com.cluster.engine.Utilities.MUtil;
+import org.jsfml.system.Vector2f;
+
+/**
+ * a class used to initialise a {@link World}
+ */
+public class WorldConfig {
+
+    /** The gravity which acts on all of the bodies, default = (0, 0) */
+    public Vector2f gravity;
+
+    /** The broadphase used to find pairs of bodies which could be colliding, default = DynamicTree */
+    public Broadphase.Type broadphase;
+    /** The width and height of each cell when using the grid broadphase, default = 100 */
+    public float cellSize;
+
+    /** The maximum number of times the velocity solver runs over all contacts each step, default = 8 */
+    public int velocityIterations;
+    /** The solver stops early once an iteration changes no contact velocity by more than this, default = 0.01 */
+    public float velocityTolerance;
+    /** The number of times overlapping bodies are pushed apart each step, default = 1 */
+    public int positionIterations;
+    /** The overlap which is allowed to remain between bodies, stops resting bodies jittering, default = 0.01 */
+    public float slop;
+    /** The fraction of the overlap past the slop which is corrected each position iteration, default = 0.2 */
+    public float baumgarte;
+
+    /** The number of smaller steps each update is split into, default = 1 */
+    public int subSteps;
+
+    /** The maximum number of GJK iterations used to test whether two polygons overlap, default = 30 */
+    public int gjkIterations;
+    /** The maximum number of EPA iterations used to find how far two polygons overlap, default = 30 */
+    public int epaIterations;
+
+    /** The number of threads used to solve islands, 1 solves everything on the calling thread, default = 1 */
+    public int threadCount;
+    /** Whether or not the narrow phase is also run on multiple threads when threadCount is above 1, default = true */
+    public boolean parallelNarrowphase;
+
+    /** Whether or not bodies which have stopped moving are put to sleep, default = true */
+    public boolean allowSleeping;
+    /** The speed below which a body is considered still, default = 1 */
+    public float linearSleepTolerance;
+    /** The angular speed below which a body is considered still, in radians, default = 2 degrees */
+    public float angularSleepTolerance;
+    /** The time every body in an island must be still for before the island is put to sleep, default = 0.5 */
+    public float timeToSleep;
+
+    /**
+     * Creates a default world configuration
+     */
+    public WorldConfig() {
+        gravity = Vector2f.ZERO;
+
+        // Broadphase
+        broadphase = Broadphase.Type.DynamicTree;
+        cellSize = 100f;
+
+        // Solver
+        velocityIterations = 8;
+        velocityTolerance = 0.01f;
+        positionIterations = 1;
+        slop = 0.01f;
+        baumgarte = 0.2f;
+        subSteps = 1;
+        gjkIterations = 30;
+        epaIterations = 30;
+        threadCount = 1;
+        parallelNarrowphase = true;
+
+        // Sleeping
+        allowSleeping = true;
+        linearSleepTolerance = 1f;
+        angularSleepTolerance = 2f * MUtil.DEG_TO_RAD;
+        timeToSleep = 0.5f;
+    }
+}
@@ -39,6 +39,19 @@ public class EngineConfig {
     /** The FPS limit of updating and rendering, set negative to use V-Sync, default = -1 */
     public int fpsLimit;
 
+    /**
+     * The number of fixed updates per second, 0 or less updates once per frame at the FPS limit or the refresh rate.
+     * Updating less often than the screen is drawn should be paired with drawing interpolated poses, see
+     * {@link com.cluster.engine.Engine#getAlpha()}, default = 0
+     */
+    public int updateRate;
+
+    /**
+     * Whether the game is updated on its own thread while the last frame is rendered on the main thread, see
+     * {@link com.cluster.engine.Game} for what each thread owns, default = false
+     */
+    public boolean pipelined;
+
     /** The title of the window, default = "Untitled" */
     public String title;
     /** The {@link WindowStyle} of the window, default = WindowStyle.TITLEBAR | WindowStyle.CLOSE */
@@ -58,6 +71,8 @@ public class EngineConfig {
         height = 360;
 
         fpsLimit = -1;
+        updateRate = 0;
+        pipelined = false;
 
         title = "Untitled";
         style = WindowStyle.TITLEBAR | WindowStyle.CLOSE;
@@ -0,0 +1,229 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+
+package com.cluster.engine.Utilities;
+
+/**
+ * A hash map which uses primitive long keys so that lookups do not box the key<br>
+ * Uses open addressing with linear probing, null values are not allowed. The slots can be iterated directly through
+ * {@link #capacity()}, {@link #getKey(int)} and {@link #getValue(int)} without allocating an iterator
+ * @param <V> The type of value stored
+ */
+public class LongHashMap<V> {
+
+    /** The keys of each slot */
+    private long[] keys;
+    /** The values of each slot, null if the slot is empty */
+    private Object[] values;
+
+    /** The number of entries in the map */
+    private int size;
+    /** Used to wrap hashes to the capacity */
+    private int mask;
+
+    /**
+     * Creates an empty map with a default capacity
+     */
+    public LongHashMap() { this(16); }
+
+    /**
+     * Creates an empty map which can hold the number of entries given before growing
+     * @param expectedSize The number of entries expected
+     */
+    public LongHashMap(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) capacity <<= 1;
+
+        keys = new long[capacity];
+        values = new Object[capacity];
+
+        size = 0;
+        mask = capacity - 1;
+    }
+
+    /**
+     * Gets the value associated with the key given
+     * @param key The key to look up
+     * @return The value, or null if the key is not present
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = find(key);
+        return slot == -1 ? null : (V) values[slot];
+    }
+
+    /**
+     * Checks if the map contains the key given
+     * @param key The key to check
+     * @return True if the key is present, otherwise False
+     */
+    public boolean containsKey(long key) { return find(key) != -1; }
+
+    /**
+     * Associates the value given with the key
+     * @param key The key
+     * @param value The value, cannot be null
+     * @return The previous value associated with the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if(value == null)
+            throw new IllegalArgumentException("Error: Value cannot be null");
+
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if(keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+
+        // Keep the load factor below a half
+        if(size * 2 > mask) grow();
+
+        return null;
+    }
+
+    /**
+     * Removes the key given from the map
+     * @param key The key to remove
+     * @return The value which was associated with the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = find(key);
+        if(slot == -1) return null;
+
+        V previous = (V) values[slot];
+
+        // Shift any following entries back so that probing still finds them
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int ideal = hash(keys[next]) & mask;
+
+            if(((next - ideal) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+
+        values[hole] = null;
+        size--;
+
+        return previous;
+    }
+
+    /**
+     * Removes all of the entries, the capacity is kept
+     */
+    public void clear() {
+        for(int i = 0; i < values.length; i++) {
+            values[i] = null;
+        }
+
+        size = 0;
+    }
+
+    /**
+     * Gets the number of entries in the map
+     * @return The size of the map
+     */
+    public int size() { return size; }
+
+    /**
+     * Gets the number of slots in the map, used to iterate the entries
+     * @return The capacity of the map
+     */
+    public int capacity() { return values.length; }
+
+    /**
+     * Gets the key held within a slot, only valid if {@link #getValue(int)} is not null
+     * @param slot The slot, between 0 and {@link #capacity()}
+     * @return The key
+     */
+    public long getKey(int slot) { return keys[slot]; }
+
+    /**
+     * Gets the value held within a slot
+     * @param slot The slot, between 0 and {@link #capacity()}
+     * @return The value, or null if the slot is empty
+     */
+    @SuppressWarnings("unchecked")
+    public V getValue(int slot) { return (V) values[slot]; }
+
+    /**
+     * Finds the slot which holds the key given
+     * @param key The key to find
+     * @return The slot, or -1 if the key is not present
+     */
+    private int find(long key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if(keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Doubles the capacity of the map and re-inserts all of the entries
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        mask = keys.length - 1;
+
+        for(int i = 0; i < oldValues.length; i++) {
+            if(oldValues[i] == null) continue;
+
+            int slot = hash(oldKeys[i]) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+}
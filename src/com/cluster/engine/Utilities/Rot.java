@@ -0,0 +1,105 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Utilities;
+
+/**
+ * A 2x2 rotation matrix stored as the sine and cosine of its angle
+ */
+public final class Rot {
+
+    public float sin;
+    public float cos;
+
+    /**
+     * Creates the identity rotation
+     */
+    public Rot() {
+        sin = 0;
+        cos = 1;
+    }
+
+    /**
+     * Creates a rotation from the angle given
+     * @param angle The angle, in radians
+     */
+    public Rot(float angle) { set(angle); }
+
+    /**
+     * Sets the rotation to the angle given
+     * @param angle The angle, in radians
+     * @return This rotation
+     */
+    public Rot set(float angle) {
+        sin = MUtil.sin(angle);
+        cos = MUtil.cos(angle);
+        return this;
+    }
+
+    /**
+     * Copies the rotation given
+     * @param r The rotation to copy
+     * @return This rotation
+     */
+    public Rot set(Rot r) {
+        sin = r.sin;
+        cos = r.cos;
+        return this;
+    }
+
+    /**
+     * Sets this to the identity rotation
+     * @return This rotation
+     */
+    public Rot setIdentity() {
+        sin = 0;
+        cos = 1;
+        return this;
+    }
+
+    /**
+     * Gets the angle of the rotation
+     * @return The angle, in radians
+     */
+    public float getAngle() { return (float) Math.atan2(sin, cos); }
+
+    /**
+     * Rotates a vector
+     * @param v The vector to rotate
+     * @param out The vector to write the result to, this can be v
+     * @return The output vector
+     */
+    public Vec2 apply(Vec2 v, Vec2 out) {
+        return out.set((v.x * cos) - (v.y * sin), (v.x * sin) + (v.y * cos));
+    }
+
+    /**
+     * Rotates a vector by the inverse of this rotation
+     * @param v The vector to rotate
+     * @param out The vector to write the result to, this can be v
+     * @return The output vector
+     */
+    public Vec2 applyInverse(Vec2 v, Vec2 out) {
+        return out.set((v.x * cos) + (v.y * sin), (-v.x * sin) + (v.y * cos));
+    }
+}
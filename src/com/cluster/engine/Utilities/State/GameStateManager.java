@@ -25,16 +25,18 @@
 package com.cluster.engine.Utilities.State;
 
 import com.cluster.engine.Game;
+import com.cluster.engine.Utilities.Interfaces.Publishable;
 import com.cluster.engine.Utilities.Interfaces.Renderable;
 import com.cluster.engine.Utilities.Interfaces.Updateable;
 
 import java.util.Stack;
+import java.util.Vector;
 
 /**
  * A Class which allows different sections of the game to be loaded without removing others
  * @author James Bulman
  */
-public class GameStateManager implements Updateable, Renderable {
+public class GameStateManager implements Updateable, Renderable, Publishable {
 
     /**
      * The Game used for State construction
@@ -44,6 +46,13 @@ public class GameStateManager implements Updateable, Renderable {
     // A Stack of States which allowing for level loading etc.
     private Stack<State> states;
 
+    // The State which was active at the last publish, it is the one rendered once the manager has been published
+    private State publishedState;
+    private boolean published;
+
+    // States removed since the last publish, they may still be rendering so they are disposed at the next publish
+    private Vector<State> removedStates;
+
     /**
      * Creates a new Game State Manager
      * @param game The Game instance used to get information for the States
@@ -51,6 +60,10 @@ public class GameStateManager implements Updateable, Renderable {
     public GameStateManager(Game game) {
         this.game = game;
         states = new Stack<>();
+
+        publishedState = null;
+        published = false;
+        removedStates = new Vector<>();
     }
 
     /**
@@ -71,11 +84,19 @@ public class GameStateManager implements Updateable, Renderable {
     }
 
     /**
-     * Removes the active State and disposes it
+     * Removes the active State and disposes it, once the manager has been published the State is disposed at the
+     * next publish instead as it may still be rendering
      */
     public void popState() {
         State s = states.pop();
-        if(s != null) s.dispose();
+        if(s == null) return;
+
+        if(published) {
+            removedStates.add(s);
+        }
+        else {
+            s.dispose();
+        }
     }
 
     /**
@@ -88,10 +109,31 @@ public class GameStateManager implements Updateable, Renderable {
     }
 
     /**
-     * Renders the active State
+     * Publishes the active State and keeps it as the State to render, so that changing State while updating on
+     * another thread does not change what is being rendered
+     */
+    public void publish() {
+        for(int i = 0; i < removedStates.size(); i++) {
+            removedStates.get(i).dispose();
+        }
+
+        removedStates.clear();
+
+        publishedState = states.isEmpty() ? null : states.peek();
+        published = true;
+
+        if(publishedState != null) publishedState.publish();
+    }
+
+    /**
+     * Renders the active State, or the State which was active at the last publish once the manager is published
      */
     public void render() {
-        if(!states.isEmpty())
+        if(published) {
+            if(publishedState != null) publishedState.render();
+        }
+        else if(!states.isEmpty()) {
             states.peek().render();
+        }
     }
 }
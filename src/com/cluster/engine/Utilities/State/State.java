@@ -26,6 +26,7 @@ package com.cluster.engine.Utilities.State;
 
 import com.cluster.engine.Game;
 import com.cluster.engine.Utilities.Interfaces.Disposable;
+import com.cluster.engine.Utilities.Interfaces.Publishable;
 import com.cluster.engine.Utilities.Interfaces.Renderable;
 import com.cluster.engine.Utilities.Interfaces.Updateable;
 import org.jsfml.graphics.RenderWindow;
@@ -36,7 +37,7 @@ import org.jsfml.system.Vector2f;
  * The base for a State to be used within the {@link GameStateManager}
  * @author James Bulman
  */
-public abstract class State implements Renderable, Updateable, Disposable {
+public abstract class State implements Renderable, Updateable, Publishable, Disposable {
 
     /** The Game instance used to get information for this State */
     protected Game game;
@@ -89,6 +90,12 @@ public abstract class State implements Renderable, Updateable, Disposable {
      */
     public abstract void render();
 
+    /**
+     * Runs once per frame after updating and before rendering while this is the active State, used to copy the
+     * state of the game objects into what is drawn
+     */
+    public void publish() {}
+
     /**
      * Runs once the State is removed from the {@link GameStateManager}, used to delete unused objects
      */
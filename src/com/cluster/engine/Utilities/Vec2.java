@@ -0,0 +1,241 @@
+/*
+    MIT License
+
+    Copyright (c) 2017 James Bulman
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package com.cluster.engine.Utilities;
+
+import org.jsfml.system.Vector2f;
+
+/**
+ * A mutable 2D vector, unlike {@link Vector2f} the operations modify the vector in place or write to an output
+ * vector so that hot code does not create any garbage<br>
+ * The in place operations return the vector they were called on so they can be chained
+ */
+public final class Vec2 {
+
+    public float x;
+    public float y;
+
+    /**
+     * Creates a vector at (0, 0)
+     */
+    public Vec2() {
+        x = 0;
+        y = 0;
+    }
+
+    /**
+     * Creates a vector from the components given
+     * @param x The x component
+     * @param y The y component
+     */
+    public Vec2(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Creates a copy of the vector given
+     * @param v The vector to copy
+     */
+    public Vec2(Vec2 v) { this(v.x, v.y); }
+
+    /**
+     * Creates a vector from a JSFML vector
+     * @param v The vector to copy
+     */
+    public Vec2(Vector2f v) { this(v.x, v.y); }
+
+    /**
+     * Sets the components of the vector
+     * @param x The new x component
+     * @param y The new y component
+     * @return This vector
+     */
+    public Vec2 set(float x, float y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /**
+     * Copies the vector given into this vector
+     * @param v The vector to copy
+     * @return This vector
+     */
+    public Vec2 set(Vec2 v) { return set(v.x, v.y); }
+
+    /**
+     * Copies the JSFML vector given into this vector
+     * @param v The vector to copy
+     * @return This vector
+     */
+    public Vec2 set(Vector2f v) { return set(v.x, v.y); }
+
+    /**
+     * Sets both components to zero
+     * @return This vector
+     */
+    public Vec2 setZero() { return set(0, 0); }
+
+    /**
+     * Adds the vector given to this vector
+     * @param v The vector to add
+     * @return This vector
+     */
+    public Vec2 add(Vec2 v) { return set(x + v.x, y + v.y); }
+
+    /**
+     * Subtracts the vector given from this vector
+     * @param v The vector to subtract
+     * @return This vector
+     */
+    public Vec2 sub(Vec2 v) { return set(x - v.x, y - v.y); }
+
+    /**
+     * Scales this vector
+     * @param s The scalar to multiply by
+     * @return This vector
+     */
+    public Vec2 mul(float s) { return set(x * s, y * s); }
+
+    /**
+     * Adds the vector given, scaled by s, to this vector
+     * @param v The vector to add
+     * @param s The scalar to multiply v by
+     * @return This vector
+     */
+    public Vec2 addScaled(Vec2 v, float s) { return set(x + (v.x * s), y + (v.y * s)); }
+
+    /**
+     * Negates this vector
+     * @return This vector
+     */
+    public Vec2 neg() { return set(-x, -y); }
+
+    /**
+     * Makes this vector unit length, a zero vector is left unchanged
+     * @return The length of the vector before it was normalised
+     */
+    public float normalise() {
+        float len = length();
+
+        if(len != 0) {
+            x /= len;
+            y /= len;
+        }
+
+        return len;
+    }
+
+    /**
+     * Gets the length of the vector
+     * @return The length
+     */
+    public float length() { return (float) Math.sqrt((x * x) + (y * y)); }
+
+    /**
+     * Gets the square length of the vector
+     * @return The square length
+     */
+    public float lengthSq() { return (x * x) + (y * y); }
+
+    /**
+     * Calculates the dot product of this vector with the vector given
+     * @param v The other vector
+     * @return The dot product
+     */
+    public float dot(Vec2 v) { return (x * v.x) + (y * v.y); }
+
+    /**
+     * Calculates the 2D cross product of this vector with the vector given
+     * @param v The other vector
+     * @return The cross product
+     */
+    public float cross(Vec2 v) { return (x * v.y) - (y * v.x); }
+
+    /**
+     * Creates a JSFML vector with the same components, this allocates so should be kept out of hot code
+     * @return The JSFML vector
+     */
+    public Vector2f toVector2f() { return new Vector2f(x, y); }
+
+    /**
+     * Adds two vectors
+     * @param a The first vector
+     * @param b The second vector
+     * @param out The vector to write a + b to, this can be a or b
+     * @return The output vector
+     */
+    public static Vec2 add(Vec2 a, Vec2 b, Vec2 out) { return out.set(a.x + b.x, a.y + b.y); }
+
+    /**
+     * Subtracts two vectors
+     * @param a The first vector
+     * @param b The second vector
+     * @param out The vector to write a - b to, this can be a or b
+     * @return The output vector
+     */
+    public static Vec2 sub(Vec2 a, Vec2 b, Vec2 out) { return out.set(a.x - b.x, a.y - b.y); }
+
+    /**
+     * Scales a vector
+     * @param a The vector to scale
+     * @param s The scalar to multiply by
+     * @param out The vector to write a * s to, this can be a
+     * @return The output vector
+     */
+    public static Vec2 mul(Vec2 a, float s, Vec2 out) { return out.set(a.x * s, a.y * s); }
+
+    /**
+     * Performs the 2D cross product of a vector with a scalar
+     * @param a The vector
+     * @param s The scalar
+     * @param out The vector to write the result to, this can be a
+     * @return The output vector
+     */
+    public static Vec2 cross(Vec2 a, float s, Vec2 out) { return out.set(a.y * s, a.x * -s); }
+
+    /**
+     * Performs the 2D cross product of a scalar with a vector
+     * @param s The scalar
+     * @param a The vector
+     * @param out The vector to write the result to, this can be a
+     * @return The output vector
+     */
+    public static Vec2 cross(float s, Vec2 a, Vec2 out) { return out.set(-s * a.y, s * a.x); }
+
+    /**
+     * Performs the triple 2D cross product between the vectors supplied
+     * @param a The first vector
+     * @param b The second vector
+     * @param c The third vector
+     * @param out The vector to write (b * Dot(a, c)) - (a * Dot(b, c)) to, this can be any of the inputs
+     * @return The output vector
+     */
+    public static Vec2 tripleCross(Vec2 a, Vec2 b, Vec2 c, Vec2 out) {
+        float ac = a.dot(c);
+        float bc = b.dot(c);
+
+        return out.set((b.x * ac) - (a.x * bc), (b.y * ac) - (a.y * bc));
+    }
+}